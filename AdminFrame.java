@@ -1,6 +1,13 @@
 package com.movie.ui;
 
+import com.movie.bus.AudienceSketches;
+import com.movie.bus.CsvExporter;
 import com.movie.bus.MovieBUS;
+import com.movie.bus.OccupancyBUS;
+import com.movie.bus.ReportExecutor;
+import com.movie.bus.RevenueBUS;
+import com.movie.bus.RevenueCube;
+import com.movie.bus.ScheduleGenerator;
 import com.movie.bus.RoomBUS;
 import com.movie.bus.ShowtimeBUS;
 import com.movie.bus.StaffBUS;
@@ -9,21 +16,49 @@ import com.movie.bus.TicketBUS;
 import com.movie.model.Movie;
 import com.movie.model.Room;
 import com.movie.model.Showtime;
+import com.movie.model.RevenuePoint;
 import com.movie.model.Staff;
+import com.movie.model.TimeBucket;
 import com.movie.model.Customer;
-import com.movie.dao.MovieDAO;
-import com.movie.dao.RevenueDAO;
-import com.movie.dao.ShowtimeDAO;
+import com.movie.model.CubeDimension;
+import com.movie.model.CubeRow;
+import com.movie.model.DailyRevenueReport;
+import com.movie.model.ExportKind;
+import com.movie.model.FillCurve;
+import com.movie.model.Occupancy;
+import com.movie.network.SocketClient;
+import com.movie.network.SocketServer;
+import com.movie.network.ThreadManager;
+import com.movie.util.SpaceSaving;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AdminFrame extends JFrame {
     private JPanel mainPanel;
@@ -35,9 +70,9 @@ public class AdminFrame extends JFrame {
     private final StaffBUS staffBUS = new StaffBUS();
     private final CustomerBUS customerBUS = new CustomerBUS();
     private final TicketBUS ticketBUS = new TicketBUS();
-    private final MovieDAO movieDAO = new MovieDAO();
-    private final RevenueDAO revenueDAO = new RevenueDAO();
-    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final ScheduleGenerator scheduleGenerator = new ScheduleGenerator();
+    private final RevenueBUS revenueBUS = new RevenueBUS();
+    private final OccupancyBUS occupancyBUS = new OccupancyBUS();
     private JPanel movieListPanel;
     private JTextField titleField;
     private JTextArea descriptionArea;
@@ -63,10 +98,14 @@ public class AdminFrame extends JFrame {
     private JButton selectEndDateButton;
     private volatile boolean running = true; // Flag to control threads
     private JPanel showtimeListPanel;
-    public AdminFrame() {
+    // Dùng để đăng nhập admin trên kết nối giám sát: server chỉ trả lời STATS cho kết nối đó
+    private final String adminUsername;
+    private final String adminPassword;
+    public AdminFrame(String adminUsername, String adminPassword) {
+        this.adminUsername = adminUsername;
+        this.adminPassword = adminPassword;
         initUI();
         startClock();
-        startShowtimeStatusUpdater();
     }
 
     private void initUI() {
@@ -118,21 +157,6 @@ public class AdminFrame extends JFrame {
         }).start();
     }
 
-    private void startShowtimeStatusUpdater() {
-        new Thread(() -> {
-            while (running) {
-                try {
-                    showtimeBUS.getAllShowtimes();
-                    Thread.sleep(60000);
-                } catch (SQLException e) {
-                    System.err.println("Error updating showtime status: " + e.getMessage());
-                } catch (InterruptedException e) {
-                    System.err.println("Showtime updater thread interrupted: " + e.getMessage());
-                }
-            }
-        }).start();
-    }
-
     private JPanel createMainView() {
         JPanel mainView = new JPanel(new BorderLayout());
         mainView.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -149,6 +173,7 @@ public class AdminFrame extends JFrame {
         JButton staffButton = new JButton("Nhân viên");
         JButton customerButton = new JButton("Khách hàng");
         JButton statsButton = new JButton("Thống kê");
+        JButton monitorButton = new JButton("Giám sát");
         JButton logoutButton = new JButton("Đăng xuất");
 
         styleButton(homeButton);
@@ -158,6 +183,7 @@ public class AdminFrame extends JFrame {
         styleButton(staffButton);
         styleButton(customerButton);
         styleButton(statsButton);
+        styleButton(monitorButton);
         styleButton(logoutButton);
 
         homeButton.addActionListener(e -> showPanel("Trang chủ"));
@@ -167,6 +193,7 @@ public class AdminFrame extends JFrame {
         staffButton.addActionListener(e -> showPanel("Nhân viên"));
         customerButton.addActionListener(e -> showPanel("Khách hàng"));
         statsButton.addActionListener(e -> showPanel("Thống kê"));
+        monitorButton.addActionListener(e -> showPanel("Giám sát"));
         logoutButton.addActionListener(e -> {
             running = false; // Stop threads before logout
             dispose();
@@ -188,6 +215,8 @@ public class AdminFrame extends JFrame {
         sidebar.add(Box.createVerticalStrut(15));
         sidebar.add(statsButton);
         sidebar.add(Box.createVerticalStrut(15));
+        sidebar.add(monitorButton);
+        sidebar.add(Box.createVerticalStrut(15));
         sidebar.add(logoutButton);
 
         contentPanel = new JPanel(new CardLayout());
@@ -198,6 +227,7 @@ public class AdminFrame extends JFrame {
         contentPanel.add(createStaffPanel(), "Nhân viên");
         contentPanel.add(createCustomerPanel(), "Khách hàng");
         contentPanel.add(createStatsPanel(), "Thống kê");
+        contentPanel.add(createMonitorPanel(), "Giám sát");
 
         mainView.add(sidebar, BorderLayout.WEST);
         mainView.add(contentPanel, BorderLayout.CENTER);
@@ -415,7 +445,8 @@ public class AdminFrame extends JFrame {
             File selectedFile = fileChooser.getSelectedFile();
             String posterPath = selectedFile.getAbsolutePath();
             posterField.setText(posterPath);
-            posterPreview.setIcon(new ImageIcon(new ImageIcon(posterPath).getImage().getScaledInstance(150, 200, Image.SCALE_SMOOTH)));
+            PosterService.load(posterPath, PosterService.PREVIEW_WIDTH, PosterService.PREVIEW_HEIGHT, posterPreview);
+            PosterService.prefetch(posterPath);
         }
     }
 
@@ -602,7 +633,8 @@ public class AdminFrame extends JFrame {
                 File selectedFile = fileChooser.getSelectedFile();
                 String posterPath = selectedFile.getAbsolutePath();
                 tempPosterField.setText(posterPath);
-                tempPosterPreview.setIcon(new ImageIcon(new ImageIcon(posterPath).getImage().getScaledInstance(150, 200, Image.SCALE_SMOOTH)));
+                PosterService.load(posterPath, PosterService.PREVIEW_WIDTH, PosterService.PREVIEW_HEIGHT, tempPosterPreview);
+                PosterService.prefetch(posterPath);
             }
         });
 
@@ -645,13 +677,13 @@ public class AdminFrame extends JFrame {
                 movie.setDuration(Integer.parseInt(tempDurationField.getText().trim()));
                 movie.setDirector(tempDirectorField.getText().trim());
                 movie.setGenreName(tempGenreField.getText().trim());
-                movie.setGenreID(movieDAO.getGenreIdByName(tempGenreField.getText().trim()));
+                movie.setGenreID(movieBUS.getGenreIdByName(tempGenreField.getText().trim()));
                 movie.setPoster(tempPosterField.getText().trim());
                 movie.setStartDate(Date.valueOf(tempStartDateField.getText().trim()));
                 movie.setEndDate(Date.valueOf(tempEndDateField.getText().trim()));
                 movie.setProductionYear(Integer.parseInt(tempProductionYearField.getText().trim()));
                 movie.setCountryName(tempCountryField.getText().trim());
-                movie.setCountryID(movieDAO.getCountryIdByName(tempCountryField.getText().trim()));
+                movie.setCountryID(movieBUS.getCountryIdByName(tempCountryField.getText().trim()));
                 movie.setAgeRestriction(Integer.parseInt(tempAgeRestrictionField.getText().trim()));
 
                 if (movie.getTitle().isEmpty() || movie.getGenreName().isEmpty()) {
@@ -704,11 +736,7 @@ public class AdminFrame extends JFrame {
                     productionYearField.setText(String.valueOf(movie.getProductionYear()));
                     countryField.setText(movie.getCountryName());
                     ageRestrictionField.setText(String.valueOf(movie.getAgeRestriction()));
-                    if (movie.getPoster() != null && !movie.getPoster().isEmpty()) {
-                        posterPreview.setIcon(new ImageIcon(new ImageIcon(movie.getPoster()).getImage().getScaledInstance(150, 200, Image.SCALE_SMOOTH)));
-                    } else {
-                        posterPreview.setIcon(null);
-                    }
+                    PosterService.load(movie.getPoster(), PosterService.PREVIEW_WIDTH, PosterService.PREVIEW_HEIGHT, posterPreview);
                     formPanel.setVisible(true);
                     updateButton.setEnabled(true);
                     deleteButton.setEnabled(true);
@@ -746,13 +774,13 @@ public class AdminFrame extends JFrame {
             selectedMovie.setDuration(Integer.parseInt(durationField.getText().trim()));
             selectedMovie.setDirector(directorField.getText().trim());
             selectedMovie.setGenreName(genreField.getText().trim());
-            selectedMovie.setGenreID(movieDAO.getGenreIdByName(genreField.getText().trim()));
+            selectedMovie.setGenreID(movieBUS.getGenreIdByName(genreField.getText().trim()));
             selectedMovie.setPoster(posterField.getText().trim());
             selectedMovie.setStartDate(Date.valueOf(startDateField.getText().trim()));
             selectedMovie.setEndDate(Date.valueOf(endDateField.getText().trim()));
             selectedMovie.setProductionYear(Integer.parseInt(productionYearField.getText().trim()));
             selectedMovie.setCountryName(countryField.getText().trim());
-            selectedMovie.setCountryID(movieDAO.getCountryIdByName(countryField.getText().trim()));
+            selectedMovie.setCountryID(movieBUS.getCountryIdByName(countryField.getText().trim()));
             selectedMovie.setAgeRestriction(Integer.parseInt(ageRestrictionField.getText().trim()));
 
             if (selectedMovie.getTitle().isEmpty() || selectedMovie.getGenreName().isEmpty()) {
@@ -1015,12 +1043,15 @@ public class AdminFrame extends JFrame {
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
         JButton addButton = new JButton("Thêm suất chiếu");
+        JButton generateButton = new JButton("Tạo lịch tuần");
         buttonPanel.add(addButton);
+        buttonPanel.add(generateButton);
         mainContent.add(buttonPanel, BorderLayout.SOUTH);
 
         loadShowtimes(showtimeListPanel); // ✅ dùng biến toàn cục
 
         addButton.addActionListener(e -> showAddShowtimeDialog(showtimeListPanel));
+        generateButton.addActionListener(e -> showGenerateScheduleDialog(showtimeListPanel));
 
         panel.add(mainContent, BorderLayout.CENTER);
         return panel;
@@ -1028,9 +1059,17 @@ public class AdminFrame extends JFrame {
 
     private void loadShowtimes(JPanel showtimeListPanel) {
         new SwingWorker<List<Showtime>, Void>() {
+            private Map<Integer, Occupancy> occupancy;
+
             @Override
             protected List<Showtime> doInBackground() throws SQLException {
-                return showtimeBUS.getAllShowtimes();
+                List<Showtime> showtimes = showtimeBUS.getAllShowtimes();
+                List<Integer> showtimeIDs = new ArrayList<>();
+                for (Showtime showtime : showtimes) {
+                    showtimeIDs.add(showtime.getShowtimeID());
+                }
+                occupancy = occupancyBUS.getOccupancy(showtimeIDs);
+                return showtimes;
             }
 
             @Override
@@ -1041,7 +1080,8 @@ public class AdminFrame extends JFrame {
                     SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
 
                     for (Showtime showtime : showtimes) {
-                        JPanel showtimePanel = createShowtimePanel(showtime, showtimeListPanel, sdf);
+                        JPanel showtimePanel = createShowtimePanel(showtime, occupancy.get(showtime.getShowtimeID()),
+                                showtimeListPanel, sdf);
                         showtimeListPanel.add(showtimePanel);
                     }
 
@@ -1055,7 +1095,7 @@ public class AdminFrame extends JFrame {
     }
 
 
-    private JPanel createShowtimePanel(Showtime showtime, JPanel showtimeListPanel, SimpleDateFormat sdf) {
+    private JPanel createShowtimePanel(Showtime showtime, Occupancy occupancy, JPanel showtimeListPanel, SimpleDateFormat sdf) {
         JPanel showtimePanel = new JPanel(new BorderLayout());
         showtimePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         showtimePanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 100));
@@ -1071,8 +1111,13 @@ public class AdminFrame extends JFrame {
                 ? sdf.format(showtime.getShowDate())
                 : "Chưa có thời gian";
 
-        JLabel showtimeLabel = new JLabel(String.format("%02d - %s - Phim: %s - Trạng thái: %s - Thời gian: %s",
-                showtime.getShowtimeID(), roomName, movieTitle, status, showDateStr));
+        String seats = (occupancy != null)
+                ? String.format("%d/%d ghế (%.0f%%), đang giữ %d", occupancy.getBooked(), occupancy.getCapacity(),
+                        occupancy.getFillRate() * 100, occupancy.getHeld())
+                : "Chưa rõ số ghế";
+
+        JLabel showtimeLabel = new JLabel(String.format("%02d - %s - Phim: %s - Trạng thái: %s - Thời gian: %s - Đã bán: %s",
+                showtime.getShowtimeID(), roomName, movieTitle, status, showDateStr, seats));
         showtimeLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         showtimePanel.add(showtimeLabel, BorderLayout.CENTER);
 
@@ -1164,7 +1209,7 @@ public class AdminFrame extends JFrame {
                 showtime.setShowDate(showDate);
                 showtime.setStatus("Không chiếu");
                 showtime.setMovieID(0); // Initially no movie
-                showtimeDAO.addShowtime(showtime);
+                showtimeBUS.addShowtime(showtime);
                 loadShowtimes(showtimeListPanel);
                 JOptionPane.showMessageDialog(this, "Thêm suất chiếu thành công");
                 dialog.dispose();
@@ -1177,6 +1222,144 @@ public class AdminFrame extends JFrame {
         dialog.setVisible(true);
     }
 
+    private void showGenerateScheduleDialog(JPanel showtimeListPanel) {
+        JDialog dialog = new JDialog(this, "Tạo lịch chiếu tuần", true);
+        dialog.setSize(460, 290);
+        dialog.setLocationRelativeTo(this);
+        dialog.setLayout(new BorderLayout(10, 10));
+
+        JPanel inputPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        gbc.gridx = 0; gbc.gridy = 0;
+        inputPanel.add(new JLabel("Tuần bắt đầu (yyyy-MM-dd):"), gbc);
+        JTextField weekStartField = new JTextField(nextMonday.toString(), 12);
+        gbc.gridx = 1;
+        inputPanel.add(weekStartField, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 1;
+        inputPanel.add(new JLabel("Giờ mở cửa (HH:mm):"), gbc);
+        JTextField openingField = new JTextField("09:00", 12);
+        gbc.gridx = 1;
+        inputPanel.add(openingField, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 2;
+        inputPanel.add(new JLabel("Giờ đóng cửa (HH:mm):"), gbc);
+        JTextField closingField = new JTextField("23:30", 12);
+        gbc.gridx = 1;
+        inputPanel.add(closingField, gbc);
+
+        // Nhu cầu của mỗi phim theo tỷ lệ lấp đầy các suất trong bấy nhiêu ngày qua; 0 thì mọi phim như nhau
+        gbc.gridx = 0; gbc.gridy = 3;
+        inputPanel.add(new JLabel("Nhu cầu theo lấp đầy (số ngày qua):"), gbc);
+        JTextField historyDaysField = new JTextField("28", 12);
+        gbc.gridx = 1;
+        inputPanel.add(historyDaysField, gbc);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton generateButton = new JButton("Tạo");
+        JButton cancelButton = new JButton("Hủy");
+        buttonPanel.add(generateButton);
+        buttonPanel.add(cancelButton);
+
+        dialog.add(inputPanel, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+
+        generateButton.addActionListener(e -> {
+            LocalDate weekStart;
+            LocalTime opening;
+            LocalTime closing;
+            int historyDays;
+            try {
+                weekStart = LocalDate.parse(weekStartField.getText().trim());
+                opening = LocalTime.parse(openingField.getText().trim());
+                closing = LocalTime.parse(closingField.getText().trim());
+                historyDays = Integer.parseInt(historyDaysField.getText().trim());
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(dialog, "Ngày hoặc giờ không hợp lệ", "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Số ngày không hợp lệ", "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (historyDays < 0) {
+                JOptionPane.showMessageDialog(dialog, "Số ngày không được âm", "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            generateButton.setEnabled(false);
+            new SwingWorker<List<Showtime>, Void>() {
+                private double seatHours;
+
+                @Override
+                protected List<Showtime> doInBackground() throws SQLException {
+                    Map<Integer, Double> demandWeights = historyDays > 0
+                            ? occupancyBUS.getDemandWeights(historyDays) : new HashMap<>();
+                    List<Showtime> plan = scheduleGenerator.generateWeek(weekStart, opening, closing, demandWeights);
+                    seatHours = ScheduleGenerator.expectedSeatHours(plan, movieBUS.getAllMovies(),
+                            roomBUS.getAllRooms(), demandWeights, ZoneId.systemDefault());
+                    return plan;
+                }
+
+                @Override
+                protected void done() {
+                    generateButton.setEnabled(true);
+                    List<Showtime> plan;
+                    try {
+                        plan = get();
+                    } catch (ExecutionException ex) {
+                        JOptionPane.showMessageDialog(dialog, "Không thể tạo lịch chiếu: " + ex.getCause().getMessage(),
+                                "Lỗi", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (plan.isEmpty()) {
+                        JOptionPane.showMessageDialog(dialog, "Không có phim nào đang chiếu trong tuần này hoặc các phòng đã kín lịch");
+                        return;
+                    }
+                    String message = String.format("Đã xếp %d suất chiếu (khoảng %,.0f giờ-ghế). Lưu lịch này?", plan.size(), seatHours);
+                    if (JOptionPane.showConfirmDialog(dialog, message, "Xác nhận", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+                        saveGeneratedSchedule(plan, dialog, generateButton, showtimeListPanel);
+                    }
+                }
+            }.execute();
+        });
+        cancelButton.addActionListener(e -> dialog.dispose());
+
+        dialog.setVisible(true);
+    }
+
+    private void saveGeneratedSchedule(List<Showtime> plan, JDialog dialog, JButton generateButton, JPanel showtimeListPanel) {
+        generateButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws SQLException {
+                showtimeBUS.addShowtimes(plan);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                generateButton.setEnabled(true);
+                try {
+                    get();
+                    loadShowtimes(showtimeListPanel);
+                    JOptionPane.showMessageDialog(AdminFrame.this, "Đã lưu " + plan.size() + " suất chiếu");
+                    dialog.dispose();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(dialog, "Không thể lưu lịch chiếu: " + ex.getCause().getMessage(),
+                            "Lỗi", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
     private void showAddMovieToShowtimeDialog(Showtime showtime, JPanel showtimeListPanel) {
         JDialog dialog = new JDialog(this, "Thêm phim vào suất chiếu " + showtime.getRoomName(), true);
         dialog.setSize(400, 300);
@@ -1235,7 +1418,7 @@ public class AdminFrame extends JFrame {
                 showtime.setMovieID(selectedMovie.getMovieID());
                 showtime.setShowDate(sdf.parse(showDateStr));
                 showtime.setStatus("Sắp công chiếu");
-                showtimeDAO.updateShowtime(showtime);
+                showtimeBUS.updateShowtime(showtime);
                 loadShowtimes(showtimeListPanel);
                 JOptionPane.showMessageDialog(this, "Thêm phim vào suất chiếu thành công");
                 dialog.dispose();
@@ -1296,7 +1479,7 @@ public class AdminFrame extends JFrame {
                     throw new IllegalArgumentException("Nhân viên không tồn tại");
                 }
                 showtime.setStaffID(selectedStaff.getStaffID());
-                showtimeDAO.updateShowtime(showtime);
+                showtimeBUS.updateShowtime(showtime);
                 loadShowtimes(showtimeListPanel);
                 JOptionPane.showMessageDialog(this, "Thêm nhân viên vào suất chiếu thành công");
                 dialog.dispose();
@@ -1548,6 +1731,14 @@ public class AdminFrame extends JFrame {
         JScrollPane statsScrollPane = new JScrollPane(statsArea);
         mainContent.add(statsScrollPane, BorderLayout.CENTER);
 
+        JTextArea liveArea = new JTextArea("Đang kết nối đến server...", 8, 40);
+        liveArea.setEditable(false);
+        liveArea.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        JScrollPane liveScrollPane = new JScrollPane(liveArea);
+        liveScrollPane.setBorder(BorderFactory.createTitledBorder("Hôm nay (trực tiếp)"));
+        mainContent.add(liveScrollPane, BorderLayout.SOUTH);
+        startLiveRevenue(liveArea);
+
         JPanel inputPanel = new JPanel(new FlowLayout());
         JLabel dateLabel = new JLabel("Chọn ngày (yyyy-MM-dd):");
         JTextField dateField = new JTextField(10);
@@ -1555,31 +1746,577 @@ public class AdminFrame extends JFrame {
         inputPanel.add(dateLabel);
         inputPanel.add(dateField);
         inputPanel.add(loadButton);
-        mainContent.add(inputPanel, BorderLayout.NORTH);
+
+        JPanel trendPanel = new JPanel(new FlowLayout());
+        JTextField fromField = new JTextField(LocalDate.now().minusDays(30).toString(), 10);
+        JTextField toField = new JTextField(LocalDate.now().toString(), 10);
+        JComboBox<TimeBucket> bucketCombo = new JComboBox<>(TimeBucket.values());
+        JButton trendButton = new JButton("Xem xu hướng");
+        JButton fillCurveButton = new JButton("Đường lấp đầy");
+        trendPanel.add(new JLabel("Từ ngày:"));
+        trendPanel.add(fromField);
+        trendPanel.add(new JLabel("Đến ngày:"));
+        trendPanel.add(toField);
+        trendPanel.add(new JLabel("Theo:"));
+        trendPanel.add(bucketCombo);
+        trendPanel.add(trendButton);
+        trendPanel.add(fillCurveButton);
+
+        JPanel cubePanel = new JPanel(new FlowLayout());
+        JComboBox<CubeDimension> firstDimensionCombo = new JComboBox<>(CubeDimension.values());
+        JComboBox<Object> secondDimensionCombo = new JComboBox<>();
+        secondDimensionCombo.addItem("(không)");
+        for (CubeDimension dimension : CubeDimension.values()) {
+            secondDimensionCombo.addItem(dimension);
+        }
+        JButton cubeButton = new JButton("Phân tích");
+        JButton audienceButton = new JButton("Khách & phim hàng đầu");
+        cubePanel.add(new JLabel("Phân tích theo:"));
+        cubePanel.add(firstDimensionCombo);
+        cubePanel.add(new JLabel("và"));
+        cubePanel.add(secondDimensionCombo);
+        cubePanel.add(cubeButton);
+        cubePanel.add(audienceButton);
+
+        JPanel reportPanel = new JPanel(new FlowLayout());
+        JButton reportButton = new JButton("Báo cáo theo khoảng ngày");
+        JProgressBar reportProgress = new JProgressBar();
+        reportProgress.setStringPainted(true);
+        reportProgress.setString("");
+        JButton cancelReportButton = new JButton("Hủy");
+        cancelReportButton.setEnabled(false);
+        AtomicReference<ReportExecutor.ReportJob> runningReport = new AtomicReference<>();
+        cancelReportButton.addActionListener(e -> {
+            ReportExecutor.ReportJob job = runningReport.get();
+            if (job != null) {
+                job.cancel();
+            }
+        });
+        reportPanel.add(reportButton);
+        reportPanel.add(reportProgress);
+        reportPanel.add(cancelReportButton);
+
+        JPanel exportPanel = new JPanel(new FlowLayout());
+        JComboBox<ExportKind> exportKindCombo = new JComboBox<>(ExportKind.values());
+        JButton exportButton = new JButton("Xuất CSV...");
+        JLabel exportStatus = new JLabel(" ");
+        exportPanel.add(new JLabel("Xuất dữ liệu:"));
+        exportPanel.add(exportKindCombo);
+        exportPanel.add(exportButton);
+        exportPanel.add(exportStatus);
+
+        JPanel controls = new JPanel(new GridLayout(5, 1));
+        controls.add(inputPanel);
+        controls.add(trendPanel);
+        controls.add(cubePanel);
+        controls.add(reportPanel);
+        controls.add(exportPanel);
+        mainContent.add(controls, BorderLayout.NORTH);
 
         loadButton.addActionListener(e -> {
+            LocalDate date;
+            try {
+                date = parseDay(dateField.getText());
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            showStatsInBackground(loadButton, statsArea, () -> formatDailyReport(revenueBUS.getDailyReport(date)));
+        });
+
+        trendButton.addActionListener(e -> {
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseDay(fromField.getText());
+                // Ngày kết thúc nhập vào được tính cả ngày đó
+                to = parseDay(toField.getText()).plusDays(1);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            TimeBucket bucket = (TimeBucket) bucketCombo.getSelectedItem();
+            showStatsInBackground(trendButton, statsArea,
+                    () -> formatRevenueSeries(revenueBUS.getRevenueSeries(from, to, bucket)));
+        });
+
+        // Báo cáo chi tiết cho khoảng ngày của phần xu hướng, chia phần và chạy song song
+        reportButton.addActionListener(e -> {
+            ReportExecutor.ReportJob job;
             try {
-                String dateStr = dateField.getText().trim();
-                if (dateStr.isEmpty()) {
-                    throw new IllegalArgumentException("Vui lòng nhập ngày");
+                LocalDate from = parseDay(fromField.getText());
+                LocalDate to = parseDay(toField.getText()).plusDays(1);
+                job = ReportExecutor.getInstance().submit(from, to, (done, total) -> SwingUtilities.invokeLater(() -> {
+                    reportProgress.setValue(done);
+                    reportProgress.setString(done + "/" + total + " phần");
+                }));
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            reportProgress.setMaximum(job.getPartitionCount());
+            reportProgress.setValue(0);
+            reportProgress.setString("0/" + job.getPartitionCount() + " phần");
+            reportButton.setEnabled(false);
+            cancelReportButton.setEnabled(true);
+            runningReport.set(job);
+            new SwingWorker<DailyRevenueReport, Void>() {
+                @Override
+                protected DailyRevenueReport doInBackground() throws SQLException {
+                    return job.get();
                 }
-                statsArea.setText("");
-                List<Showtime> showtimes = showtimeBUS.getAllShowtimes();
-                double totalRevenue = revenueDAO.getTotalRevenueByDate(dateStr);
-                statsArea.append(String.format("Tổng doanh thu ngày %s: %,.2f VND\n", dateStr, totalRevenue));
-                for (Showtime showtime : showtimes) {
-                    if (showtime.getShowDate().toString().startsWith(dateStr) && showtime.getMovieTitle() != null && !showtime.getMovieTitle().isEmpty()) {
-                        double showtimeRevenue = revenueDAO.getRevenueByDateAndMovie(dateStr, showtime.getMovieTitle());
-                        statsArea.append(String.format("Phim: %s - Doanh thu: %,.2f VND\n",
-                                showtime.getMovieTitle(), showtimeRevenue));
+
+                @Override
+                protected void done() {
+                    runningReport.set(null);
+                    reportButton.setEnabled(true);
+                    cancelReportButton.setEnabled(false);
+                    try {
+                        statsArea.setText(formatDailyReport(get()));
+                        statsArea.setCaretPosition(0);
+                    } catch (ExecutionException ex) {
+                        if (ex.getCause() instanceof CancellationException) {
+                            reportProgress.setString("Đã hủy");
+                        } else {
+                            JOptionPane.showMessageDialog(AdminFrame.this, "Không thể tải thống kê: " + ex.getCause().getMessage(),
+                                    "Lỗi", JOptionPane.ERROR_MESSAGE);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
                     }
                 }
-            } catch (SQLException | IllegalArgumentException ex) {
+            }.execute();
+        });
+
+        // Xuất theo khoảng ngày của phần xu hướng (khách hàng thì xuất hết); tên tệp kết thúc bằng .gz thì nén gzip
+        exportButton.addActionListener(e -> {
+            ExportKind kind = (ExportKind) exportKindCombo.getSelectedItem();
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseDay(fromField.getText());
+                to = parseDay(toField.getText()).plusDays(1);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể xuất dữ liệu: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setDialogTitle("Xuất " + kind + " ra tệp CSV");
+            fileChooser.setSelectedFile(new File(kind.name().toLowerCase(Locale.ROOT) + ".csv"));
+            if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File target = fileChooser.getSelectedFile();
+            exportButton.setEnabled(false);
+            exportStatus.setText("Đang xuất " + kind + "...");
+            new SwingWorker<Long, Void>() {
+                @Override
+                protected Long doInBackground() throws SQLException, IOException {
+                    return new CsvExporter().export(kind, from, to, target.toPath());
+                }
+
+                @Override
+                protected void done() {
+                    exportButton.setEnabled(true);
+                    try {
+                        exportStatus.setText("Đã xuất " + get() + " dòng vào " + target.getName());
+                    } catch (ExecutionException ex) {
+                        exportStatus.setText(" ");
+                        JOptionPane.showMessageDialog(AdminFrame.this, "Không thể xuất dữ liệu: " + ex.getCause().getMessage(),
+                                "Lỗi", JOptionPane.ERROR_MESSAGE);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }.execute();
+        });
+
+        // Các suất chiếu bắt đầu trong khoảng ngày của phần xu hướng
+        fillCurveButton.addActionListener(e -> {
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseDay(fromField.getText());
+                to = parseDay(toField.getText()).plusDays(1);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            showStatsInBackground(fillCurveButton, statsArea,
+                    () -> formatFillCurve(occupancyBUS.getFillCurve(from, to, null)));
+        });
+
+        // Số ước lượng từ bản phác thảo theo ngày: khách riêng biệt theo chiều đang chọn và 10 phim bán chạy
+        audienceButton.addActionListener(e -> {
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseDay(fromField.getText());
+                to = parseDay(toField.getText()).plusDays(1);
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            CubeDimension dimension = (CubeDimension) firstDimensionCombo.getSelectedItem();
+            AudienceSketches sketches = AudienceSketches.getInstance();
+            showStatsInBackground(audienceButton, statsArea, () -> formatAudience(dimension,
+                    sketches.estimateCustomers(from, to), sketches.estimateCustomersBy(dimension, from, to),
+                    sketches.getTopMovies(from, to, 10)));
+        });
+
+        // Dùng cùng khoảng ngày với phần xu hướng
+        cubeButton.addActionListener(e -> {
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = parseDay(fromField.getText());
+                to = parseDay(toField.getText()).plusDays(1);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "Không thể tải thống kê: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            List<CubeDimension> groupBy = new ArrayList<>();
+            groupBy.add((CubeDimension) firstDimensionCombo.getSelectedItem());
+            if (secondDimensionCombo.getSelectedItem() instanceof CubeDimension) {
+                groupBy.add((CubeDimension) secondDimensionCombo.getSelectedItem());
             }
+            showStatsInBackground(cubeButton, statsArea, () -> formatCubeRows(groupBy,
+                    RevenueCube.getInstance().query(groupBy, Collections.emptyMap(), from, to)));
         });
 
         panel.add(mainContent, BorderLayout.CENTER);
         return panel;
     }
+
+    /**
+     * Runs a statistics query off the event dispatch thread and shows its text in the area; the
+     * button stays disabled until the query ends.
+     */
+    private void showStatsInBackground(JButton button, JTextArea statsArea, Callable<String> query) {
+        button.setEnabled(false);
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                return query.call();
+            }
+
+            @Override
+            protected void done() {
+                button.setEnabled(true);
+                try {
+                    statsArea.setText(get());
+                    statsArea.setCaretPosition(0);
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(AdminFrame.this, "Không thể tải thống kê: " + ex.getCause().getMessage(),
+                            "Lỗi", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // Server đẩy số liệu khi có vé mới (tối đa mỗi giây một lần), không cần truy vấn lại
+    private void startLiveRevenue(JTextArea liveArea) {
+        LiveRevenueView view = new LiveRevenueView();
+        SocketClient liveClient = new SocketClient("localhost", 5000);
+        liveClient.addMessageListener(message -> {
+            if (message.startsWith(SocketServer.REVENUE_COMMAND + ":")) {
+                String text = view.apply(message.substring(SocketServer.REVENUE_COMMAND.length() + 1));
+                SwingUtilities.invokeLater(() -> liveArea.setText(text));
+            }
+        });
+        ThreadManager.execute(() -> {
+            liveClient.start();
+            try {
+                liveClient.waitForConnection();
+                if (liveClient.isConnected()) {
+                    liveClient.sendMessage(SocketServer.REVENUE_COMMAND);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        new javax.swing.Timer(2000, e -> {
+            if (!running) {
+                ((javax.swing.Timer) e.getSource()).stop();
+                liveClient.stop();
+            }
+        }).start();
+    }
+
+    /** Today's counters as last pushed by the server; only touched by the socket reader thread. */
+    private static final class LiveRevenueView {
+        private static final int TOP_SHOWTIMES = 10;
+        private String date = "";
+        private long tickets;
+        private long revenueCents;
+        private final Map<String, long[]> movies = new HashMap<>();
+        private final Map<String, long[]> showtimes = new HashMap<>();
+
+        String apply(String payload) {
+            Map<String, String> values = new HashMap<>();
+            for (String pair : payload.split(";")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    values.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+            // Bản đầy đủ thay toàn bộ, bản cập nhật chỉ ghi đè các mục có trong tin
+            if ("1".equals(values.get("full"))) {
+                movies.clear();
+                showtimes.clear();
+            }
+            date = values.getOrDefault("date", date);
+            tickets = Long.parseLong(values.getOrDefault("tickets", "0"));
+            revenueCents = Long.parseLong(values.getOrDefault("revenue", "0"));
+            putEntries(values.get("movies"), movies, true);
+            putEntries(values.get("showtimes"), showtimes, false);
+            return format();
+        }
+
+        private static void putEntries(String encoded, Map<String, long[]> target, boolean decodeKey) {
+            if (encoded == null || encoded.isEmpty()) {
+                return;
+            }
+            for (String entry : encoded.split("\\|")) {
+                String[] parts = entry.split(">");
+                if (parts.length == 3) {
+                    String key = decodeKey ? URLDecoder.decode(parts[0], StandardCharsets.UTF_8) : parts[0];
+                    target.put(key, new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                }
+            }
+        }
+
+        private String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Ngày %s: %,.2f VND (%d vé)\n", date, revenueCents / 100.0, tickets));
+            sb.append("\nTheo phim:\n");
+            appendTop(sb, movies, Integer.MAX_VALUE, "  %-30s %,15.2f VND (%d vé)\n");
+            sb.append("\nSuất bán chạy nhất:\n");
+            appendTop(sb, showtimes, TOP_SHOWTIMES, "  Suất %-25s %,15.2f VND (%d vé)\n");
+            return sb.toString();
+        }
+
+        private static void appendTop(StringBuilder sb, Map<String, long[]> entries, int limit, String format) {
+            entries.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                    .limit(limit)
+                    .forEach(entry -> sb.append(String.format(format, entry.getKey(),
+                            entry.getValue()[1] / 100.0, entry.getValue()[0])));
+        }
+    }
+
+    private String formatCubeRows(List<CubeDimension> groupBy, List<CubeRow> rows) {
+        StringBuilder sb = new StringBuilder();
+        long tickets = 0;
+        double total = 0;
+        for (CubeRow row : rows) {
+            tickets += row.getTickets();
+            total += row.getRevenue();
+        }
+        sb.append(String.format("Tổng doanh thu: %,.2f VND (%d vé), %d nhóm\n\n", total, tickets, rows.size()));
+        for (CubeDimension dimension : groupBy) {
+            sb.append(String.format("%-24s", dimension));
+        }
+        sb.append(String.format("%15s %8s\n", "Doanh thu", "Số vé"));
+        for (CubeRow row : rows) {
+            for (int i = 0; i < row.getKeyCount(); i++) {
+                sb.append(String.format("%-24s", row.getKey(i)));
+            }
+            sb.append(String.format("%,15.2f %8d\n", row.getRevenue(), row.getTickets()));
+        }
+        return sb.toString();
+    }
+
+    private String formatAudience(CubeDimension dimension, long customers, Map<String, Long> customersBy,
+                                  List<SpaceSaving.Entry<String>> topMovies) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Khách hàng riêng biệt (ước lượng): %,d\n", customers));
+        sb.append("\nKhách riêng biệt theo ").append(dimension.toString().toLowerCase()).append(":\n");
+        customersBy.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .forEach(entry -> sb.append(String.format("  %-30s %,10d\n", entry.getKey(), entry.getValue())));
+        sb.append("\n10 phim nhiều vé nhất:\n");
+        for (SpaceSaving.Entry<String> entry : topMovies) {
+            sb.append(String.format("  %-30s %,10d vé", entry.getKey(), entry.getCount()));
+            if (entry.getError() > 0) {
+                sb.append(String.format(" (ít nhất %,d)", entry.getGuaranteedCount()));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String formatFillCurve(FillCurve curve) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d suất chiếu, %d ghế, đã bán %d vé (%.1f%%)\n\n", curve.getShowtimeCount(),
+                curve.getCapacity(), curve.getTotalTickets(), curve.getFillRateAt(0) * 100));
+        for (int hours : FillCurve.CHECKPOINT_HOURS) {
+            double rate = curve.getFillRateAt(hours);
+            String label = hours == 0 ? "Lúc chiếu" : hours % 24 == 0 ? "Trước " + hours / 24 + " ngày" : "Trước " + hours + " giờ";
+            sb.append(String.format("%-16s %6.1f%% %s\n", label, rate * 100, "█".repeat((int) Math.round(40 * rate))));
+        }
+        return sb.toString();
+    }
+
+    private static LocalDate parseDay(String text) {
+        String dateStr = text.trim();
+        if (dateStr.isEmpty()) {
+            throw new IllegalArgumentException("Vui lòng nhập ngày");
+        }
+        try {
+            return LocalDate.parse(dateStr);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Định dạng ngày không hợp lệ: " + dateStr);
+        }
+    }
+
+    private String formatRevenueSeries(List<RevenuePoint> series) {
+        double max = 0;
+        double total = 0;
+        int tickets = 0;
+        for (RevenuePoint point : series) {
+            max = Math.max(max, point.getRevenue());
+            total += point.getRevenue();
+            tickets += point.getTickets();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Tổng doanh thu: %,.2f VND (%d vé)\n\n", total, tickets));
+        for (RevenuePoint point : series) {
+            int bar = max > 0 ? (int) Math.round(40 * point.getRevenue() / max) : 0;
+            sb.append(String.format("%s → %s: %,15.2f VND (%4d vé) %s\n", point.getStart(), point.getEnd().minusDays(1),
+                    point.getRevenue(), point.getTickets(), "█".repeat(bar)));
+        }
+        return sb.toString();
+    }
+
+    private String formatDailyReport(DailyRevenueReport report) {
+        StringBuilder sb = new StringBuilder();
+        if (report.getEndDate().equals(report.getDate().plusDays(1))) {
+            sb.append(String.format("Tổng doanh thu ngày %s: %,.2f VND (%d vé)\n", report.getDate(),
+                    report.getTotalRevenue(), report.getTotalTickets()));
+        } else {
+            sb.append(String.format("Tổng doanh thu từ %s đến %s: %,.2f VND (%d vé)\n", report.getDate(),
+                    report.getEndDate().minusDays(1), report.getTotalRevenue(), report.getTotalTickets()));
+        }
+        appendRevenueLines(sb, "Theo phim", "Phim", report.getByMovie());
+        appendRevenueLines(sb, "Theo phòng", "Phòng", report.getByRoom());
+        appendRevenueLines(sb, "Theo suất chiếu", "Suất", report.getByShowtime());
+        sb.append("\nTheo giờ bán:\n");
+        for (int hour = 0; hour < DailyRevenueReport.HOURS_PER_DAY; hour++) {
+            if (report.getTicketsInHour(hour) > 0) {
+                sb.append(String.format("  %02d:00 - %02d:59: %,.2f VND (%d vé)\n", hour, hour,
+                        report.getRevenueInHour(hour), report.getTicketsInHour(hour)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendRevenueLines(StringBuilder sb, String title, String prefix, List<DailyRevenueReport.Line> lines) {
+        sb.append('\n').append(title).append(":\n");
+        for (DailyRevenueReport.Line line : lines) {
+            sb.append(String.format("  %s: %s - Doanh thu: %,.2f VND (%d vé)\n", prefix, line.getLabel(),
+                    line.getRevenue(), line.getTickets()));
+        }
+    }
+
+    private JPanel createMonitorPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(new Color(245, 245, 245));
+        JLabel titleLabel = new JLabel("Giám sát thời gian thực", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+        panel.add(titleLabel, BorderLayout.NORTH);
+
+        JTextArea monitorArea = new JTextArea("Đang kết nối đến server...");
+        monitorArea.setEditable(false);
+        monitorArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        panel.add(new JScrollPane(monitorArea), BorderLayout.CENTER);
+
+        SocketClient monitorClient = new SocketClient("localhost", 5000);
+        monitorClient.addMessageListener(message -> {
+            if (message.startsWith(SocketServer.STATS_COMMAND + ":")) {
+                String text = formatStats(message.substring(SocketServer.STATS_COMMAND.length() + 1));
+                SwingUtilities.invokeLater(() -> monitorArea.setText(text));
+            } else if (message.equals(SocketServer.STATS_DENIED)
+                    || message.equals(SocketServer.ADMIN_LOGIN_COMMAND + ":FAIL")) {
+                SwingUtilities.invokeLater(() -> monitorArea.setText("Server từ chối: tài khoản admin không hợp lệ"));
+            }
+        });
+        ThreadManager.execute(() -> {
+            monitorClient.start();
+            try {
+                monitorClient.waitForConnection();
+                if (monitorClient.isConnected()) {
+                    monitorClient.sendMessage(SocketServer.ADMIN_LOGIN_COMMAND + ":" + adminUsername + ":" + adminPassword);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Hỏi số liệu mỗi 2 giây khi đang mở tab giám sát
+        new javax.swing.Timer(2000, e -> {
+            if (!running) {
+                ((javax.swing.Timer) e.getSource()).stop();
+                monitorClient.stop();
+                return;
+            }
+            if (panel.isShowing() && monitorClient.isConnected()) {
+                monitorClient.sendMessage(SocketServer.STATS_COMMAND);
+            }
+        }).start();
+
+        return panel;
+    }
+
+    private String formatStats(String payload) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : payload.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Client đang kết nối: ").append(values.get("clients")).append("\n");
+        sb.append(String.format("Tin nhắn vào/ra mỗi giây: %s / %s (tổng %s / %s)\n",
+                values.get("inPerSec"), values.get("outPerSec"), values.get("inTotal"), values.get("outTotal")));
+        sb.append(String.format("Độ trễ broadcast (ms, %s lần): p50 %s | p95 %s | p99 %s | max %s\n",
+                values.get("fanoutCount"), values.get("fanoutP50Ms"), values.get("fanoutP95Ms"),
+                values.get("fanoutP99Ms"), values.get("fanoutMaxMs")));
+        sb.append("\nHàng đợi gửi theo client:\n");
+        appendPairs(sb, values.get("queue"), "  %s: %s frame\n");
+        sb.append("\nGhế đang giữ theo suất chiếu:\n");
+        appendPairs(sb, values.get("holds"), "  Suất %s: %s ghế\n");
+        sb.append(String.format("\nKết nối DB: đang mở %s | cao nhất %s | tổng %s\n",
+                values.get("dbOpen"), values.get("dbPeak"), values.get("dbTotal")));
+        sb.append("\nCache (hit/miss/số mục):\n");
+        appendPrefixed(sb, values, "cache.");
+        sb.append("\nGộp truy vấn (gọi/thực thi/gộp):\n");
+        appendPrefixed(sb, values, "flight.");
+        return sb.toString();
+    }
+
+    private void appendPrefixed(StringBuilder sb, Map<String, String> values, String prefix) {
+        new TreeMap<>(values).forEach((key, value) -> {
+            if (key.startsWith(prefix)) {
+                sb.append("  ").append(key.substring(prefix.length())).append(": ").append(value).append("\n");
+            }
+        });
+    }
+
+    private void appendPairs(StringBuilder sb, String encoded, String format) {
+        if (encoded == null || encoded.isEmpty()) {
+            sb.append("  (không có)\n");
+            return;
+        }
+        for (String pair : encoded.split("\\|")) {
+            int sep = pair.lastIndexOf('>');
+            if (sep > 0) {
+                sb.append(String.format(format, pair.substring(0, sep), pair.substring(sep + 1)));
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.movie.model;
+
+import java.time.YearMonth;
+
+/** A month moved out of BookingHistory/Ticket, as recorded in ArchiveState: its file and what the file holds. */
+public final class ArchivedMonth {
+    private final YearMonth month;
+    private final String fileName;
+    private final int bookingCount;
+    private final long priceCents;
+
+    public ArchivedMonth(YearMonth month, String fileName, int bookingCount, long priceCents) {
+        this.month = month;
+        this.fileName = fileName;
+        this.bookingCount = bookingCount;
+        this.priceCents = priceCents;
+    }
+
+    public YearMonth getMonth() { return month; }
+
+    /** Name of the segment file inside the shared archive directory. */
+    public String getFileName() { return fileName; }
+
+    public int getBookingCount() { return bookingCount; }
+
+    public long getPriceCents() { return priceCents; }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.movie.bus;
+
+import com.movie.dao.DictionaryDAO;
+import com.movie.dao.RevenueDAO;
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.CubeDimension;
+import com.movie.model.Movie;
+import com.movie.model.Showtime;
+import com.movie.util.HyperLogLog;
+import com.movie.util.LookupTable;
+import com.movie.util.SpaceSaving;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Approximate audience figures per day: distinct customers ({@link HyperLogLog}) in total and per
+ * movie, room, genre and country, and the most booked movies ({@link SpaceSaving}, by tickets).
+ * Sketches of a date range are merged from the daily ones, so an answer costs a few kilobytes per
+ * day instead of a COUNT(DISTINCT CustomerID) scan; memory stays bounded by keeping only the last
+ * {@link #RETENTION_DAYS} days (-Dsketch.days), and only days still in the database.
+ * <p>
+ * Like {@link RevenueCube}, the sketches are built from BookingHistory on the first query and caught
+ * up before each query with the bookings committed since by any process; building, updating and
+ * querying all run on one background thread, so the sketches themselves need no locking.
+ */
+public final class AudienceSketches {
+    // Sai số chuẩn khoảng 2,3% với 2 KB mỗi bộ đếm
+    static final int PRECISION = 11;
+    // Đủ rộng để top 10 phim đúng cả khi lượng vé dàn trải
+    static final int TOP_CAPACITY = 200;
+    static final int RETENTION_DAYS = Integer.getInteger("sketch.days", 92);
+    private static final CubeDimension[] DIMENSIONS = {CubeDimension.MOVIE, CubeDimension.ROOM,
+            CubeDimension.GENRE, CubeDimension.COUNTRY};
+    private static final String UNKNOWN = "Không rõ";
+    private static final AudienceSketches INSTANCE = new AudienceSketches();
+
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieBUS movieBUS = new MovieBUS();
+    private final DictionaryDAO dictionaryDAO = new DictionaryDAO();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "audience-sketches");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Các trường dưới đây chỉ worker đọc/ghi
+    private final Map<Integer, String[]> showtimeLabels = new HashMap<>();
+    // Vé từ cutoff trở đi đã được tính: HistoryID -> lúc đặt
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+    private NavigableMap<LocalDate, DaySketch> days;
+    private LocalDateTime cutoff;
+
+    /** Sketches of one day. */
+    private static final class DaySketch {
+        final HyperLogLog customers = new HyperLogLog(PRECISION);
+        final Map<CubeDimension, Map<String, HyperLogLog>> customersBy = new EnumMap<>(CubeDimension.class);
+        final SpaceSaving<String> movies = new SpaceSaving<>(TOP_CAPACITY);
+
+        void add(int customerID, String[] labels, long tickets) {
+            customers.add(customerID);
+            for (int i = 0; i < DIMENSIONS.length; i++) {
+                customersBy.computeIfAbsent(DIMENSIONS[i], k -> new HashMap<>())
+                        .computeIfAbsent(labels[i], k -> new HyperLogLog(PRECISION)).add(customerID);
+            }
+            movies.offer(labels[0], tickets);
+        }
+    }
+
+    private AudienceSketches() {
+    }
+
+    public static AudienceSketches getInstance() {
+        return INSTANCE;
+    }
+
+    /** Estimated number of distinct customers who booked in [from, to). */
+    public long estimateCustomers(LocalDate from, LocalDate to) throws SQLException {
+        requireRange(from, to);
+        return onWorker(() -> {
+            HyperLogLog merged = new HyperLogLog(PRECISION);
+            for (DaySketch day : range(from, to)) {
+                merged.merge(day.customers);
+            }
+            return merged.estimate();
+        });
+    }
+
+    /**
+     * Estimated number of distinct customers per value of the dimension (movie, room, genre or
+     * country) in [from, to), e.g. unique customers per genre this month.
+     */
+    public Map<String, Long> estimateCustomersBy(CubeDimension dimension, LocalDate from, LocalDate to) throws SQLException {
+        requireSketched(dimension);
+        requireRange(from, to);
+        return onWorker(() -> {
+            Map<String, HyperLogLog> merged = new HashMap<>();
+            for (DaySketch day : range(from, to)) {
+                day.customersBy.getOrDefault(dimension, new HashMap<>()).forEach((value, sketch) ->
+                        merged.computeIfAbsent(value, k -> new HyperLogLog(PRECISION)).merge(sketch));
+            }
+            Map<String, Long> estimates = new HashMap<>();
+            merged.forEach((value, sketch) -> estimates.put(value, sketch.estimate()));
+            return estimates;
+        });
+    }
+
+    /** The k most booked movies in [from, to) by tickets; counts are upper bounds, see {@link SpaceSaving.Entry}. */
+    public List<SpaceSaving.Entry<String>> getTopMovies(LocalDate from, LocalDate to, int k) throws SQLException {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Số phim phải lớn hơn 0");
+        }
+        requireRange(from, to);
+        return onWorker(() -> {
+            SpaceSaving<String> merged = new SpaceSaving<>(TOP_CAPACITY);
+            for (DaySketch day : range(from, to)) {
+                merged.merge(day.movies);
+            }
+            return merged.top(k);
+        });
+    }
+
+    private static void requireSketched(CubeDimension dimension) {
+        for (CubeDimension sketched : DIMENSIONS) {
+            if (sketched == dimension) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Không có thống kê khách hàng theo " + dimension);
+    }
+
+    private static void requireRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Khoảng ngày không hợp lệ");
+        }
+    }
+
+    private Iterable<DaySketch> range(LocalDate from, LocalDate to) {
+        return days.subMap(from, true, to, false).values();
+    }
+
+    private <T> T onWorker(Callable<T> query) throws SQLException {
+        try {
+            return worker.submit(() -> {
+                if (days == null) {
+                    build();
+                }
+                try {
+                    catchUp();
+                } catch (SQLException e) {
+                    // Có thể đã tính một phần: bỏ để lần truy vấn sau dựng lại từ cơ sở dữ liệu
+                    days = null;
+                    throw e;
+                }
+                return query.call();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi đang tính thống kê khách hàng", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void build() throws SQLException {
+        LocalDateTime buildCutoff = LocalDateTime.now().minusSeconds(RevenueCube.BUILD_OVERLAP_SECONDS);
+        LocalDate start = LocalDate.now().minusDays(RETENTION_DAYS - 1);
+        try {
+            // Ngày đã lưu trữ không còn trong cơ sở dữ liệu: coi như không có vé
+            LocalDate hotSince = BookingArchive.getInstance().getHotSince();
+            if (start.isBefore(hotSince)) {
+                start = hotSince;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+        LookupTable genres = dictionaryDAO.getGenres();
+        LookupTable countries = dictionaryDAO.getCountries();
+        NavigableMap<LocalDate, DaySketch> built = new TreeMap<>();
+        showtimeLabels.clear();
+        applied.clear();
+        revenueDAO.scanCustomerFacts(start.atStartOfDay(), buildCutoff,
+                (customerID, showtimeID, movieTitle, roomName, genreID, countryID, day, tickets) -> {
+                    String[] labels = showtimeLabels.computeIfAbsent(showtimeID, k -> labels(movieTitle, roomName,
+                            genres.getName(genreID), countries.getName(countryID)));
+                    built.computeIfAbsent(day, k -> new DaySketch()).add(customerID, labels, tickets);
+                });
+        days = built;
+        cutoff = buildCutoff;
+    }
+
+    /** Adds the bookings committed since the last call, by this or any other process. */
+    private void catchUp() throws SQLException {
+        LocalDateTime nextCutoff = LocalDateTime.now().minusSeconds(RevenueCube.BUILD_OVERLAP_SECONDS);
+        List<Booking> added = new ArrayList<>();
+        revenueDAO.scanRecentBookings(cutoff, (historyID, customerID, showtimeID, movieTitle, bookedAt, priceCents) -> {
+            if (applied.putIfAbsent(historyID, bookedAt) == null) {
+                added.add(new Booking(customerID, showtimeID, bookedAt));
+            }
+        });
+        for (Booking booking : added) {
+            days.computeIfAbsent(booking.bookedAt.toLocalDate(), k -> new DaySketch())
+                    .add(booking.customerID, labelsOf(booking.showtimeID), 1);
+        }
+        // Vé đặt trước mốc mới sẽ không được đọc lại nữa
+        cutoff = nextCutoff;
+        applied.values().removeIf(bookedAt -> bookedAt.isBefore(nextCutoff));
+        expireOldDays();
+    }
+
+    private String[] labelsOf(int showtimeID) throws SQLException {
+        String[] labels = showtimeLabels.get(showtimeID);
+        if (labels == null) {
+            Showtime showtime = showtimeDAO.getShowtimeById(showtimeID);
+            Movie movie = showtime == null ? null : movieBUS.getMovieById(showtime.getMovieID());
+            labels = labels(showtime == null ? null : showtime.getMovieTitle(),
+                    showtime == null ? null : showtime.getRoomName(),
+                    movie == null ? null : dictionaryDAO.getGenreName(movie.getGenreID()),
+                    movie == null ? null : dictionaryDAO.getCountryName(movie.getCountryID()));
+            showtimeLabels.put(showtimeID, labels);
+        }
+        return labels;
+    }
+
+    private void expireOldDays() {
+        days.headMap(LocalDate.now().minusDays(RETENTION_DAYS - 1), false).clear();
+    }
+
+    // Cùng thứ tự với DIMENSIONS
+    private static String[] labels(String movieTitle, String roomName, String genre, String country) {
+        return new String[]{orUnknown(movieTitle), orUnknown(roomName), orUnknown(genre), orUnknown(country)};
+    }
+
+    private static String orUnknown(String label) {
+        return label == null ? UNKNOWN : label;
+    }
+
+    private static final class Booking {
+        final int customerID;
+        final int showtimeID;
+        final LocalDateTime bookedAt;
+
+        Booking(int customerID, int showtimeID, LocalDateTime bookedAt) {
+            this.customerID = customerID;
+            this.showtimeID = showtimeID;
+            this.bookedAt = bookedAt;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,602 @@
+package com.movie.bus;
+
+import com.movie.dao.BookingArchiveDAO;
+import com.movie.dao.ExportDAO;
+import com.movie.model.ArchivedMonth;
+import com.movie.model.BookingHistory;
+import com.movie.model.DailyRevenueReport;
+import com.movie.util.ColumnarSegment;
+import com.movie.util.ColumnarSegment.Encoding;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Archive of closed months of BookingHistory + Ticket, one {@link ColumnarSegment} file per month
+ * in a directory shared by every process (-Darchive.dir, required once anything is archived).
+ * <p>
+ * The database is the source of truth: ArchiveState lists the archived months and their files,
+ * and is written in the same transaction that deletes the month's rows, so every process sees
+ * the same boundary, {@link #getHotSince()}: bookings before it are read from here, bookings from
+ * it on from the database. A month listed there whose file is missing from the directory is an
+ * error, never an empty month. The Revenue rollup is never archived, so totals and series keep
+ * covering every day.
+ * <p>
+ * Archiving is not run by the application; schedule it once per night on one machine:
+ * {@code java -Darchive.dir=<shared dir> com.movie.bus.BookingArchive archive|list|adopt}
+ * (adopt records the files of months archived before ArchiveState existed). Months older
+ * than {@link #KEEP_MONTHS} (-Darchive.keepMonths) are moved oldest first: the month is written to
+ * a new file, read back and checked, and only then recorded and deleted from both tables. A month
+ * that still has tickets for a showtime that has not started stops the run, so the archive always
+ * ends at a single date.
+ */
+public final class BookingArchive {
+    static final int KEEP_MONTHS = Integer.getInteger("archive.keepMonths", 3);
+    private static final String DIRECTORY = System.getProperty("archive.dir");
+    // Tên tệp của phiên bản đầu, khi danh sách tháng còn suy ra từ thư mục
+    private static final Pattern LEGACY_FILE_NAME = Pattern.compile("bookings-(\\d{4}-\\d{2})\\.seg");
+    // Tệp không còn được ArchiveState trỏ tới (lần chạy bị lỗi, hoặc bản cũ đã được thay) chỉ bị xóa khi đủ cũ,
+    // để không đụng tới tệp mà một lần lưu trữ khác đang ghi dở
+    private static final long ORPHAN_MIN_AGE_HOURS = 24;
+    // Số lần chạy lại một tác vụ khi ranh giới lưu trữ dịch chuyển trong lúc chạy
+    private static final int MAX_HOT_RANGE_ATTEMPTS = 3;
+
+    static final String HISTORY_ID = "HistoryID";
+    static final String CUSTOMER_ID = "CustomerID";
+    static final String TICKET_ID = "TicketID";
+    static final String SHOWTIME_ID = "ShowtimeID";
+    static final String SEAT_ID = "SeatID";
+    static final String BOOKING_DATE = "BookingDate";
+    static final String SHOW_DATE = "ShowDate";
+    static final String MOVIE_TITLE = "MovieTitle";
+    static final String ROOM_NAME = "RoomName";
+    static final String SEAT_NUMBER = "SeatNumber";
+    static final String PRICE_CENTS = "PriceCents";
+    // Dòng xếp theo BookingDate nên id và thời điểm tăng dần: mã delta; khách, ghế, giá nhảy lung tung: mã thường
+    static final String[] COLUMNS = {HISTORY_ID, CUSTOMER_ID, TICKET_ID, SHOWTIME_ID, SEAT_ID, BOOKING_DATE,
+            SHOW_DATE, MOVIE_TITLE, ROOM_NAME, SEAT_NUMBER, PRICE_CENTS};
+    static final Encoding[] ENCODINGS = {Encoding.DELTA, Encoding.PLAIN, Encoding.DELTA, Encoding.DELTA,
+            Encoding.PLAIN, Encoding.DELTA, Encoding.DELTA, Encoding.DICTIONARY, Encoding.DICTIONARY,
+            Encoding.DICTIONARY, Encoding.PLAIN};
+    // ShowDate không còn (suất đã bị xóa)
+    private static final long NO_SHOW_DATE = 0;
+
+    private static final BookingArchive INSTANCE = new BookingArchive(DIRECTORY == null ? null : Paths.get(DIRECTORY));
+
+    /** Work on the bookings still in the database, which start at hotSince; may be run more than once. */
+    public interface HotRangeTask<T> {
+        T run(LocalDate hotSince) throws SQLException;
+    }
+
+    /** Receives archived bookings in booking order within each month, months oldest first. */
+    public interface BookingVisitor {
+        void visit(int showtimeID, String movieTitle, String roomName, LocalDateTime bookedAt, long priceCents);
+    }
+
+    /** Receives archived bookings with the start of their showtime, both in epoch millis. */
+    public interface ShowingBookingVisitor {
+        void visit(int showtimeID, long bookedAt, long showAt);
+    }
+
+    // null nếu chưa cấu hình -Darchive.dir
+    private final Path directory;
+    private final BookingArchiveDAO bookingArchiveDAO = new BookingArchiveDAO();
+    // Ảnh chụp bất biến các tệp đang mở, thay nguyên khối khi ArchiveState đổi
+    private volatile NavigableMap<YearMonth, ColumnarSegment> segments = Collections.emptyNavigableMap();
+
+    BookingArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public static BookingArchive getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * First day whose bookings are still in the database, as recorded in ArchiveState;
+     * LocalDate.EPOCH (before any booking) if nothing is archived.
+     * @throws IOException If the archive state cannot be read.
+     */
+    public LocalDate getHotSince() throws IOException {
+        List<ArchivedMonth> archived = readState();
+        return archived.isEmpty() ? LocalDate.EPOCH : archived.get(archived.size() - 1).getMonth().plusMonths(1).atDay(1);
+    }
+
+    /**
+     * Runs a task on the bookings from hotSince on. Months are archived by another process, so
+     * nothing is locked: if hotSince moved while the task ran, rows it read may have been deleted
+     * under it and it is run again. Tasks must therefore be safe to repeat; writes that must not
+     * overlap archiving lock ArchiveState in their own transaction (see RevenueDAO.rebuildRollup).
+     */
+    public <T> T withHotRange(HotRangeTask<T> task) throws SQLException, IOException {
+        LocalDate hotSince = getHotSince();
+        for (int attempt = 1; ; attempt++) {
+            T result = task.run(hotSince);
+            LocalDate after = getHotSince();
+            if (after.equals(hotSince)) {
+                return result;
+            }
+            if (attempt == MAX_HOT_RANGE_ATTEMPTS) {
+                throw new IOException("Kho lưu trữ đang thay đổi, hãy thử lại");
+            }
+            hotSince = after;
+        }
+    }
+
+    /**
+     * The archived months, oldest first.
+     * @throws IOException If the archive state cannot be read.
+     */
+    public List<YearMonth> getArchivedMonths() throws IOException {
+        List<YearMonth> months = new ArrayList<>();
+        for (ArchivedMonth archived : readState()) {
+            months.add(archived.getMonth());
+        }
+        return months;
+    }
+
+    /**
+     * Moves every closed month before the keep window out of the database, oldest first.
+     * @return The months archived by this call.
+     * @throws SQLException If reading or deleting fails; months archived before the error stay archived.
+     * @throws IOException If the archive directory is not configured or a file cannot be written.
+     */
+    public synchronized List<YearMonth> archiveClosedMonths() throws SQLException, IOException {
+        Path dir = requireDirectory();
+        Files.createDirectories(dir);
+        NavigableMap<YearMonth, Path> legacy = findLegacyFiles(dir);
+        if (!legacy.isEmpty()) {
+            // Các tháng này đã bị xóa khỏi cơ sở dữ liệu, chỉ còn trong tệp: phải ghi nhận trước
+            throw new IOException("Còn tệp lưu trữ cũ chưa ghi nhận " + legacy.keySet() + ", hãy chạy BookingArchive adopt trước");
+        }
+        deleteOrphans(dir);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime keepFrom = YearMonth.from(now).minusMonths(KEEP_MONTHS).atDay(1).atStartOfDay();
+        List<YearMonth> archived = new ArrayList<>();
+        for (YearMonth month : bookingArchiveDAO.getMonthsBefore(keepFrom)) {
+            int pending = bookingArchiveDAO.countUnfinishedShowtimeTickets(month, now);
+            if (pending > 0) {
+                // Dừng ở đây để phần lưu trữ luôn liền một khoảng, kết thúc trước getHotSince()
+                System.out.println("Chưa lưu trữ tháng " + month + ": còn " + pending + " vé của suất chưa chiếu");
+                break;
+            }
+            if (archiveMonth(dir, month)) {
+                archived.add(month);
+            } else {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Records in ArchiveState the files written before it existed (bookings-yyyy-MM.seg), whose
+     * rows were already deleted from the database; run once after upgrading.
+     * @return The months recorded.
+     * @throws SQLException If a month cannot be recorded.
+     * @throws IOException If the archive directory is not configured or a file cannot be read.
+     */
+    public synchronized List<YearMonth> adoptLegacyFiles() throws SQLException, IOException {
+        NavigableMap<YearMonth, Path> legacy = findLegacyFiles(requireDirectory());
+        for (Map.Entry<YearMonth, Path> entry : legacy.entrySet()) {
+            ColumnarSegment segment = ColumnarSegment.open(entry.getValue());
+            bookingArchiveDAO.recordArchivedMonth(new ArchivedMonth(entry.getKey(),
+                    entry.getValue().getFileName().toString(), segment.getRowCount(), sumPrices(segment)));
+        }
+        return new ArrayList<>(legacy.keySet());
+    }
+
+    /** Files named like the first archive version whose month is not in ArchiveState. */
+    private NavigableMap<YearMonth, Path> findLegacyFiles(Path dir) throws IOException {
+        Set<YearMonth> known = new HashSet<>(getArchivedMonths());
+        NavigableMap<YearMonth, Path> legacy = new TreeMap<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "bookings-*.seg")) {
+                for (Path file : files) {
+                    Matcher matcher = LEGACY_FILE_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches() && !known.contains(YearMonth.parse(matcher.group(1)))) {
+                        legacy.put(YearMonth.parse(matcher.group(1)), file);
+                    }
+                }
+            }
+        }
+        return legacy;
+    }
+
+    private boolean archiveMonth(Path dir, YearMonth month) throws SQLException, IOException {
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(COLUMNS, ENCODINGS);
+        Set<Long> historyIDs = new HashSet<>();
+        long[] totals = new long[3]; // số dòng lấy từ cơ sở dữ liệu, tổng tiền và mã kiểm tra của cả tệp
+        ColumnarSegment previous = segments().get(month);
+        if (previous != null) {
+            // Tháng đã lưu trữ nhưng lại có dòng trong cơ sở dữ liệu: gộp để không mất dòng nào của tệp cũ
+            ColumnarSegment.Cursor row = previous.scan(COLUMNS);
+            while (row.next()) {
+                historyIDs.add(row.getLong(0));
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    if (ENCODINGS[c] == Encoding.DICTIONARY) {
+                        writer.set(c, row.getString(c));
+                        totals[2] = checksum(totals[2], row.getString(c));
+                    } else {
+                        writer.set(c, row.getLong(c));
+                        totals[2] = checksum(totals[2], row.getLong(c));
+                    }
+                }
+                writer.endRow();
+                totals[1] += row.getLong(10);
+            }
+        }
+        bookingArchiveDAO.scanMonth(month, (historyID, customerID, ticketID, showtimeID, seatID, bookingDate,
+                                            showDate, movieTitle, roomName, seatNumber, priceCents) -> {
+            totals[0]++;
+            if (!historyIDs.add((long) historyID)) {
+                return;
+            }
+            long[] numbers = {historyID, customerID, ticketID, showtimeID, seatID, bookingDate.getTime(),
+                    showDate == null ? NO_SHOW_DATE : showDate.getTime()};
+            for (int c = 0; c < numbers.length; c++) {
+                writer.set(c, numbers[c]);
+                totals[2] = checksum(totals[2], numbers[c]);
+            }
+            String[] texts = {movieTitle, roomName, seatNumber};
+            for (int i = 0; i < texts.length; i++) {
+                writer.set(numbers.length + i, texts[i]);
+                totals[2] = checksum(totals[2], texts[i]);
+            }
+            writer.set(10, priceCents);
+            totals[2] = checksum(totals[2], priceCents);
+            writer.endRow();
+            totals[1] += priceCents;
+        });
+
+        // Mỗi lần ghi một tệp mới, không bao giờ ghi đè: tệp cũ có thể đang được tiến trình khác ánh xạ
+        // (Windows không cho đổi tên đè lên tệp đang ánh xạ)
+        String fileName = "bookings-" + month + "-" + System.currentTimeMillis() + ".seg";
+        Path file = dir.resolve(fileName);
+        writer.writeTo(file);
+        ColumnarSegment written = ColumnarSegment.open(file);
+        if (written.getRowCount() != writer.getRowCount() || sumPrices(written) != totals[1]
+                || checksum(written) != totals[2]) {
+            deleteQuietly(file);
+            throw new IOException("Tệp lưu trữ " + file + " đọc lại không khớp dữ liệu đã ghi");
+        }
+        boolean deleted = false;
+        try {
+            deleted = bookingArchiveDAO.deleteMonth(
+                    new ArchivedMonth(month, fileName, writer.getRowCount(), totals[1]), (int) totals[0]);
+        } finally {
+            if (!deleted) {
+                deleteQuietly(file);
+            }
+        }
+        if (!deleted) {
+            return false;
+        }
+        register(month, written);
+        if (previous != null) {
+            deleteQuietly(previous.getFile());
+        }
+        System.out.println("Đã lưu trữ " + writer.getRowCount() + " vé của tháng " + month + " vào " + file);
+        return true;
+    }
+
+    private static long sumPrices(ColumnarSegment segment) {
+        long sum = 0;
+        ColumnarSegment.Cursor row = segment.scan(PRICE_CENTS);
+        while (row.next()) {
+            sum += row.getLong(0);
+        }
+        return sum;
+    }
+
+    /** Order-sensitive hash of every value of every row, to compare a file read back with what was written. */
+    private static long checksum(ColumnarSegment segment) {
+        long hash = 0;
+        ColumnarSegment.Cursor row = segment.scan(COLUMNS);
+        while (row.next()) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                hash = ENCODINGS[c] == Encoding.DICTIONARY
+                        ? checksum(hash, row.getString(c)) : checksum(hash, row.getLong(c));
+            }
+        }
+        return hash;
+    }
+
+    private static long checksum(long hash, long value) {
+        return hash * 31 + value;
+    }
+
+    private static long checksum(long hash, String value) {
+        // Writer lưu null thành chuỗi rỗng
+        return checksum(hash, (value == null ? "" : value).hashCode());
+    }
+
+    /**
+     * Visits the archived bookings made in [from, to); only files and blocks that can contain the
+     * range are read.
+     * @throws IOException If the archive cannot be read.
+     */
+    public void scanBookings(LocalDateTime from, LocalDateTime to, BookingVisitor visitor) throws IOException {
+        long fromMillis = Timestamp.valueOf(from).getTime();
+        long toMillis = Timestamp.valueOf(to).getTime();
+        ZoneId zone = ZoneId.systemDefault();
+        for (ColumnarSegment segment : overlapping(from, to)) {
+            ColumnarSegment.Cursor row = segment.scan(BOOKING_DATE, fromMillis, toMillis - 1,
+                    SHOWTIME_ID, MOVIE_TITLE, ROOM_NAME, BOOKING_DATE, PRICE_CENTS);
+            while (row.next()) {
+                visitor.visit(row.getInt(0), row.getString(1), row.getString(2),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(row.getLong(3)), zone), row.getLong(4));
+            }
+        }
+    }
+
+    /**
+     * Visits the archived bookings of showtimes starting in [from, to) that were made before
+     * bookedBefore. Files of months after the range are skipped, and blocks by their ShowDate zone map.
+     * @throws IOException If the archive cannot be read.
+     */
+    public void scanShowingBookings(LocalDateTime from, LocalDateTime to, LocalDate bookedBefore,
+                                    ShowingBookingVisitor visitor) throws IOException {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        long fromMillis = Timestamp.valueOf(from).getTime();
+        long toMillis = Timestamp.valueOf(to).getTime();
+        long bookedBeforeMillis = Timestamp.valueOf(bookedBefore.atStartOfDay()).getTime();
+        // Vé đặt trong lúc suất đang chiếu có thể rơi vào tháng sau tháng của giờ chiếu
+        for (ColumnarSegment segment : segments().headMap(YearMonth.from(to).plusMonths(1), true).values()) {
+            ColumnarSegment.Cursor row = segment.scan(SHOW_DATE, fromMillis, toMillis - 1,
+                    SHOWTIME_ID, BOOKING_DATE, SHOW_DATE);
+            while (row.next()) {
+                long bookedAt = row.getLong(1);
+                if (bookedAt < bookedBeforeMillis) {
+                    visitor.visit(row.getInt(0), bookedAt, row.getLong(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes every column of the archived bookings made in [from, to) to the consumer, in booking order.
+     * @throws IOException If the archive cannot be read or the consumer fails.
+     */
+    public void scanArchivedBookings(LocalDateTime from, LocalDateTime to, ExportDAO.BookingRowConsumer consumer)
+            throws IOException {
+        long fromMillis = Timestamp.valueOf(from).getTime();
+        long toMillis = Timestamp.valueOf(to).getTime();
+        for (ColumnarSegment segment : overlapping(from, to)) {
+            ColumnarSegment.Cursor row = segment.scan(BOOKING_DATE, fromMillis, toMillis - 1, COLUMNS);
+            while (row.next()) {
+                consumer.accept(row.getInt(0), row.getInt(1), row.getInt(2), row.getInt(3), row.getInt(4),
+                        row.getLong(5), row.getLong(6), row.getString(7), row.getString(8), row.getString(9),
+                        row.getLong(10));
+            }
+        }
+    }
+
+    /**
+     * Revenue report of an archived day, in the same form as the one computed from the database.
+     * @throws IOException If the archive cannot be read.
+     */
+    public DailyRevenueReport getDailyReport(LocalDate date) throws IOException {
+        DailyRevenueReport.Builder report = new DailyRevenueReport.Builder(date);
+        addToReport(date, date.plusDays(1), report);
+        return report.build();
+    }
+
+    /**
+     * Adds the archived bookings made in [from, to) to a report.
+     * @throws IOException If the archive cannot be read.
+     */
+    public void addToReport(LocalDate from, LocalDate to, DailyRevenueReport.Builder report) throws IOException {
+        long fromMillis = Timestamp.valueOf(from.atStartOfDay()).getTime();
+        long toMillis = Timestamp.valueOf(to.atStartOfDay()).getTime();
+        ZoneId zone = ZoneId.systemDefault();
+        for (ColumnarSegment segment : overlapping(from.atStartOfDay(), to.atStartOfDay())) {
+            ColumnarSegment.Cursor row = segment.scan(BOOKING_DATE, fromMillis, toMillis - 1,
+                    SHOWTIME_ID, MOVIE_TITLE, ROOM_NAME, SHOW_DATE, BOOKING_DATE, PRICE_CENTS);
+            while (row.next()) {
+                long showDate = row.getLong(3);
+                int hour = Instant.ofEpochMilli(row.getLong(4)).atZone(zone).getHour();
+                report.add(row.getInt(0), row.getString(1), row.getString(2),
+                        showDate == NO_SHOW_DATE ? null : new Timestamp(showDate), hour, 1, row.getLong(5) / 100.0);
+            }
+        }
+    }
+
+    /**
+     * Archived bookings of a customer, newest first. Every file is read, but only the CustomerID
+     * column of blocks whose zone map contains the customer.
+     * @throws IOException If the archive cannot be read.
+     */
+    public List<BookingHistory> findByCustomer(int customerID) throws IOException {
+        List<BookingHistory> bookings = new ArrayList<>();
+        for (ColumnarSegment segment : segments().descendingMap().values()) {
+            ColumnarSegment.Cursor row = segment.scan(CUSTOMER_ID, customerID, customerID,
+                    HISTORY_ID, TICKET_ID, BOOKING_DATE, MOVIE_TITLE, ROOM_NAME, SEAT_NUMBER, PRICE_CENTS);
+            while (row.next()) {
+                BookingHistory booking = new BookingHistory();
+                booking.setHistoryID(row.getInt(0));
+                booking.setCustomerID(customerID);
+                booking.setTicketID(row.getInt(1));
+                booking.setBookingDate(new Timestamp(row.getLong(2)));
+                booking.setMovieTitle(row.getString(3));
+                booking.setRoomName(row.getString(4));
+                booking.setSeatNumber(row.getString(5));
+                booking.setPrice(row.getLong(6) / 100.0);
+                bookings.add(booking);
+            }
+        }
+        bookings.sort(Comparator.comparing(BookingHistory::getBookingDate).reversed());
+        return bookings;
+    }
+
+    private List<ColumnarSegment> overlapping(LocalDateTime from, LocalDateTime to) throws IOException {
+        if (!from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to.minusNanos(1));
+        return new ArrayList<>(segments().subMap(first, true, last, true).values());
+    }
+
+    /** The files of the months listed in ArchiveState, opened once and reopened when a month's file changes. */
+    private NavigableMap<YearMonth, ColumnarSegment> segments() throws IOException {
+        List<ArchivedMonth> state = readState();
+        NavigableMap<YearMonth, ColumnarSegment> current = segments;
+        if (matches(current, state)) {
+            return current;
+        }
+        synchronized (this) {
+            current = segments;
+            if (matches(current, state)) {
+                return current;
+            }
+            NavigableMap<YearMonth, ColumnarSegment> loaded = new TreeMap<>();
+            for (ArchivedMonth archived : state) {
+                ColumnarSegment segment = current.get(archived.getMonth());
+                if (segment == null || !isFileOf(segment, archived)) {
+                    segment = open(archived);
+                }
+                loaded.put(archived.getMonth(), segment);
+            }
+            segments = Collections.unmodifiableNavigableMap(loaded);
+            return segments;
+        }
+    }
+
+    private static boolean matches(NavigableMap<YearMonth, ColumnarSegment> current, List<ArchivedMonth> state) {
+        if (current.size() != state.size()) {
+            return false;
+        }
+        for (ArchivedMonth archived : state) {
+            ColumnarSegment segment = current.get(archived.getMonth());
+            if (segment == null || !isFileOf(segment, archived)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFileOf(ColumnarSegment segment, ArchivedMonth archived) {
+        return segment.getFile().getFileName().toString().equals(archived.getFileName());
+    }
+
+    private ColumnarSegment open(ArchivedMonth archived) throws IOException {
+        if (directory == null) {
+            throw new IOException("Tháng " + archived.getMonth()
+                    + " đã được lưu trữ nhưng chưa cấu hình thư mục lưu trữ dùng chung (-Darchive.dir)");
+        }
+        Path file = directory.resolve(archived.getFileName());
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("Thiếu tệp lưu trữ " + file + " của tháng " + archived.getMonth()
+                    + ", kiểm tra -Darchive.dir");
+        }
+        ColumnarSegment segment = ColumnarSegment.open(file);
+        if (segment.getRowCount() != archived.getBookingCount()) {
+            throw new IOException("Tệp lưu trữ " + file + " có " + segment.getRowCount() + " vé, ArchiveState ghi "
+                    + archived.getBookingCount() + " vé");
+        }
+        return segment;
+    }
+
+    private synchronized void register(YearMonth month, ColumnarSegment segment) {
+        NavigableMap<YearMonth, ColumnarSegment> updated = new TreeMap<>(segments);
+        updated.put(month, segment);
+        segments = Collections.unmodifiableNavigableMap(updated);
+    }
+
+    private List<ArchivedMonth> readState() throws IOException {
+        try {
+            return bookingArchiveDAO.getArchivedMonths();
+        } catch (SQLException e) {
+            throw new IOException("Không đọc được trạng thái lưu trữ: " + e.getMessage(), e);
+        }
+    }
+
+    private Path requireDirectory() throws IOException {
+        if (directory == null) {
+            throw new IOException("Chưa cấu hình thư mục lưu trữ dùng chung (-Darchive.dir)");
+        }
+        return directory;
+    }
+
+    /** Deletes files and temp files that ArchiveState does not point to and that are old enough. */
+    private void deleteOrphans(Path dir) throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (ArchivedMonth archived : readState()) {
+            referenced.add(archived.getFileName());
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(ORPHAN_MIN_AGE_HOURS, ChronoUnit.HOURS));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "{bookings-*.seg,segment*.tmp}")) {
+            for (Path file : files) {
+                if (!referenced.contains(file.getFileName().toString())
+                        && Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    // Windows không xóa được tệp đang được ánh xạ: để lại, lần chạy sau xóa
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Chưa xóa được " + file + ": " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        if (args.length != 1) {
+            System.err.println("Cách dùng: java -Darchive.dir=<thư mục dùng chung> BookingArchive archive|list|adopt");
+            System.exit(2);
+        }
+        BookingArchive archive = getInstance();
+        switch (args[0]) {
+            case "archive":
+                List<YearMonth> archived = archive.archiveClosedMonths();
+                System.out.println(archived.isEmpty() ? "Không có tháng nào cần lưu trữ" : "Đã lưu trữ: " + archived);
+                break;
+            case "adopt":
+                List<YearMonth> adopted = archive.adoptLegacyFiles();
+                System.out.println(adopted.isEmpty() ? "Không có tệp cũ nào cần ghi nhận" : "Đã ghi nhận: " + adopted);
+                break;
+            case "list":
+                for (ArchivedMonth month : archive.readState()) {
+                    Path file = archive.directory == null ? null : archive.directory.resolve(month.getFileName());
+                    System.out.println(month.getMonth() + ": " + month.getBookingCount() + " vé, "
+                            + (file != null && Files.isRegularFile(file) ? Files.size(file) + " byte, " + file
+                            : "THIẾU TỆP " + month.getFileName()));
+                }
+                System.out.println("Dữ liệu trong cơ sở dữ liệu từ ngày: " + archive.getHotSince());
+                break;
+            default:
+                System.err.println("Lệnh không hợp lệ: " + args[0]);
+                System.exit(2);
+        }
+    }
+}
\ No newline at end of file
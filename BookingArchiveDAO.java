@@ -0,0 +1,222 @@
+package com.movie.dao;
+
+import com.movie.model.ArchivedMonth;
+import com.movie.util.DBConnection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves closed months out of BookingHistory and Ticket: reads a month's bookings for the archive
+ * and deletes them once the archive file is safely written. ArchiveState records which months
+ * are archived and in which file, so every process agrees on where the database data starts.
+ */
+public class BookingArchiveDAO {
+    private static final String SELECT_ARCHIVE_STATE =
+            "SELECT ArchivedMonth, FileName, BookingCount, PriceCents FROM ArchiveState ORDER BY ArchivedMonth";
+    private static final String UPDATE_ARCHIVE_STATE =
+            "UPDATE ArchiveState SET FileName = ?, BookingCount = ?, PriceCents = ?, ArchivedAt = GETDATE() " +
+                    "WHERE ArchivedMonth = ?";
+    private static final String INSERT_ARCHIVE_STATE =
+            "INSERT INTO ArchiveState (ArchivedMonth, FileName, BookingCount, PriceCents) VALUES (?, ?, ?, ?)";
+    // Dùng IX_BookingHistory_BookingDate
+    private static final String SELECT_MONTHS_BEFORE =
+            "SELECT DISTINCT YEAR(BookingDate) AS BookingYear, MONTH(BookingDate) AS BookingMonth " +
+                    "FROM BookingHistory WHERE BookingDate < ? ORDER BY 1, 2";
+    private static final String COUNT_UNFINISHED_SHOWTIMES =
+            "SELECT COUNT(*) FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? AND s.ShowDate >= ?";
+    private static final String SELECT_MONTH =
+            "SELECT bh.HistoryID, bh.CustomerID, bh.TicketID, t.ShowtimeID, t.SeatID, bh.BookingDate, s.ShowDate, " +
+                    "bh.MovieTitle, bh.RoomName, bh.SeatNumber, bh.Price " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "LEFT JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "ORDER BY bh.BookingDate, bh.HistoryID";
+    // Lịch sử tham chiếu vé nên xóa lịch sử trước, giữ lại TicketID để xóa vé trong cùng lô lệnh
+    private static final String DELETE_MONTH =
+            "DECLARE @archived TABLE (TicketID INT NOT NULL); " +
+                    "DELETE FROM BookingHistory OUTPUT DELETED.TicketID INTO @archived " +
+                    "WHERE BookingDate >= ? AND BookingDate < ?; " +
+                    "DELETE FROM Ticket WHERE TicketID IN (SELECT TicketID FROM @archived); " +
+                    "SELECT COUNT(*) FROM @archived;";
+
+    /** One archived booking: BookingHistory joined with its Ticket and the showtime's start. */
+    public interface ArchivedBookingConsumer {
+        void accept(int historyID, int customerID, int ticketID, int showtimeID, int seatID, Timestamp bookingDate,
+                    Timestamp showDate, String movieTitle, String roomName, String seatNumber, long priceCents);
+    }
+
+    /**
+     * The archived months, oldest first.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<ArchivedMonth> getArchivedMonths() throws SQLException {
+        List<ArchivedMonth> months = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVE_STATE);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                months.add(new ArchivedMonth(YearMonth.from(rs.getDate("ArchivedMonth").toLocalDate()),
+                        rs.getString("FileName"), rs.getInt("BookingCount"), rs.getLong("PriceCents")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading archive state: " + e.getMessage());
+            throw e;
+        }
+        return months;
+    }
+
+    /**
+     * Records an archived month whose rows are already gone from the database.
+     * @throws SQLException If a database error occurs or the month is already recorded.
+     */
+    public void recordArchivedMonth(ArchivedMonth archived) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_ARCHIVE_STATE)) {
+            stmt.setDate(1, java.sql.Date.valueOf(archived.getMonth().atDay(1)));
+            stmt.setString(2, archived.getFileName());
+            stmt.setInt(3, archived.getBookingCount());
+            stmt.setLong(4, archived.getPriceCents());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error recording archived month " + archived.getMonth() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Months that still have bookings before the given time, oldest first.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<YearMonth> getMonthsBefore(LocalDateTime before) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_MONTHS_BEFORE)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(before));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    months.add(YearMonth.of(rs.getInt("BookingYear"), rs.getInt("BookingMonth")));
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Number of tickets booked in the month for showtimes that have not started before now;
+     * such tickets are still needed for seat checks.
+     * @throws SQLException If a database error occurs.
+     */
+    public int countUnfinishedShowtimeTickets(YearMonth month, LocalDateTime now) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_UNFINISHED_SHOWTIMES)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            stmt.setTimestamp(3, Timestamp.valueOf(now));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Streams the month's bookings in booking order.
+     * @throws SQLException If a database error occurs.
+     */
+    public void scanMonth(YearMonth month, ArchivedBookingConsumer consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_MONTH)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            stmt.setFetchSize(10_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal price = rs.getBigDecimal("Price");
+                    consumer.accept(rs.getInt("HistoryID"), rs.getInt("CustomerID"), rs.getInt("TicketID"),
+                            rs.getInt("ShowtimeID"), rs.getInt("SeatID"), rs.getTimestamp("BookingDate"),
+                            rs.getTimestamp("ShowDate"), rs.getString("MovieTitle"), rs.getString("RoomName"),
+                            rs.getString("SeatNumber"),
+                            price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading bookings of " + month + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Records the month as archived in the given file and deletes its bookings and their tickets,
+     * all in one transaction, but only if exactly expectedRows bookings are deleted (the number
+     * read for the archive); otherwise nothing changes.
+     * @return True if the rows were deleted.
+     * @throws SQLException If a database error occurs (nothing is changed).
+     */
+    public boolean deleteMonth(ArchivedMonth archived, int expectedRows) throws SQLException {
+        YearMonth month = archived.getMonth();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            // Ghi ArchiveState trước khi xóa: dựng lại bảng tổng hợp khóa bảng này trước rồi mới đọc BookingHistory,
+            // nên hai bên không chạy xen nhau và cũng không khóa chéo nhau
+            try (PreparedStatement update = conn.prepareStatement(UPDATE_ARCHIVE_STATE);
+                 PreparedStatement stmt = conn.prepareStatement(DELETE_MONTH)) {
+                java.sql.Date firstDay = java.sql.Date.valueOf(month.atDay(1));
+                update.setString(1, archived.getFileName());
+                update.setInt(2, archived.getBookingCount());
+                update.setLong(3, archived.getPriceCents());
+                update.setDate(4, firstDay);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = conn.prepareStatement(INSERT_ARCHIVE_STATE)) {
+                        insert.setDate(1, firstDay);
+                        insert.setString(2, archived.getFileName());
+                        insert.setInt(3, archived.getBookingCount());
+                        insert.setLong(4, archived.getPriceCents());
+                        insert.executeUpdate();
+                    }
+                }
+                stmt.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+                stmt.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+                int deleted = -1;
+                // Bỏ qua số dòng của các lệnh DELETE, lấy kết quả SELECT cuối
+                boolean isResultSet = stmt.execute();
+                while (isResultSet || stmt.getUpdateCount() != -1) {
+                    if (isResultSet) {
+                        try (ResultSet rs = stmt.getResultSet()) {
+                            if (rs.next()) {
+                                deleted = rs.getInt(1);
+                            }
+                        }
+                    }
+                    isResultSet = stmt.getMoreResults();
+                }
+                if (deleted != expectedRows) {
+                    conn.rollback();
+                    System.err.println("Số vé xóa của " + month + " (" + deleted + ") khác số vé đã lưu trữ ("
+                            + expectedRows + "), đã hoàn tác");
+                    return false;
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("Error deleting archived bookings of " + month + ": " + e.getMessage());
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.movie.bus.TicketBUS;
 import com.movie.bus.SeatBUS;
 import com.movie.model.Movie;
 import com.movie.model.Room;
+import com.movie.model.RoomLayout;
 import com.movie.model.Seat;
 import com.movie.model.Showtime;
 import com.movie.network.SocketClient;
@@ -40,8 +41,9 @@ public class BookingFrame extends JFrame {
     private List<Seat> allSeats;
     private Map<String, Integer> seatNameToIdMap;
 
-    public BookingFrame(int customerId, int roomId, int movieId) {
+    public BookingFrame(int customerId, int showtimeId, int roomId, int movieId) {
         this.customerId = customerId;
+        this.showtimeId = showtimeId;
         this.roomId = roomId;
         this.movieId = movieId;
         seatButtons = new ArrayList<>();
@@ -54,7 +56,6 @@ public class BookingFrame extends JFrame {
         seatNameToIdMap = new HashMap<>();
         initUI();
         initSocket();
-        loadShowtime();
         loadSeats();
     }
 
@@ -91,41 +92,6 @@ public class BookingFrame extends JFrame {
         add(mainPanel);
     }
 
-    private void loadShowtime() {
-        new SwingWorker<Integer, Void>() {
-            @Override
-            protected Integer doInBackground() throws SQLException {
-                List<Showtime> showtimes = showtimeBUS.getShowtimesByRoomAndMovie(roomId, movieId);
-                if (!showtimes.isEmpty()) {
-                    return showtimes.get(0).getShowtimeID();
-                }
-                return -1;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    showtimeId = get();
-                    if (showtimeId == -1) {
-                        JOptionPane.showMessageDialog(BookingFrame.this,
-                                "Không tìm thấy suất chiếu cho phòng " + roomId + "!", "Lỗi", JOptionPane.ERROR_MESSAGE);
-                        dispose();
-                    } else {
-                        // Send GET_SEATS message after showtimeId is loaded
-                        if (client != null && client.isConnected()) {
-                            client.sendMessage("GET_SEATS:" + showtimeId + ":" + roomId);
-                        }
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(BookingFrame.this,
-                            "Lỗi tải suất chiếu: " + e.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
-                    dispose();
-                }
-            }
-        }.execute();
-    }
-
     private void loadSeats() {
         new SwingWorker<Void, Void>() {
             @Override
@@ -133,11 +99,12 @@ public class BookingFrame extends JFrame {
                 try {
                     Movie movie = movieBUS.getMovieById(movieId);
                     Room room = roomBUS.getRoomById(roomId);
-                    List<Showtime> showtimes = showtimeBUS.getShowtimesByRoomAndMovie(roomId, movieId);
-                    allSeats = seatBUS.getSeatsByRoomId(roomId);
+                    // Đúng suất khách đã chọn, không lấy suất đầu tiên của phòng
+                    Showtime showtime = showtimeBUS.getShowtimeById(showtimeId);
+                    allSeats = showtime == null ? new ArrayList<>()
+                            : seatBUS.getSeatsForShowtime(showtimeId, roomId);
 
-                    if (movie != null && room != null && !showtimes.isEmpty() && !allSeats.isEmpty()) {
-                        Showtime showtime = showtimes.get(0);
+                    if (movie != null && room != null && showtime != null && !allSeats.isEmpty()) {
                         SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm dd/MM/yyyy");
                         String showDateStr = dateFormat.format(showtime.getShowDate());
 
@@ -157,9 +124,12 @@ public class BookingFrame extends JFrame {
                                 JButton seatButton = new JButton(seat.getSeatNumber());
                                 seatButton.setBackground(Color.GREEN);
                                 seatButton.addActionListener(e -> toggleSeat(seatButton));
+                                if (RoomLayout.STATUS_BOOKED.equals(seat.getStatus())) {
+                                    seatButton.setBackground(Color.RED);
+                                    seatButton.setEnabled(false);
+                                }
                                 seatButtons.add(seatButton);
                                 seatPanel.add(seatButton);
-                                checkSeatStatus(seatButton, seat.getSeatNumber());
                             }
                             seatPanel.revalidate();
                             seatPanel.repaint();
@@ -181,35 +151,6 @@ public class BookingFrame extends JFrame {
         }.execute();
     }
 
-    private void checkSeatStatus(JButton seatButton, String seatName) {
-        new SwingWorker<Boolean, Void>() {
-            @Override
-            protected Boolean doInBackground() {
-                try {
-                    Integer seatId = seatNameToIdMap.get(seatName);
-                    if (seatId == null) return false;
-                    return ticketBUS.isSeatBooked(seatId, showtimeId);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    return false;
-                }
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    if (get()) {
-                        seatButton.setBackground(Color.RED);
-                        seatButton.setEnabled(false);
-                        selectedSeats.remove(seatName);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        }.execute();
-    }
-
     private int getSeatIdFromName(String seatName) {
         return seatNameToIdMap.getOrDefault(seatName, -1);
     }
@@ -254,7 +195,7 @@ public class BookingFrame extends JFrame {
                 });
             }
         });
-        // Moved GET_SEATS message to loadShowtime to ensure showtimeId is loaded
+        client.sendMessage("GET_SEATS:" + showtimeId + ":" + roomId);
     }
 
     private void updateSeats(String seatData) {
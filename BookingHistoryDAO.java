@@ -7,6 +7,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,31 +19,51 @@ public class BookingHistoryDAO {
     private static final String INSERT_BOOKING =
             "INSERT INTO BookingHistory (CustomerID, TicketID, BookingDate, MovieTitle, RoomName, SeatNumber, Price) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS =
+            "HistoryID, CustomerID, TicketID, BookingDate, MovieTitle, RoomName, SeatNumber, Price";
     private static final String SELECT_ALL =
-            "SELECT * FROM BookingHistory";
+            "SELECT " + COLUMNS + " FROM BookingHistory";
+    // Dùng chỉ mục IX_BookingHistory_Customer (CustomerID, BookingDate)
     private static final String SELECT_BY_CUSTOMER =
-            "SELECT * FROM BookingHistory WHERE CustomerID = ?";
+            "SELECT " + COLUMNS + " FROM BookingHistory WHERE CustomerID = ? ORDER BY BookingDate DESC";
 
     /**
-     * Adds a new booking history record to the database.
+     * Adds a new booking history record to the database and sets its generated HistoryID.
      * @param booking The booking history object to add.
      * @throws SQLException If a database error occurs.
      */
     public void addBooking(BookingHistory booking) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            addBooking(conn, booking);
+        }
+    }
+
+    /**
+     * Adds a booking history record on the caller's connection, as part of its transaction.
+     * @param conn The connection of the booking transaction.
+     * @param booking The booking history object to add.
+     * @throws SQLException If a database error occurs.
+     */
+    public void addBooking(Connection conn, BookingHistory booking) throws SQLException {
         if (booking == null || booking.getMovieTitle() == null || booking.getRoomName() == null) {
             throw new IllegalArgumentException("Thông tin đặt vé không hợp lệ");
         }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(INSERT_BOOKING)) {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, booking.getCustomerID());
             stmt.setInt(2, booking.getTicketID());
-            stmt.setDate(3, new java.sql.Date(booking.getBookingDate().getTime()));
+            // BookingDate là DATETIME: lưu cả giờ đặt (setDate làm mất phần giờ)
+            stmt.setTimestamp(3, new Timestamp(booking.getBookingDate().getTime()));
             stmt.setString(4, booking.getMovieTitle());
             stmt.setString(5, booking.getRoomName());
             stmt.setString(6, booking.getSeatNumber());
             stmt.setDouble(7, booking.getPrice());
             stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    booking.setHistoryID(rs.getInt(1));
+                }
+            }
         } catch (SQLException e) {
             System.err.println("Error adding booking for customer " + booking.getCustomerID() + ": " + e.getMessage());
             throw e;
@@ -49,7 +71,8 @@ public class BookingHistoryDAO {
     }
 
     /**
-     * Retrieves all booking history records from the database.
+     * Retrieves all booking history records from the database. Months moved to the booking
+     * archive are not included.
      * @return A list of all booking history records.
      * @throws SQLException If a database error occurs.
      */
@@ -69,7 +92,7 @@ public class BookingHistoryDAO {
     }
 
     /**
-     * Retrieves booking history records for a specific customer.
+     * Retrieves booking history records for a specific customer, newest first.
      * @param customerID The ID of the customer.
      * @return A list of booking history records for the customer.
      * @throws SQLException If a database error occurs.
@@ -106,7 +129,7 @@ public class BookingHistoryDAO {
         booking.setHistoryID(rs.getInt("HistoryID"));
         booking.setCustomerID(rs.getInt("CustomerID"));
         booking.setTicketID(rs.getInt("TicketID"));
-        booking.setBookingDate(rs.getDate("BookingDate"));
+        booking.setBookingDate(rs.getTimestamp("BookingDate"));
         booking.setMovieTitle(rs.getString("MovieTitle"));
         booking.setRoomName(rs.getString("RoomName"));
         booking.setSeatNumber(rs.getString("SeatNumber"));
@@ -0,0 +1,529 @@
+package com.movie.network;
+
+import com.movie.bus.MovieBUS;
+import com.movie.bus.RoomBUS;
+import com.movie.bus.SeatBUS;
+import com.movie.bus.SeatHoldBUS;
+import com.movie.bus.SessionBUS;
+import com.movie.bus.ShowtimeBUS;
+import com.movie.bus.TicketBUS;
+import com.movie.dao.TicketDAO;
+import com.movie.model.Movie;
+import com.movie.model.Room;
+import com.movie.model.RoomLayout;
+import com.movie.model.Seat;
+import com.movie.model.SeatHold;
+import com.movie.model.Showtime;
+import com.movie.util.JsonWriter;
+import com.movie.util.LatencyRecorder;
+import com.movie.util.SingleFlight;
+import com.movie.util.TtlCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON API over the BUS layer, so booking works without the Swing client.
+ *
+ * POST   /api/login        (username, password) returns a session token
+ * POST   /api/logout
+ * GET    /api/movies, /api/movies/{id}
+ * GET    /api/showtimes[?movieId=], /api/showtimes/{id}, /api/showtimes/{id}/seats
+ * POST   /api/holds        (showtimeId, seatIds=1,2,3)
+ * DELETE /api/holds/{id}
+ * POST   /api/payments     (holdId)
+ * GET    /api/stats        per-endpoint latency, cache and single-flight counters
+ *
+ * POST parameters are read from the query string or an application/x-www-form-urlencoded body.
+ * Holds and payments need the header "Authorization: Bearer token"; the customer is the one who
+ * logged in, and only they can release or pay their holds. The server listens on the loopback
+ * address unless -Dhttp.host is set, and {@link com.movie.Server} starts it only with -Dhttp.enabled=true.
+ */
+public class BookingHttpServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    // Khóa thống kê độ trễ: mọi đường dẫn khác gộp vào OTHER_ROUTE để số khóa không tăng theo yêu cầu lạ
+    private static final Set<String> ROUTES = Set.of(
+            "POST /api/login", "POST /api/logout",
+            "GET /api/movies", "GET /api/movies/{id}",
+            "GET /api/showtimes", "GET /api/showtimes/{id}", "GET /api/showtimes/{id}/seats",
+            "POST /api/holds", "DELETE /api/holds/{id}",
+            "POST /api/payments", "GET /api/stats");
+    private static final String OTHER_ROUTE = "other";
+
+    private final int port;
+    private final MovieBUS movieBUS = new MovieBUS();
+    private final ShowtimeBUS showtimeBUS = new ShowtimeBUS();
+    private final RoomBUS roomBUS = new RoomBUS();
+    private final SeatBUS seatBUS = new SeatBUS();
+    private final SeatHoldBUS seatHoldBUS = new SeatHoldBUS();
+    private final SessionBUS sessionBUS = new SessionBUS();
+    private final TicketBUS ticketBUS = new TicketBUS();
+    private final TicketDAO ticketDAO = new TicketDAO();
+    private final Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public BookingHttpServer(int port) {
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        new BookingHttpServer(port).start();
+    }
+
+    public void start() throws IOException {
+        String host = System.getProperty("http.host", DEFAULT_HOST);
+        server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/login", timed(this::handleLogin));
+        server.createContext("/api/logout", timed(this::handleLogout));
+        server.createContext("/api/movies", timed(this::handleMovies));
+        server.createContext("/api/showtimes", timed(this::handleShowtimes));
+        server.createContext("/api/holds", timed(this::handleHolds));
+        server.createContext("/api/payments", timed(this::handlePayments));
+        server.createContext("/api/stats", timed(this::handleStats));
+        server.start();
+        System.out.println("HTTP API đang chạy trên " + host + ":" + port);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // JDK 21+: mỗi request chạy trên một virtual thread
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // JDK 17: pool cố định, các request dư sẽ xếp hàng thay vì tạo thêm luồng
+            return Executors.newFixedThreadPool(Math.max(64, Runtime.getRuntime().availableProcessors() * 16));
+        }
+    }
+
+    // ---------------------------------------------------------------- handlers
+
+    private Response handleLogin(HttpExchange exchange, String[] path) throws SQLException, IOException {
+        requireMethod(exchange, "POST");
+        Map<String, String> params = formParams(exchange);
+        String token = sessionBUS.login(params.get("username"), params.get("password"));
+        if (token == null) {
+            return Response.error(401, "Sai tên đăng nhập hoặc mật khẩu");
+        }
+        return new Response(201, new JsonWriter().beginObject()
+                .field("token", token)
+                .field("customerId", sessionBUS.getCustomerID(token))
+                .field("expiresIn", SessionBUS.SESSION_TTL_MILLIS / 1000)
+                .endObject());
+    }
+
+    private Response handleLogout(HttpExchange exchange, String[] path) {
+        requireMethod(exchange, "POST");
+        requireCustomer(exchange);
+        sessionBUS.logout(bearerToken(exchange));
+        return Response.ok(new JsonWriter().beginObject().field("loggedOut", true).endObject());
+    }
+
+    private Response handleMovies(HttpExchange exchange, String[] path) throws SQLException {
+        requireMethod(exchange, "GET");
+        if (path.length == 2) {
+            JsonWriter json = new JsonWriter().beginArray();
+            for (Movie movie : movieBUS.getAllMovies()) {
+                writeMovie(json, movie);
+            }
+            return Response.ok(json.endArray());
+        }
+        Movie movie = movieBUS.getMovieById(parseId(path[2]));
+        if (movie == null) {
+            return Response.notFound("Không tìm thấy phim");
+        }
+        return Response.ok(writeMovie(new JsonWriter(), movie));
+    }
+
+    private Response handleShowtimes(HttpExchange exchange, String[] path) throws SQLException {
+        requireMethod(exchange, "GET");
+        if (path.length == 2) {
+            String movieId = queryParams(exchange).get("movieId");
+            JsonWriter json = new JsonWriter().beginArray();
+            for (Showtime showtime : showtimeBUS.getAllShowtimes()) {
+                if (movieId == null || showtime.getMovieID() == parseId(movieId)) {
+                    writeShowtime(json, showtime);
+                }
+            }
+            return Response.ok(json.endArray());
+        }
+        Showtime showtime = showtimeBUS.getShowtimeById(parseId(path[2]));
+        if (showtime == null) {
+            return Response.notFound("Không tìm thấy suất chiếu");
+        }
+        if (path.length == 3) {
+            return Response.ok(writeShowtime(new JsonWriter(), showtime));
+        }
+        if (path.length == 4 && path[3].equals("seats")) {
+            return Response.ok(writeSeatMap(showtime));
+        }
+        return Response.notFound("Không tìm thấy tài nguyên");
+    }
+
+    private Response handleHolds(HttpExchange exchange, String[] path) throws SQLException, IOException {
+        int customerId = requireCustomer(exchange);
+        if (exchange.getRequestMethod().equals("DELETE") && path.length == 3) {
+            if (!seatHoldBUS.cancelHold(path[2], customerId)) {
+                return Response.notFound("Không tìm thấy hoặc đã hết hạn giữ ghế");
+            }
+            return Response.ok(new JsonWriter().beginObject().field("released", path[2]).endObject());
+        }
+        requireMethod(exchange, "POST");
+        Map<String, String> params = formParams(exchange);
+        Showtime showtime = showtimeBUS.getShowtimeById(parseId(params.get("showtimeId")));
+        if (showtime == null) {
+            return Response.notFound("Không tìm thấy suất chiếu");
+        }
+
+        RoomLayout layout = seatBUS.getRoomLayout(showtime.getRoomID());
+        List<Seat> seats = new ArrayList<>();
+        String seatIds = params.get("seatIds");
+        if (seatIds == null || seatIds.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu seatIds");
+        }
+        for (String seatId : seatIds.split(",")) {
+            int index = layout.indexOf(parseId(seatId.trim()));
+            if (index < 0) {
+                throw new IllegalArgumentException("Ghế " + seatId + " không thuộc phòng của suất chiếu");
+            }
+            Seat seat = new Seat();
+            seat.setSeatID(layout.getSeatId(index));
+            seat.setRoomID(layout.getRoomID());
+            seat.setSeatNumber(layout.getLabel(index));
+            seats.add(seat);
+        }
+
+        SeatHold hold = seatHoldBUS.holdSeats(customerId, showtime.getShowtimeID(), seats);
+        return new Response(201, writeHold(new JsonWriter(), hold));
+    }
+
+    private Response handlePayments(HttpExchange exchange, String[] path) throws SQLException, IOException {
+        requireMethod(exchange, "POST");
+        int customerId = requireCustomer(exchange);
+        Map<String, String> params = formParams(exchange);
+        // Chỉ một yêu cầu thanh toán giành được hold, các yêu cầu trùng nhận 409
+        SeatHold hold = seatHoldBUS.claimHold(params.get("holdId"), customerId);
+        double totalPrice;
+        boolean booked = false;
+        try {
+            Showtime showtime = showtimeBUS.getShowtimeById(hold.getShowtimeID());
+            Room room = showtime == null ? null : roomBUS.getRoomById(showtime.getRoomID());
+            if (room == null) {
+                return Response.notFound("Không tìm thấy suất chiếu hoặc phòng");
+            }
+            totalPrice = room.getPrice() * hold.getSeats().size();
+            ticketBUS.bookSeats(hold.getCustomerID(), hold.getShowtimeID(), hold.getSeats(), totalPrice,
+                    showtime.getMovieTitle(), showtime.getRoomName());
+            booked = true;
+        } finally {
+            if (booked) {
+                seatHoldBUS.completeHold(hold.getHoldID());
+            } else {
+                seatHoldBUS.unclaimHold(hold.getHoldID());
+            }
+        }
+
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("holdId", hold.getHoldID())
+                .field("customerId", hold.getCustomerID())
+                .field("showtimeId", hold.getShowtimeID())
+                .field("totalPrice", totalPrice)
+                .name("seats").beginArray();
+        for (Seat seat : hold.getSeats()) {
+            json.value(seat.getSeatNumber());
+        }
+        return new Response(201, json.endArray().endObject());
+    }
+
+    private Response handleStats(HttpExchange exchange, String[] path) {
+        requireMethod(exchange, "GET");
+        JsonWriter json = new JsonWriter().beginObject().name("endpoints").beginObject();
+        for (Map.Entry<String, LatencyRecorder> entry : new TreeMap<>(latencies).entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            json.name(entry.getKey()).beginObject()
+                    .field("count", recorder.getCount())
+                    .field("meanMs", recorder.getMeanMillis())
+                    .field("p50Ms", recorder.getPercentileMillis(50))
+                    .field("p95Ms", recorder.getPercentileMillis(95))
+                    .field("p99Ms", recorder.getPercentileMillis(99))
+                    .field("maxMs", recorder.getMaxMillis())
+                    .endObject();
+        }
+        json.endObject().name("caches").beginObject();
+        for (TtlCache<?, ?> cache : TtlCache.getAll()) {
+            json.name(cache.getName()).beginObject()
+                    .field("hits", cache.getHits())
+                    .field("misses", cache.getMisses())
+                    .field("evictions", cache.getEvictions())
+                    .field("size", cache.size())
+                    .field("hitRatio", cache.getHitRatio())
+                    .endObject();
+        }
+        json.endObject().name("singleFlight").beginObject();
+        for (SingleFlight<?, ?> flight : SingleFlight.getAll()) {
+            json.name(flight.getName()).beginObject()
+                    .field("enabled", flight.isEnabled())
+                    .field("calls", flight.getCalls())
+                    .field("executions", flight.getExecutions())
+                    .field("deduplicated", flight.getDeduplicated())
+                    .endObject();
+        }
+        return Response.ok(json.endObject().endObject());
+    }
+
+    // ---------------------------------------------------------------- JSON
+
+    private JsonWriter writeMovie(JsonWriter json, Movie movie) {
+        return json.beginObject()
+                .field("id", movie.getMovieID())
+                .field("title", movie.getTitle())
+                .field("description", movie.getDescription())
+                .field("duration", movie.getDuration())
+                .field("director", movie.getDirector())
+                .field("genre", movie.getGenreName())
+                .field("country", movie.getCountryName())
+                .field("poster", movie.getPoster())
+                .field("startDate", movie.getStartDate() == null ? null : movie.getStartDate().toString())
+                .field("endDate", movie.getEndDate() == null ? null : movie.getEndDate().toString())
+                .field("productionYear", movie.getProductionYear())
+                .field("ageRestriction", movie.getAgeRestriction())
+                .endObject();
+    }
+
+    private JsonWriter writeShowtime(JsonWriter json, Showtime showtime) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        return json.beginObject()
+                .field("id", showtime.getShowtimeID())
+                .field("movieId", showtime.getMovieID())
+                .field("movieTitle", showtime.getMovieTitle())
+                .field("roomId", showtime.getRoomID())
+                .field("roomName", showtime.getRoomName())
+                .field("showDate", showtime.getShowDate() == null ? null : sdf.format(showtime.getShowDate()))
+                .field("status", showtime.getStatus())
+                .endObject();
+    }
+
+    private JsonWriter writeSeatMap(Showtime showtime) throws SQLException {
+        Set<Integer> booked = ticketDAO.getBookedSeatIds(showtime.getShowtimeID());
+        Set<Integer> held = seatHoldBUS.getHeldSeatIds(showtime.getShowtimeID());
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("showtimeId", showtime.getShowtimeID())
+                .field("roomId", showtime.getRoomID())
+                .name("seats").beginArray();
+        RoomLayout layout = seatBUS.getRoomLayout(showtime.getRoomID());
+        for (int i = 0; i < layout.size(); i++) {
+            int seatId = layout.getSeatId(i);
+            String status = booked.contains(seatId) ? "BOOKED"
+                    : held.contains(seatId) ? "HELD" : "FREE";
+            json.beginObject()
+                    .field("id", seatId)
+                    .field("number", layout.getLabel(i))
+                    .field("row", layout.getRow(i))
+                    .field("col", layout.getCol(i))
+                    .field("status", status)
+                    .endObject();
+        }
+        return json.endArray().endObject();
+    }
+
+    private JsonWriter writeHold(JsonWriter json, SeatHold hold) {
+        json.beginObject()
+                .field("holdId", hold.getHoldID())
+                .field("customerId", hold.getCustomerID())
+                .field("showtimeId", hold.getShowtimeID())
+                .field("expiresAt", hold.getExpiresAt())
+                .name("seats").beginArray();
+        for (Seat seat : hold.getSeats()) {
+            json.value(seat.getSeatNumber());
+        }
+        return json.endArray().endObject();
+    }
+
+    // ---------------------------------------------------------------- plumbing
+
+    private interface Endpoint {
+        Response handle(HttpExchange exchange, String[] path) throws Exception;
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, JsonWriter body) {
+            this(status, body.toString());
+        }
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(JsonWriter body) {
+            return new Response(200, body);
+        }
+
+        static Response notFound(String message) {
+            return error(404, message);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, new JsonWriter().beginObject().field("error", message).endObject());
+        }
+    }
+
+    private static class MethodNotAllowedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String method) {
+            super("Phương thức không được hỗ trợ: " + method);
+        }
+    }
+
+    private static class UnauthorizedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnauthorizedException() {
+            super("Chưa đăng nhập hoặc phiên đã hết hạn");
+        }
+    }
+
+    /**
+     * Wraps an endpoint with error mapping and per-endpoint latency recording.
+     * Latency is keyed by method and route template (ids replaced by {id}); requests that match
+     * no route are counted together under "other". Unexpected errors are logged and answered with
+     * a generic 500 message.
+     */
+    private HttpHandler timed(Endpoint endpoint) {
+        return exchange -> {
+            long start = System.nanoTime();
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            Response response;
+            try {
+                response = endpoint.handle(exchange, path);
+            } catch (MethodNotAllowedException e) {
+                response = Response.error(405, e.getMessage());
+            } catch (UnauthorizedException e) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                response = Response.error(401, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (IllegalStateException e) {
+                response = Response.error(409, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Lỗi xử lý " + exchange.getRequestURI() + ": " + e.getMessage());
+                response = Response.error(500, "Lỗi máy chủ, vui lòng thử lại sau");
+            }
+            try {
+                send(exchange, response);
+            } finally {
+                latencies.computeIfAbsent(routeKey(exchange.getRequestMethod(), path), k -> new LatencyRecorder())
+                        .record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static String routeKey(String method, String[] path) {
+        StringBuilder key = new StringBuilder(method).append(' ');
+        for (int i = 0; i < path.length; i++) {
+            key.append('/').append(i == 2 ? "{id}" : path[i]);
+        }
+        return ROUTES.contains(key.toString()) ? key.toString() : OTHER_ROUTE;
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new MethodNotAllowedException(exchange.getRequestMethod());
+        }
+    }
+
+    /** The customer of the request's session token; 401 without a live session. */
+    private int requireCustomer(HttpExchange exchange) {
+        int customerId = sessionBUS.getCustomerID(bearerToken(exchange));
+        if (customerId <= 0) {
+            throw new UnauthorizedException();
+        }
+        return customerId;
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("ID không hợp lệ: " + value);
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        return parseParams(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> formParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        try (InputStream in = exchange.getRequestBody()) {
+            params.putAll(parseParams(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        return params;
+    }
+
+    private static Map<String, String> parseParams(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,444 @@
+package com.movie.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable columnar file of rows, read through a memory-mapped buffer.
+ * <p>
+ * Rows are cut into blocks of {@link #BLOCK_ROWS}. Inside a block every column is stored on its own
+ * as zig-zag varints, either {@link Encoding#DELTA delta} encoded (ids, timestamps: small steps),
+ * {@link Encoding#PLAIN plain} or as {@link Encoding#DICTIONARY dictionary} codes (repeated strings).
+ * The footer keeps min/max of every column per block (zone maps), so a range scan only decodes
+ * the blocks that can match, and only the requested columns of those blocks.
+ * <pre>
+ * blocks ... | footer | footer offset (long) | MAGIC (int)
+ * footer: version, rowCount, blockCount, columnCount, then per column:
+ *         name, encoding, [dictionary], min, max, per block (offset, length, min, max)
+ * </pre>
+ */
+public final class ColumnarSegment {
+    public static final int BLOCK_ROWS = 4096;
+    private static final int MAGIC = 0x4D435347; // "MCSG"
+    private static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 12;
+
+    public enum Encoding {
+        /** Zig-zag varint of the difference to the previous row (first row of a block: the value). */
+        DELTA,
+        /** Zig-zag varint of the value. */
+        PLAIN,
+        /** Strings, stored as varint codes into a per-file dictionary; min/max are codes. */
+        DICTIONARY
+    }
+
+    private final Path file;
+    private final ByteBuffer data;
+    private final int rowCount;
+    private final int blockCount;
+    private final String[] names;
+    private final Encoding[] encodings;
+    private final String[][] dictionaries;
+    private final long[] mins;
+    private final long[] maxes;
+    // [cột][khối]
+    private final long[][] blockOffsets;
+    private final int[][] blockLengths;
+    private final long[][] blockMins;
+    private final long[][] blockMaxes;
+
+    private ColumnarSegment(Path file, ByteBuffer data) throws IOException {
+        this.file = file;
+        this.data = data;
+        if (data.limit() < TRAILER_BYTES || data.getInt(data.limit() - 4) != MAGIC) {
+            throw new IOException("Không phải tệp lưu trữ cột: " + file);
+        }
+        ByteBuffer footer = data.duplicate();
+        footer.position((int) data.getLong(data.limit() - TRAILER_BYTES));
+        if (footer.getInt() != VERSION) {
+            throw new IOException("Phiên bản tệp lưu trữ không hỗ trợ: " + file);
+        }
+        rowCount = footer.getInt();
+        blockCount = footer.getInt();
+        int columnCount = footer.getInt();
+        names = new String[columnCount];
+        encodings = new Encoding[columnCount];
+        dictionaries = new String[columnCount][];
+        mins = new long[columnCount];
+        maxes = new long[columnCount];
+        blockOffsets = new long[columnCount][blockCount];
+        blockLengths = new int[columnCount][blockCount];
+        blockMins = new long[columnCount][blockCount];
+        blockMaxes = new long[columnCount][blockCount];
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = readString(footer);
+            encodings[c] = Encoding.values()[footer.get()];
+            if (encodings[c] == Encoding.DICTIONARY) {
+                dictionaries[c] = new String[footer.getInt()];
+                for (int i = 0; i < dictionaries[c].length; i++) {
+                    dictionaries[c][i] = readString(footer);
+                }
+            }
+            mins[c] = footer.getLong();
+            maxes[c] = footer.getLong();
+            for (int b = 0; b < blockCount; b++) {
+                blockOffsets[c][b] = footer.getLong();
+                blockLengths[c][b] = footer.getInt();
+                blockMins[c][b] = footer.getLong();
+                blockMaxes[c][b] = footer.getLong();
+            }
+        }
+    }
+
+    /** Maps the file read-only; the mapping stays valid after the channel is closed. */
+    public static ColumnarSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ColumnarSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    public int getRowCount() { return rowCount; }
+
+    /** Position of the column, or -1 if the segment has no such column. */
+    public int getColumnIndex(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /** Smallest value of the column (dictionary code for strings); Long.MAX_VALUE if the file is empty. */
+    public long getMin(String column) { return mins[requireColumn(column)]; }
+
+    /** Largest value of the column (dictionary code for strings); Long.MIN_VALUE if the file is empty. */
+    public long getMax(String column) { return maxes[requireColumn(column)]; }
+
+    /** A cursor over all rows, decoding only the given columns. */
+    public Cursor scan(String... columns) {
+        return scan(null, Long.MIN_VALUE, Long.MAX_VALUE, columns);
+    }
+
+    /**
+     * A cursor over the rows whose rangeColumn lies in [min, max]; blocks whose zone map does not
+     * intersect the range are skipped without being read.
+     * @param rangeColumn A DELTA or PLAIN column, or null for no range.
+     * @param columns Columns to decode; cursor getters take positions in this array.
+     */
+    public Cursor scan(String rangeColumn, long min, long max, String... columns) {
+        int[] selected = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            selected[i] = requireColumn(columns[i]);
+        }
+        int range = rangeColumn == null ? -1 : requireColumn(rangeColumn);
+        if (range >= 0 && encodings[range] == Encoding.DICTIONARY) {
+            throw new IllegalArgumentException("Không lọc khoảng trên cột chuỗi: " + rangeColumn);
+        }
+        return new Cursor(selected, range, min, max);
+    }
+
+    private int requireColumn(String name) {
+        int column = getColumnIndex(name);
+        if (column < 0) {
+            throw new IllegalArgumentException("Tệp " + file.getFileName() + " không có cột " + name);
+        }
+        return column;
+    }
+
+    /** Forward-only view over the matching rows, one decoded block at a time. Not thread-safe. */
+    public final class Cursor {
+        private final int[] columns;
+        private final int rangeColumn;
+        private final long min;
+        private final long max;
+        private final long[][] values;
+        private final long[] rangeValues;
+        private final ByteBuffer reader = data.duplicate();
+        private int block = -1;
+        private int blockSize;
+        private int row;
+
+        private Cursor(int[] columns, int rangeColumn, long min, long max) {
+            this.columns = columns;
+            this.rangeColumn = rangeColumn;
+            this.min = min;
+            this.max = max;
+            values = new long[columns.length][BLOCK_ROWS];
+            rangeValues = rangeColumn >= 0 ? new long[BLOCK_ROWS] : null;
+        }
+
+        /** Moves to the next matching row; false at the end. */
+        public boolean next() {
+            while (true) {
+                row++;
+                while (row >= blockSize) {
+                    if (!loadNextBlock()) {
+                        return false;
+                    }
+                }
+                if (rangeColumn < 0 || (rangeValues[row] >= min && rangeValues[row] <= max)) {
+                    return true;
+                }
+            }
+        }
+
+        public long getLong(int index) {
+            return values[index][row];
+        }
+
+        public int getInt(int index) {
+            return (int) values[index][row];
+        }
+
+        /** The string of a DICTIONARY column. */
+        public String getString(int index) {
+            return dictionaries[columns[index]][(int) values[index][row]];
+        }
+
+        private boolean loadNextBlock() {
+            while (++block < blockCount) {
+                if (rangeColumn >= 0 && (blockMaxes[rangeColumn][block] < min || blockMins[rangeColumn][block] > max)) {
+                    continue;
+                }
+                blockSize = Math.min(BLOCK_ROWS, rowCount - block * BLOCK_ROWS);
+                // Cột lọc trước: khối lọt qua vùng min/max mà không có dòng nào khớp thì khỏi giải mã các cột còn lại
+                if (rangeColumn >= 0) {
+                    decode(rangeColumn, rangeValues);
+                    if (!anyInRange()) {
+                        continue;
+                    }
+                }
+                for (int i = 0; i < columns.length; i++) {
+                    decode(columns[i], values[i]);
+                }
+                row = 0;
+                return true;
+            }
+            blockSize = 0;
+            return false;
+        }
+
+        private boolean anyInRange() {
+            for (int i = 0; i < blockSize; i++) {
+                if (rangeValues[i] >= min && rangeValues[i] <= max) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void decode(int column, long[] target) {
+            reader.position((int) blockOffsets[column][block]);
+            boolean delta = encodings[column] == Encoding.DELTA;
+            long previous = 0;
+            for (int i = 0; i < blockSize; i++) {
+                long value = readVarLong(reader);
+                previous = delta ? previous + value : value;
+                target[i] = previous;
+            }
+        }
+    }
+
+    /**
+     * Builds a segment in memory row by row and writes it in one go. Set every column of a row
+     * with {@link #set}, then call {@link #endRow()}.
+     */
+    public static final class Writer {
+        private final String[] names;
+        private final Encoding[] encodings;
+        private final long[][] columns;
+        private final List<Map<String, Integer>> dictionaryCodes = new ArrayList<>();
+        private final List<List<String>> dictionaries = new ArrayList<>();
+        private long[] current;
+        private int rowCount;
+
+        public Writer(String[] names, Encoding[] encodings) {
+            if (names.length != encodings.length) {
+                throw new IllegalArgumentException("Số cột và số kiểu mã hóa không khớp");
+            }
+            this.names = names.clone();
+            this.encodings = encodings.clone();
+            columns = new long[names.length][BLOCK_ROWS];
+            current = new long[names.length];
+            for (int c = 0; c < names.length; c++) {
+                dictionaryCodes.add(new HashMap<>());
+                dictionaries.add(new ArrayList<>());
+            }
+        }
+
+        public void set(int column, long value) {
+            if (encodings[column] == Encoding.DICTIONARY) {
+                throw new IllegalArgumentException("Cột " + names[column] + " là cột chuỗi");
+            }
+            current[column] = value;
+        }
+
+        public void set(int column, String value) {
+            if (encodings[column] != Encoding.DICTIONARY) {
+                throw new IllegalArgumentException("Cột " + names[column] + " là cột số");
+            }
+            String key = value == null ? "" : value;
+            List<String> dictionary = dictionaries.get(column);
+            current[column] = dictionaryCodes.get(column).computeIfAbsent(key, k -> {
+                dictionary.add(k);
+                return dictionary.size() - 1;
+            });
+        }
+
+        public void endRow() {
+            if (rowCount == columns[0].length) {
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], rowCount * 2);
+                }
+            }
+            for (int c = 0; c < columns.length; c++) {
+                columns[c][rowCount] = current[c];
+            }
+            rowCount++;
+        }
+
+        public int getRowCount() { return rowCount; }
+
+        /**
+         * Writes the segment to a temp file next to target, forces it to disk and renames it, so
+         * readers never see a partial file. Windows cannot replace a file that is memory-mapped,
+         * so a new version of a segment should go to a new name rather than over an open one.
+         */
+        public void writeTo(Path target) throws IOException {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "segment", ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+                    write(out);
+                    out.flush();
+                    // Bên gọi có thể xóa bản gốc ngay sau đó
+                    channel.force(true);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            int blockCount = (rowCount + BLOCK_ROWS - 1) / BLOCK_ROWS;
+            int columnCount = names.length;
+            long[][] offsets = new long[columnCount][blockCount];
+            int[][] lengths = new int[columnCount][blockCount];
+            long[][] blockMins = new long[columnCount][blockCount];
+            long[][] blockMaxes = new long[columnCount][blockCount];
+            long[] mins = new long[columnCount];
+            long[] maxes = new long[columnCount];
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxes, Long.MIN_VALUE);
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream(BLOCK_ROWS * 4);
+            long position = 0;
+            for (int b = 0; b < blockCount; b++) {
+                int from = b * BLOCK_ROWS;
+                int to = Math.min(rowCount, from + BLOCK_ROWS);
+                for (int c = 0; c < columnCount; c++) {
+                    encoded.reset();
+                    long previous = 0;
+                    long blockMin = Long.MAX_VALUE;
+                    long blockMax = Long.MIN_VALUE;
+                    for (int r = from; r < to; r++) {
+                        long value = columns[c][r];
+                        writeVarLong(encoded, encodings[c] == Encoding.DELTA ? value - previous : value);
+                        previous = value;
+                        blockMin = Math.min(blockMin, value);
+                        blockMax = Math.max(blockMax, value);
+                    }
+                    encoded.writeTo(out);
+                    offsets[c][b] = position;
+                    lengths[c][b] = encoded.size();
+                    blockMins[c][b] = blockMin;
+                    blockMaxes[c][b] = blockMax;
+                    mins[c] = Math.min(mins[c], blockMin);
+                    maxes[c] = Math.max(maxes[c], blockMax);
+                    position += encoded.size();
+                }
+            }
+
+            long footerOffset = position;
+            out.writeInt(VERSION);
+            out.writeInt(rowCount);
+            out.writeInt(blockCount);
+            out.writeInt(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                writeString(out, names[c]);
+                out.writeByte(encodings[c].ordinal());
+                if (encodings[c] == Encoding.DICTIONARY) {
+                    List<String> dictionary = dictionaries.get(c);
+                    out.writeInt(dictionary.size());
+                    for (String value : dictionary) {
+                        writeString(out, value);
+                    }
+                }
+                out.writeLong(mins[c]);
+                out.writeLong(maxes[c]);
+                for (int b = 0; b < blockCount; b++) {
+                    out.writeLong(offsets[c][b]);
+                    out.writeInt(lengths[c][b]);
+                    out.writeLong(blockMins[c][b]);
+                    out.writeLong(blockMaxes[c][b]);
+                }
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.write((int) zigzag);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.movie.util;
+
+import com.movie.util.ColumnarSegment.Encoding;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Round-trip tests of {@link ColumnarSegment}: the booking archive deletes rows from the database
+ * once a segment reads back as written, so every encoding, block boundary and range scan must
+ * return exactly what went in. No test framework is available in this project, so this runs as
+ * a program: {@code java com.movie.util.ColumnarSegmentTest} prints each check and exits with 1
+ * on the first failure.
+ */
+public final class ColumnarSegmentTest {
+    private static final String[] NAMES = {"Id", "Time", "Amount", "Title"};
+    private static final Encoding[] ENCODINGS = {Encoding.DELTA, Encoding.DELTA, Encoding.PLAIN, Encoding.DICTIONARY};
+    private static final String[] TITLES = {"Phim 1", "Lật mặt 7: Một điều ước", "", "a,b \"c\"", "Đào, phở và piano"};
+
+    private final Path directory;
+
+    private ColumnarSegmentTest(Path directory) {
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("segment-test");
+        try {
+            ColumnarSegmentTest test = new ColumnarSegmentTest(directory);
+            test.roundTrip(0);
+            test.roundTrip(1);
+            test.roundTrip(ColumnarSegment.BLOCK_ROWS);
+            test.roundTrip(ColumnarSegment.BLOCK_ROWS + 1);
+            test.roundTrip(3 * ColumnarSegment.BLOCK_ROWS + 17);
+            test.extremeValues();
+            test.rangeScan();
+            test.nullStringsReadBackEmpty();
+            test.rejectsTruncatedFile();
+            test.newVersionUnderNewName();
+            System.out.println("OK");
+        } catch (AssertionError e) {
+            System.out.println("FAILED: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    /** Every value of every column comes back, in order, for a given number of rows. */
+    private void roundTrip(int rows) throws IOException {
+        long[][] expected = new long[3][rows];
+        String[] titles = new String[rows];
+        Random random = new Random(rows);
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        long time = 1_700_000_000_000L;
+        for (int r = 0; r < rows; r++) {
+            time += random.nextInt(60_000);
+            expected[0][r] = r + 1;
+            expected[1][r] = time;
+            // Giá trị âm và nhảy lớn để thử zig-zag
+            expected[2][r] = random.nextInt(2_000_000) - 1_000_000;
+            titles[r] = TITLES[random.nextInt(TITLES.length)];
+            for (int c = 0; c < 3; c++) {
+                writer.set(c, expected[c][r]);
+            }
+            writer.set(3, titles[r]);
+            writer.endRow();
+        }
+        ColumnarSegment segment = write(writer, "rows-" + rows);
+        check(segment.getRowCount() == rows, rows + " rows: row count " + segment.getRowCount());
+        ColumnarSegment.Cursor cursor = segment.scan(NAMES);
+        for (int r = 0; r < rows; r++) {
+            check(cursor.next(), rows + " rows: ended early at row " + r);
+            for (int c = 0; c < 3; c++) {
+                check(cursor.getLong(c) == expected[c][r], rows + " rows: row " + r + " column " + NAMES[c]
+                        + " is " + cursor.getLong(c) + ", expected " + expected[c][r]);
+            }
+            check(cursor.getString(3).equals(titles[r]), rows + " rows: row " + r + " title " + cursor.getString(3));
+        }
+        check(!cursor.next(), rows + " rows: extra rows at the end");
+        if (rows > 0) {
+            check(segment.getMin("Time") == expected[1][0] && segment.getMax("Time") == expected[1][rows - 1],
+                    rows + " rows: wrong Time min/max");
+        }
+        pass("round trip of " + rows + " rows");
+    }
+
+    /** Deltas that overflow a long and the extreme plain values still decode exactly. */
+    private void extremeValues() throws IOException {
+        long[] values = {0, Long.MAX_VALUE, Long.MIN_VALUE, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE, 0};
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        for (long value : values) {
+            writer.set(0, value);
+            writer.set(1, -value);
+            writer.set(2, value);
+            writer.set(3, "x");
+            writer.endRow();
+        }
+        ColumnarSegment.Cursor cursor = write(writer, "extreme").scan(NAMES);
+        for (long value : values) {
+            check(cursor.next(), "extreme values: ended early");
+            check(cursor.getLong(0) == value && cursor.getLong(1) == -value && cursor.getLong(2) == value,
+                    "extreme values: " + value + " read back as " + cursor.getLong(0) + "/" + cursor.getLong(1)
+                            + "/" + cursor.getLong(2));
+        }
+        check(!cursor.next(), "extreme values: extra rows");
+        pass("extreme values");
+    }
+
+    /** A range scan returns exactly the rows in [min, max], including across skipped blocks. */
+    private void rangeScan() throws IOException {
+        int rows = 5 * ColumnarSegment.BLOCK_ROWS;
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        for (int r = 0; r < rows; r++) {
+            writer.set(0, r);
+            writer.set(1, r * 10L);
+            writer.set(2, r % 7);
+            writer.set(3, "t");
+            writer.endRow();
+        }
+        ColumnarSegment segment = write(writer, "range");
+        long[][] ranges = {{0, 0}, {15, 25}, {40_950, 41_000}, {10 * (rows - 1L), Long.MAX_VALUE},
+                {-100, -1}, {10L * rows, Long.MAX_VALUE}, {Long.MIN_VALUE, Long.MAX_VALUE}};
+        for (long[] range : ranges) {
+            long first = Math.max(0, (range[0] + 9) / 10);
+            long last = Math.min(rows - 1, range[1] / 10);
+            if (range[1] < 0) {
+                last = -1;
+            }
+            ColumnarSegment.Cursor cursor = segment.scan("Time", range[0], range[1], "Id", "Time");
+            for (long id = first; id <= last; id++) {
+                check(cursor.next(), "range " + range[0] + ".." + range[1] + ": missing row " + id);
+                check(cursor.getLong(0) == id && cursor.getLong(1) == id * 10,
+                        "range " + range[0] + ".." + range[1] + ": got row " + cursor.getLong(0) + ", expected " + id);
+            }
+            if (cursor.next()) {
+                throw new AssertionError("range " + range[0] + ".." + range[1] + ": extra row " + cursor.getLong(0));
+            }
+        }
+        // Cột lọc khác với cột được đọc, giá trị lặp lại trong mọi khối
+        ColumnarSegment.Cursor cursor = segment.scan("Amount", 3, 3, "Id");
+        int count = 0;
+        while (cursor.next()) {
+            check(cursor.getLong(0) % 7 == 3, "range on Amount: row " + cursor.getLong(0));
+            count++;
+        }
+        check(count == (rows - 3 + 6) / 7, "range on Amount: " + count + " rows");
+        pass("range scans");
+    }
+
+    /** The writer stores a null string as "", which the archive checksum relies on. */
+    private void nullStringsReadBackEmpty() throws IOException {
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        writer.set(0, 1);
+        writer.set(1, 1);
+        writer.set(2, 1);
+        writer.set(3, (String) null);
+        writer.endRow();
+        ColumnarSegment.Cursor cursor = write(writer, "null").scan("Title");
+        check(cursor.next() && cursor.getString(0).isEmpty(), "null title did not read back as \"\"");
+        pass("null strings");
+    }
+
+    private void rejectsTruncatedFile() throws IOException {
+        ColumnarSegment.Writer writer = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        for (int r = 0; r < 100; r++) {
+            writer.set(0, r);
+            writer.set(1, r);
+            writer.set(2, r);
+            writer.set(3, "t");
+            writer.endRow();
+        }
+        Path file = directory.resolve("truncated.seg");
+        writer.writeTo(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try {
+            ColumnarSegment.open(file);
+            throw new AssertionError("truncated file was opened");
+        } catch (IOException expected) {
+            pass("truncated file rejected");
+        }
+    }
+
+    /** Writing a new version under a new name leaves a segment opened from the old file readable. */
+    private void newVersionUnderNewName() throws IOException {
+        ColumnarSegment.Writer first = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        first.set(0, 1);
+        first.set(1, 1);
+        first.set(2, 100);
+        first.set(3, "old");
+        first.endRow();
+        ColumnarSegment old = write(first, "version-1");
+        ColumnarSegment.Writer second = new ColumnarSegment.Writer(NAMES, ENCODINGS);
+        second.set(0, 2);
+        second.set(1, 2);
+        second.set(2, 200);
+        second.set(3, "new");
+        second.endRow();
+        ColumnarSegment updated = write(second, "version-2");
+        ColumnarSegment.Cursor oldRow = old.scan("Amount", "Title");
+        ColumnarSegment.Cursor newRow = updated.scan("Amount", "Title");
+        check(oldRow.next() && oldRow.getLong(0) == 100 && oldRow.getString(1).equals("old"), "old version changed");
+        check(newRow.next() && newRow.getLong(0) == 200 && newRow.getString(1).equals("new"), "new version wrong");
+        pass("versions under new names");
+    }
+
+    private ColumnarSegment write(ColumnarSegment.Writer writer, String name) throws IOException {
+        Path file = directory.resolve(name + ".seg");
+        writer.writeTo(file);
+        try (Stream<Path> files = Files.list(directory)) {
+            check(files.noneMatch(f -> f.getFileName().toString().endsWith(".tmp")), name + ": temp file left behind");
+        }
+        return ColumnarSegment.open(file);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static void pass(String name) {
+        System.out.println("ok   " + name);
+    }
+}
\ No newline at end of file
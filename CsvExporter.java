@@ -0,0 +1,198 @@
+package com.movie.bus;
+
+import com.movie.dao.ExportDAO;
+import com.movie.model.ExportKind;
+import com.movie.util.CsvWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports bookings, tickets, the Revenue rollup and customers to CSV files.
+ * <p>
+ * Rows are streamed from a forward-only cursor (and for bookings and tickets also from the
+ * archive, for the months already moved out of the database) straight into a buffered writer
+ * on a file channel, so memory use stays constant however many rows there are. A target whose
+ * name ends in {@value #GZIP_SUFFIX} is gzip-compressed. The file is written under a temp name
+ * and renamed when complete, so a failed export never leaves a partial file behind.
+ * Can also be run by hand: {@code java com.movie.bus.CsvExporter bookings|tickets|revenue|customers file [from to]}.
+ */
+public class CsvExporter {
+    public static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Số lần xuất lại khi có tháng được chuyển sang kho lưu trữ đúng lúc đang xuất
+    private static final int MAX_ATTEMPTS = 3;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ExportDAO exportDAO = new ExportDAO();
+
+    /**
+     * Writes the rows of one data set to target, replacing it.
+     * @param from First day of bookings, tickets or revenue to export; ignored for customers.
+     * @param to Day after the last one exported; ignored for customers.
+     * @return The number of rows exported, without the header.
+     * @throws SQLException If a database error occurs (target is left unchanged).
+     * @throws IOException If the file or the archive cannot be written or read (target is left unchanged).
+     */
+    public long export(ExportKind kind, LocalDate from, LocalDate to, Path target) throws SQLException, IOException {
+        if (kind == null || target == null) {
+            throw new IllegalArgumentException("Chưa chọn dữ liệu hoặc tệp cần xuất");
+        }
+        if (kind != ExportKind.CUSTOMERS) {
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Khoảng thời gian không được để trống");
+            }
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("Ngày bắt đầu phải trước ngày kết thúc");
+            }
+        }
+        boolean gzip = target.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX);
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "export", ".tmp");
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long rows;
+                boolean consistent;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     CsvWriter csv = new CsvWriter(openWriter(channel, gzip))) {
+                    consistent = write(kind, from, to, csv);
+                    rows = csv.getRowCount() - 1;
+                }
+                if (consistent) {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    return rows;
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IOException("Kho lưu trữ thay đổi trong lúc xuất, hãy xuất lại");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Writer openWriter(FileChannel channel, boolean gzip) throws IOException {
+        OutputStream file = Channels.newOutputStream(channel);
+        OutputStream out = gzip ? new GZIPOutputStream(file, BUFFER_SIZE) : new BufferedOutputStream(file, BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        // BOM để Excel nhận đúng UTF-8 (tên phim, tên khách tiếng Việt)
+        writer.write('\uFEFF');
+        return writer;
+    }
+
+    /** Writes header and rows; false if the archive boundary moved meanwhile and the rows may be incomplete. */
+    private boolean write(ExportKind kind, LocalDate from, LocalDate to, CsvWriter csv) throws SQLException, IOException {
+        switch (kind) {
+            case BOOKINGS:
+                csv.row("HistoryID", "CustomerID", "TicketID", "BookingDate", "MovieTitle", "RoomName", "SeatNumber", "Price");
+                return scanBookings(from, to, (historyID, customerID, ticketID, showtimeID, seatID, bookedAt, showAt,
+                                               movieTitle, roomName, seatNumber, priceCents) -> {
+                    csv.field(historyID).field(customerID).field(ticketID).field(formatTime(bookedAt))
+                            .field(movieTitle).field(roomName).field(seatNumber).field(formatCents(priceCents));
+                    csv.endRow();
+                });
+            case TICKETS:
+                csv.row("TicketID", "CustomerID", "ShowtimeID", "SeatID", "SeatNumber", "ShowDate", "Price", "BookingDate");
+                return scanBookings(from, to, (historyID, customerID, ticketID, showtimeID, seatID, bookedAt, showAt,
+                                               movieTitle, roomName, seatNumber, priceCents) -> {
+                    csv.field(ticketID).field(customerID).field(showtimeID).field(seatID).field(seatNumber)
+                            .field(formatTime(showAt)).field(formatCents(priceCents)).field(formatTime(bookedAt));
+                    csv.endRow();
+                });
+            case REVENUE:
+                // Bảng tổng hợp không bị lưu trữ nên chỉ cần đọc cơ sở dữ liệu
+                csv.row("RevenueDate", "ShowtimeID", "MovieTitle", "TicketCount", "TotalRevenue");
+                exportDAO.scanRevenue(from, to, (day, showtimeID, movieTitle, tickets, totalRevenue) -> {
+                    csv.field(day.toString()).field(showtimeID).field(movieTitle).field(tickets)
+                            .field(totalRevenue.toPlainString());
+                    csv.endRow();
+                });
+                return true;
+            case CUSTOMERS:
+                csv.row("CustomerID", "Username", "FullName", "Email");
+                exportDAO.scanCustomers((customerID, username, fullName, email) -> {
+                    csv.field(customerID).field(username).field(fullName).field(email);
+                    csv.endRow();
+                });
+                return true;
+            default:
+                throw new IllegalArgumentException("Không hỗ trợ xuất " + kind);
+        }
+    }
+
+    /**
+     * Archived part first, then the part still in the database. The archive is not locked while
+     * streaming (that can take minutes); instead hotSince is checked again at the end.
+     * @return False if a month was archived meanwhile, so rows of it may be missing.
+     */
+    private boolean scanBookings(LocalDate from, LocalDate to, ExportDAO.BookingRowConsumer consumer)
+            throws SQLException, IOException {
+        BookingArchive archive = BookingArchive.getInstance();
+        LocalDate hotSince = archive.getHotSince();
+        LocalDate split = hotSince.isBefore(from) ? from : hotSince.isAfter(to) ? to : hotSince;
+        archive.scanArchivedBookings(from.atStartOfDay(), split.atStartOfDay(), consumer);
+        if (split.isBefore(to)) {
+            exportDAO.scanBookings(split.atStartOfDay(), to.atStartOfDay(), consumer);
+        }
+        return archive.getHotSince().equals(hotSince);
+    }
+
+    private static String formatTime(long millis) {
+        // 0: suất chiếu đã bị xóa
+        return millis == 0 ? null
+                : DATE_TIME.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+    }
+
+    private static String formatCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("Cách dùng: CsvExporter bookings|tickets|revenue|customers <tệp.csv hoặc tệp.csv.gz> "
+                    + "[từ-ngày đến-ngày] (yyyy-MM-dd, đến-ngày không tính; mặc định toàn bộ)");
+            System.exit(2);
+        }
+        ExportKind kind;
+        try {
+            kind = ExportKind.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Loại dữ liệu không hợp lệ: " + args[0]);
+            System.exit(2);
+            return;
+        }
+        Path target = Paths.get(args[1]);
+        LocalDate from = LocalDate.EPOCH;
+        LocalDate to = LocalDate.now().plusDays(1);
+        if (args.length == 4) {
+            from = LocalDate.parse(args[2]);
+            to = LocalDate.parse(args[3]);
+        }
+        long start = System.nanoTime();
+        long rows = new CsvExporter().export(kind, from, to, target);
+        System.out.println("Đã xuất " + rows + " dòng vào " + target.toAbsolutePath() + " trong "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
\ No newline at end of file
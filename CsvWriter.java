@@ -0,0 +1,109 @@
+package com.movie.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming CSV writer (RFC 4180: comma separated, CRLF line ends, a field is quoted
+ * only when it contains a comma, quote or line break). Only the current field is ever held.
+ * <p>
+ * Text that a spreadsheet would run as a formula (starting with =, +, -, @, tab or carriage
+ * return) is written with a leading apostrophe, so values typed in by customers stay plain text.
+ * Numbers go through {@link #field(long)} and are never changed.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+    private final Writer out;
+    private boolean firstInRow = true;
+    private long rowCount;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (isFormula(value)) {
+            value = "'" + value;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        out.write("\r\n");
+        firstInRow = true;
+        rowCount++;
+    }
+
+    public void row(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        endRow();
+    }
+
+    /** Rows ended so far, including a header row. */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (!firstInRow) {
+            out.write(',');
+        }
+        firstInRow = false;
+    }
+
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
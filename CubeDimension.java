@@ -0,0 +1,22 @@
+package com.movie.model;
+
+/** Dimensions of the booking cube. DAY labels are yyyy-MM-dd, HOUR labels are 00..23. */
+public enum CubeDimension {
+    MOVIE("Phim"),
+    ROOM("Phòng"),
+    GENRE("Thể loại"),
+    COUNTRY("Quốc gia"),
+    DAY("Ngày"),
+    HOUR("Giờ");
+
+    private final String label;
+
+    CubeDimension(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.movie.model;
+
+/** One group of a cube query: the labels of the grouped dimensions plus tickets and revenue. */
+public final class CubeRow {
+    private final String[] keys;
+    private final long tickets;
+    private final long revenueCents;
+
+    public CubeRow(String[] keys, long tickets, long revenueCents) {
+        this.keys = keys.clone();
+        this.tickets = tickets;
+        this.revenueCents = revenueCents;
+    }
+
+    /** Labels in the order of the query's group-by dimensions. */
+    public String getKey(int index) { return keys[index]; }
+
+    public int getKeyCount() { return keys.length; }
+
+    public long getTickets() { return tickets; }
+
+    public double getRevenue() { return revenueCents / 100.0; }
+}
\ No newline at end of file
@@ -23,6 +23,11 @@ public class CustomerBUS {
         customerDAO.insertCustomer(customer); // Thêm hàm insertCustomer vào CustomerDAO
     }
 
+    /** The customer with these credentials, or null if they are wrong. */
+    public Customer authenticate(String username, String password) throws SQLException {
+        return customerDAO.getCustomerByUsernameAndPassword(username, password);
+    }
+
     public boolean validateUserPlain(String username, String password) {
         try {
             Customer customer = customerDAO.getCustomerByUsernameAndPassword(username, password);
@@ -1,15 +1,56 @@
 package com.movie.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DBConnection {
     private static final String URL = "jdbc:sqlserver://localhost:1433;databaseName=MovieTicketBooking;encrypt=true;trustServerCertificate=true;";
     private static final String USER = "sa";
     private static final String PASSWORD = "123";
 
+    // Thống kê kết nối (không có pool, mỗi lần gọi mở một kết nối mới)
+    private static final AtomicInteger openConnections = new AtomicInteger();
+    private static final LongAccumulator peakConnections = new LongAccumulator(Math::max, 0);
+    private static final LongAdder totalConnections = new LongAdder();
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+        totalConnections.increment();
+        peakConnections.accumulate(openConnections.incrementAndGet());
+        return trackClose(conn);
+    }
+
+    public static int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public static long getPeakConnections() {
+        return peakConnections.get();
+    }
+
+    public static long getTotalConnections() {
+        return totalConnections.sum();
+    }
+
+    private static Connection trackClose(Connection conn) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        openConnections.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.movie.model;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue of one day (by booking date) broken down by movie, room, showtime and hour of sale;
+ * range reports cover [date, endDate) with the same breakdown.
+ * Immutable, so a report for a closed day can be cached and shared.
+ */
+public final class DailyRevenueReport {
+    public static final int HOURS_PER_DAY = 24;
+
+    /** One row of a breakdown: what it is about, tickets sold and revenue. */
+    public static final class Line {
+        private final int id;
+        private final String label;
+        private final int tickets;
+        private final double revenue;
+
+        public Line(int id, String label, int tickets, double revenue) {
+            this.id = id;
+            this.label = label;
+            this.tickets = tickets;
+            this.revenue = revenue;
+        }
+
+        /** ShowtimeID for the showtime breakdown, 0 for the others. */
+        public int getId() { return id; }
+
+        public String getLabel() { return label; }
+
+        public int getTickets() { return tickets; }
+
+        public double getRevenue() { return revenue; }
+    }
+
+    /** Accumulates (showtime, hour of sale) totals of one day, or of a range of days, into a report. */
+    public static final class Builder {
+        private final LocalDate date;
+        private final LocalDate endDate;
+        private final Map<String, int[]> movieTickets = new LinkedHashMap<>();
+        private final Map<String, double[]> movieRevenue = new LinkedHashMap<>();
+        private final Map<String, int[]> roomTickets = new LinkedHashMap<>();
+        private final Map<String, double[]> roomRevenue = new LinkedHashMap<>();
+        private final Map<Integer, String> showtimeLabels = new LinkedHashMap<>();
+        private final Map<Integer, int[]> showtimeTickets = new LinkedHashMap<>();
+        private final Map<Integer, double[]> showtimeRevenue = new LinkedHashMap<>();
+        private final int[] ticketsByHour = new int[HOURS_PER_DAY];
+        private final double[] revenueByHour = new double[HOURS_PER_DAY];
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("dd/MM HH:mm");
+
+        public Builder(LocalDate date) {
+            this(date, date.plusDays(1));
+        }
+
+        /** A builder for the days in [from, to). */
+        public Builder(LocalDate from, LocalDate to) {
+            this.date = from;
+            this.endDate = to;
+        }
+
+        /** Adds tickets sold for a showtime in one hour; showDate may be null if the showtime is gone. */
+        public Builder add(int showtimeID, String movieTitle, String roomName, Date showDate, int hour,
+                           int tickets, double revenue) {
+            movieTickets.computeIfAbsent(movieTitle, k -> new int[1])[0] += tickets;
+            movieRevenue.computeIfAbsent(movieTitle, k -> new double[1])[0] += revenue;
+            roomTickets.computeIfAbsent(roomName, k -> new int[1])[0] += tickets;
+            roomRevenue.computeIfAbsent(roomName, k -> new double[1])[0] += revenue;
+            showtimeLabels.computeIfAbsent(showtimeID, k -> movieTitle + " - " + roomName
+                    + (showDate != null ? " - " + timeFormat.format(showDate) : ""));
+            showtimeTickets.computeIfAbsent(showtimeID, k -> new int[1])[0] += tickets;
+            showtimeRevenue.computeIfAbsent(showtimeID, k -> new double[1])[0] += revenue;
+            ticketsByHour[hour] += tickets;
+            revenueByHour[hour] += revenue;
+            return this;
+        }
+
+        /** Adds the totals of another builder, e.g. of an adjacent part of the range. */
+        public Builder merge(Builder other) {
+            other.movieTickets.forEach((title, tickets) -> movieTickets.computeIfAbsent(title, k -> new int[1])[0] += tickets[0]);
+            other.movieRevenue.forEach((title, revenue) -> movieRevenue.computeIfAbsent(title, k -> new double[1])[0] += revenue[0]);
+            other.roomTickets.forEach((room, tickets) -> roomTickets.computeIfAbsent(room, k -> new int[1])[0] += tickets[0]);
+            other.roomRevenue.forEach((room, revenue) -> roomRevenue.computeIfAbsent(room, k -> new double[1])[0] += revenue[0]);
+            other.showtimeLabels.forEach(showtimeLabels::putIfAbsent);
+            other.showtimeTickets.forEach((id, tickets) -> showtimeTickets.computeIfAbsent(id, k -> new int[1])[0] += tickets[0]);
+            other.showtimeRevenue.forEach((id, revenue) -> showtimeRevenue.computeIfAbsent(id, k -> new double[1])[0] += revenue[0]);
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                ticketsByHour[hour] += other.ticketsByHour[hour];
+                revenueByHour[hour] += other.revenueByHour[hour];
+            }
+            return this;
+        }
+
+        public DailyRevenueReport build() {
+            List<Line> byMovie = new ArrayList<>();
+            movieTickets.forEach((title, tickets) -> byMovie.add(new Line(0, title, tickets[0], movieRevenue.get(title)[0])));
+            List<Line> byRoom = new ArrayList<>();
+            roomTickets.forEach((room, tickets) -> byRoom.add(new Line(0, room, tickets[0], roomRevenue.get(room)[0])));
+            List<Line> byShowtime = new ArrayList<>();
+            showtimeTickets.forEach((id, tickets) -> byShowtime.add(
+                    new Line(id, showtimeLabels.get(id), tickets[0], showtimeRevenue.get(id)[0])));
+            Comparator<Line> highestFirst = Comparator.comparingDouble(Line::getRevenue).reversed();
+            byMovie.sort(highestFirst);
+            byRoom.sort(highestFirst);
+            byShowtime.sort(highestFirst);
+            return new DailyRevenueReport(date, endDate, byMovie, byRoom, byShowtime, ticketsByHour, revenueByHour);
+        }
+    }
+
+    private final LocalDate date;
+    private final LocalDate endDate;
+    private final int totalTickets;
+    private final double totalRevenue;
+    private final List<Line> byMovie;
+    private final List<Line> byRoom;
+    private final List<Line> byShowtime;
+    private final int[] ticketsByHour;
+    private final double[] revenueByHour;
+
+    public DailyRevenueReport(LocalDate date, List<Line> byMovie, List<Line> byRoom, List<Line> byShowtime,
+                              int[] ticketsByHour, double[] revenueByHour) {
+        this(date, date.plusDays(1), byMovie, byRoom, byShowtime, ticketsByHour, revenueByHour);
+    }
+
+    public DailyRevenueReport(LocalDate date, LocalDate endDate, List<Line> byMovie, List<Line> byRoom,
+                              List<Line> byShowtime, int[] ticketsByHour, double[] revenueByHour) {
+        if (ticketsByHour.length != HOURS_PER_DAY || revenueByHour.length != HOURS_PER_DAY) {
+            throw new IllegalArgumentException("Hourly totals must have " + HOURS_PER_DAY + " entries");
+        }
+        this.date = date;
+        this.endDate = endDate;
+        this.byMovie = Collections.unmodifiableList(byMovie);
+        this.byRoom = Collections.unmodifiableList(byRoom);
+        this.byShowtime = Collections.unmodifiableList(byShowtime);
+        this.ticketsByHour = ticketsByHour.clone();
+        this.revenueByHour = revenueByHour.clone();
+        int tickets = 0;
+        double revenue = 0;
+        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+            tickets += ticketsByHour[hour];
+            revenue += revenueByHour[hour];
+        }
+        this.totalTickets = tickets;
+        this.totalRevenue = revenue;
+    }
+
+    /** The day of the report, or the first day of a range report. */
+    public LocalDate getDate() { return date; }
+
+    /** The day after the last day covered (exclusive). */
+    public LocalDate getEndDate() { return endDate; }
+
+    public int getTotalTickets() { return totalTickets; }
+
+    public double getTotalRevenue() { return totalRevenue; }
+
+    /** Per movie, highest revenue first. */
+    public List<Line> getByMovie() { return byMovie; }
+
+    /** Per room, highest revenue first. */
+    public List<Line> getByRoom() { return byRoom; }
+
+    /** Per showtime, highest revenue first. */
+    public List<Line> getByShowtime() { return byShowtime; }
+
+    public int getTicketsInHour(int hour) { return ticketsByHour[hour]; }
+
+    public double getRevenueInHour(int hour) { return revenueByHour[hour]; }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.movie.network;
 
 import com.movie.bus.RoomBUS;
+import com.movie.model.Room;
 
 import java.sql.SQLException;
 
@@ -19,7 +20,7 @@ public class DataUpdater {
                     // Kiểm tra trạng thái phòng và ghế
                     roomBUS.getAllRooms().forEach(room -> {
                         try {
-                            if (room.getStatus().equals("Đang chiếu") || room.getStatus().equals("Chuẩn bị chiếu")) {
+                            if (Room.STATUS_SHOWING.equals(room.getStatus()) || Room.STATUS_UPCOMING.equals(room.getStatus())) {
                                 socketServer.broadcast("SEAT_UPDATE:" + room.getRoomID());
                             }
                         } catch (Exception e) {
@@ -0,0 +1,125 @@
+package com.movie.dao;
+
+import com.movie.util.DBConnection;
+import com.movie.util.LookupTable;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the Genre and Country reference tables once and keeps them in memory as immutable
+ * {@link LookupTable} snapshots shared by every DAO/BUS instance.
+ * Snapshots are replaced by {@link #refresh()}; an id or name that is not in the snapshot
+ * (e.g. a row added directly in the database) triggers a rate-limited reload.
+ */
+public class DictionaryDAO {
+    private static final String SELECT_GENRES = "SELECT GenreID, GenreName FROM Genre ORDER BY GenreID";
+    private static final String SELECT_COUNTRIES = "SELECT CountryID, CountryName FROM Country ORDER BY CountryID";
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 5_000;
+
+    private static volatile LookupTable genres;
+    private static volatile LookupTable countries;
+    private static volatile long lastLoadedAt;
+
+    public LookupTable getGenres() throws SQLException {
+        LookupTable table = genres;
+        if (table == null) {
+            ensureLoaded();
+            table = genres;
+        }
+        return table;
+    }
+
+    public LookupTable getCountries() throws SQLException {
+        LookupTable table = countries;
+        if (table == null) {
+            ensureLoaded();
+            table = countries;
+        }
+        return table;
+    }
+
+    public String getGenreName(int genreID) throws SQLException {
+        String name = getGenres().getName(genreID);
+        if (name == null && genreID > 0 && reloadAfterMiss()) {
+            name = genres.getName(genreID);
+        }
+        return name;
+    }
+
+    public String getCountryName(int countryID) throws SQLException {
+        String name = getCountries().getName(countryID);
+        if (name == null && countryID > 0 && reloadAfterMiss()) {
+            name = countries.getName(countryID);
+        }
+        return name;
+    }
+
+    public int getGenreId(String genreName) throws SQLException {
+        int id = getGenres().getId(genreName);
+        if (id == 0 && genreName != null && !genreName.trim().isEmpty() && reloadAfterMiss()) {
+            id = genres.getId(genreName);
+        }
+        return id;
+    }
+
+    public int getCountryId(String countryName) throws SQLException {
+        int id = getCountries().getId(countryName);
+        if (id == 0 && countryName != null && !countryName.trim().isEmpty() && reloadAfterMiss()) {
+            id = countries.getId(countryName);
+        }
+        return id;
+    }
+
+    /** Reloads both tables from the database and swaps in the new snapshots. */
+    public void refresh() throws SQLException {
+        synchronized (DictionaryDAO.class) {
+            try (Connection conn = DBConnection.getConnection()) {
+                LookupTable loadedGenres = load(conn, SELECT_GENRES);
+                LookupTable loadedCountries = load(conn, SELECT_COUNTRIES);
+                genres = loadedGenres;
+                countries = loadedCountries;
+                lastLoadedAt = System.currentTimeMillis();
+            } catch (SQLException e) {
+                throw new SQLException("Failed to load genres/countries: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void ensureLoaded() throws SQLException {
+        synchronized (DictionaryDAO.class) {
+            if (genres == null || countries == null) {
+                refresh();
+            }
+        }
+    }
+
+    // Trả về true nếu đã nạp lại; giới hạn tần suất để id/tên sai không gây truy vấn liên tục
+    private boolean reloadAfterMiss() throws SQLException {
+        synchronized (DictionaryDAO.class) {
+            if (System.currentTimeMillis() - lastLoadedAt < MIN_RELOAD_INTERVAL_MILLIS) {
+                return false;
+            }
+            refresh();
+            return true;
+        }
+    }
+
+    private LookupTable load(Connection conn, String query) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+                names.add(rs.getString(2));
+            }
+        }
+        int[] idArray = new int[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            idArray[i] = ids.get(i);
+        }
+        return new LookupTable(idArray, names.toArray(new String[0]));
+    }
+}
\ No newline at end of file
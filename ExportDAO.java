@@ -0,0 +1,130 @@
+package com.movie.dao;
+
+import com.movie.util.DBConnection;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Streaming reads for the CSV export. Every query runs on a forward-only, read-only cursor and
+ * hands each row to the consumer as soon as it is read, so memory use does not depend on the
+ * number of rows (the driver's adaptive response buffering keeps only the current fetch).
+ */
+public class ExportDAO {
+    private static final int FETCH_SIZE = 10_000;
+    // Theo thứ tự của IX_BookingHistory_BookingDate (khóa cụm HistoryID nằm trong chỉ mục) nên không phải sắp xếp
+    private static final String SCAN_BOOKINGS =
+            "SELECT bh.HistoryID, bh.CustomerID, bh.TicketID, t.ShowtimeID, t.SeatID, bh.BookingDate, s.ShowDate, " +
+                    "bh.MovieTitle, bh.RoomName, bh.SeatNumber, bh.Price " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "LEFT JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "ORDER BY bh.BookingDate, bh.HistoryID";
+    private static final String SCAN_REVENUE =
+            "SELECT r.RevenueDate, r.ShowtimeID, m.Title, r.TicketCount, r.TotalRevenue " +
+                    "FROM Revenue r " +
+                    "LEFT JOIN Showtime s ON r.ShowtimeID = s.ShowtimeID " +
+                    "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+                    "WHERE r.RevenueDate >= ? AND r.RevenueDate < ? " +
+                    "ORDER BY r.RevenueDate, r.ShowtimeID";
+    // Không xuất mật khẩu
+    private static final String SCAN_CUSTOMERS =
+            "SELECT CustomerID, Username, FullName, Email FROM Customer ORDER BY CustomerID";
+
+    /** One booking with its ticket; times in epoch millis, showAt is 0 if the showtime no longer exists. */
+    public interface BookingRowConsumer {
+        void accept(int historyID, int customerID, int ticketID, int showtimeID, int seatID, long bookedAt,
+                    long showAt, String movieTitle, String roomName, String seatNumber, long priceCents) throws IOException;
+    }
+
+    /** One row of the Revenue rollup; movieTitle is the current title of the showtime's movie. */
+    public interface RevenueRowConsumer {
+        void accept(LocalDate day, int showtimeID, String movieTitle, int tickets, BigDecimal totalRevenue) throws IOException;
+    }
+
+    public interface CustomerRowConsumer {
+        void accept(int customerID, String username, String fullName, String email) throws IOException;
+    }
+
+    /**
+     * Streams the bookings made in [from, to) still in the database, in booking order.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the consumer fails; the query is abandoned.
+     */
+    public void scanBookings(LocalDateTime from, LocalDateTime to, BookingRowConsumer consumer) throws SQLException, IOException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = prepare(conn, SCAN_BOOKINGS)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp showDate = rs.getTimestamp("ShowDate");
+                    consumer.accept(rs.getInt("HistoryID"), rs.getInt("CustomerID"), rs.getInt("TicketID"),
+                            rs.getInt("ShowtimeID"), rs.getInt("SeatID"), rs.getTimestamp("BookingDate").getTime(),
+                            showDate == null ? 0 : showDate.getTime(), rs.getString("MovieTitle"),
+                            rs.getString("RoomName"), rs.getString("SeatNumber"),
+                            rs.getBigDecimal("Price").movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error exporting bookings: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Streams the Revenue rollup rows of the days in [from, to), by day then showtime.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the consumer fails; the query is abandoned.
+     */
+    public void scanRevenue(LocalDate from, LocalDate to, RevenueRowConsumer consumer) throws SQLException, IOException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = prepare(conn, SCAN_REVENUE)) {
+            stmt.setDate(1, java.sql.Date.valueOf(from));
+            stmt.setDate(2, java.sql.Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getDate("RevenueDate").toLocalDate(), rs.getInt("ShowtimeID"), rs.getString("Title"),
+                            rs.getInt("TicketCount"), rs.getBigDecimal("TotalRevenue"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error exporting revenue: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Streams all customers by ID, without their passwords.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the consumer fails; the query is abandoned.
+     */
+    public void scanCustomers(CustomerRowConsumer consumer) throws SQLException, IOException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = prepare(conn, SCAN_CUSTOMERS);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs.getInt("CustomerID"), rs.getString("Username"), rs.getString("FullName"),
+                        rs.getString("Email"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error exporting customers: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        return stmt;
+    }
+}
\ No newline at end of file
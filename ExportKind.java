@@ -0,0 +1,20 @@
+package com.movie.model;
+
+/** Data sets that can be exported to CSV; the name in lower case is the command-line argument. */
+public enum ExportKind {
+    BOOKINGS("Lịch sử đặt vé"),
+    TICKETS("Vé"),
+    REVENUE("Doanh thu tổng hợp"),
+    CUSTOMERS("Khách hàng");
+
+    private final String label;
+
+    ExportKind(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
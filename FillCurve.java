@@ -0,0 +1,48 @@
+package com.movie.model;
+
+/**
+ * How showtimes fill up before they start: tickets sold by whole hours before the show, over a
+ * set of showtimes with their total capacity. Sales more than {@link #MAX_LEAD_HOURS} ahead count
+ * in the last hour, sales after the start in hour 0.
+ */
+public final class FillCurve {
+    public static final int MAX_LEAD_HOURS = 14 * 24;
+    /** Hours before the show at which the curve is usually read. */
+    public static final int[] CHECKPOINT_HOURS = {MAX_LEAD_HOURS, 7 * 24, 72, 48, 24, 12, 6, 3, 1, 0};
+
+    private final int showtimeCount;
+    private final long capacity;
+    private final long[] ticketsByLeadHour;
+    // soldBefore[h] = số vé bán từ h giờ trước giờ chiếu trở về trước
+    private final long[] soldBefore;
+
+    public FillCurve(int showtimeCount, long capacity, long[] ticketsByLeadHour) {
+        if (ticketsByLeadHour.length != MAX_LEAD_HOURS + 1) {
+            throw new IllegalArgumentException("Lead-time histogram must have " + (MAX_LEAD_HOURS + 1) + " entries");
+        }
+        this.showtimeCount = showtimeCount;
+        this.capacity = capacity;
+        this.ticketsByLeadHour = ticketsByLeadHour.clone();
+        this.soldBefore = new long[MAX_LEAD_HOURS + 1];
+        long sold = 0;
+        for (int hour = MAX_LEAD_HOURS; hour >= 0; hour--) {
+            sold += ticketsByLeadHour[hour];
+            soldBefore[hour] = sold;
+        }
+    }
+
+    public int getShowtimeCount() { return showtimeCount; }
+
+    public long getCapacity() { return capacity; }
+
+    public long getTotalTickets() { return soldBefore[0]; }
+
+    /** Tickets sold between hoursBefore and hoursBefore + 1 hours before the show. */
+    public long getTicketsInLeadHour(int hoursBefore) { return ticketsByLeadHour[hoursBefore]; }
+
+    /** Share of the seats already sold hoursBefore hours before the show. */
+    public double getFillRateAt(int hoursBefore) {
+        int hour = Math.max(0, Math.min(hoursBefore, MAX_LEAD_HOURS));
+        return capacity > 0 ? (double) soldBefore[hour] / capacity : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.movie.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of half-open time intervals [start, end), each tagged with an int id, sorted by
+ * start. A prefix maximum of the end times lets point and range queries stop after a binary search
+ * plus the intervals that actually match, so "what is playing now / next" is O(log n) for a room
+ * whose showtimes do not overlap.
+ */
+public final class IntervalIndex {
+    public static final IntervalIndex EMPTY = new IntervalIndex(new long[0], new long[0], new int[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] ids;
+    // maxEnds[i] = max(ends[0..i]); khoảng nào bắt đầu trước i mà còn chưa kết thúc thì maxEnds[i] > t
+    private final long[] maxEnds;
+
+    public IntervalIndex(long[] starts, long[] ends, int[] ids) {
+        if (starts.length != ends.length || starts.length != ids.length) {
+            throw new IllegalArgumentException("starts, ends and ids must have the same length");
+        }
+        int n = starts.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            if (ends[i] < starts[i]) {
+                throw new IllegalArgumentException("Interval " + ids[i] + " ends before it starts");
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+        this.starts = new long[n];
+        this.ends = new long[n];
+        this.ids = new int[n];
+        this.maxEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            this.starts[i] = starts[order[i]];
+            this.ends[i] = ends[order[i]];
+            this.ids[i] = ids[order[i]];
+            this.maxEnds[i] = i == 0 ? this.ends[i] : Math.max(maxEnds[i - 1], this.ends[i]);
+        }
+    }
+
+    /** Id of the interval containing t (the one that started last if several do), or -1. */
+    public int idAt(long t) {
+        for (int i = lastStartingAtOrBefore(t); i >= 0 && maxEnds[i] > t; i--) {
+            if (ends[i] > t) {
+                return ids[i];
+            }
+        }
+        return -1;
+    }
+
+    /** Id of the first interval starting strictly after t, or -1. */
+    public int nextAfter(long t) {
+        int i = lastStartingAtOrBefore(t) + 1;
+        return i < ids.length ? ids[i] : -1;
+    }
+
+    /** Ids of the intervals overlapping [start, end), in start order. */
+    public int[] overlapping(long start, long end) {
+        int last = lastStartingAtOrBefore(end - 1);
+        int first = last + 1;
+        while (first > 0 && maxEnds[first - 1] > start) {
+            first--;
+        }
+        int[] result = new int[last - first + 1];
+        int count = 0;
+        for (int i = first; i <= last; i++) {
+            if (ends[i] > start && starts[i] < end) {
+                result[count++] = ids[i];
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /** Latest end among the intervals overlapping [start, end), or Long.MIN_VALUE if none does. */
+    public long maxEndOverlapping(long start, long end) {
+        // Khoảng đạt maxEnds[last] bắt đầu trước end, nên nếu nó kết thúc sau start thì nó giao với [start, end)
+        int last = lastStartingAtOrBefore(end - 1);
+        return last >= 0 && maxEnds[last] > start ? maxEnds[last] : Long.MIN_VALUE;
+    }
+
+    /** Every pair of overlapping intervals as {id, id}, found in one sweep over the sorted starts. */
+    public List<int[]> findOverlaps() {
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 1; i < ids.length; i++) {
+            if (ends[i] == starts[i]) {
+                continue;
+            }
+            for (int j = i - 1; j >= 0 && maxEnds[j] > starts[i]; j--) {
+                if (ends[j] > starts[i]) {
+                    pairs.add(new int[]{ids[j], ids[i]});
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /** Ids in start order. */
+    public int[] ids() {
+        return ids.clone();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Chỉ số lớn nhất có start <= t, -1 nếu không có
+    private int lastStartingAtOrBefore(long t) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= t) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.movie.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal streaming JSON writer used by the HTTP API (no external JSON library in this project).
+ */
+public class JsonWriter {
+    private final StringBuilder sb = new StringBuilder();
+    private final Deque<Boolean> firstInScope = new ArrayDeque<>();
+    private boolean afterName;
+
+    public JsonWriter beginObject() {
+        separator();
+        sb.append('{');
+        firstInScope.push(true);
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        firstInScope.pop();
+        sb.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separator();
+        sb.append('[');
+        firstInScope.push(true);
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        firstInScope.pop();
+        sb.append(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separator();
+        appendString(name);
+        sb.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            sb.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separator();
+        sb.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        separator();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            sb.append("null");
+        } else {
+            sb.append(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separator();
+        sb.append(value);
+        return this;
+    }
+
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!firstInScope.isEmpty()) {
+            if (firstInScope.peek()) {
+                firstInScope.pop();
+                firstInScope.push(false);
+            } else {
+                sb.append(',');
+            }
+        }
+    }
+
+    private void appendString(String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.movie.bus;
+
+import com.movie.dao.RevenueDAO;
+import com.movie.model.LiveRevenueSnapshot;
+import com.movie.model.LiveRevenueSnapshot.Counts;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live tickets and revenue of today, in total and per movie and showtime, for the admin
+ * dashboard, kept in {@link LongAdder}s so readers never contend with the updates.
+ * <p>
+ * The counters live in the server process ({@link com.movie.Server}), which pushes them to the
+ * dashboards. They are only fed from committed rows: {@link #start()} loads the day so far from
+ * BookingHistory, then the tickets booked since are read again every few seconds and whenever a
+ * client sends a BOOKED socket message ({@link #requestCatchUp()}), each ticket counted once by
+ * its HistoryID. A BOOKED message carries no figures, so a client cannot change the totals.
+ * Readers take a full {@link #snapshot()} or {@link #drainChanges()}, which returns only the
+ * entries changed since the previous drain.
+ */
+public final class LiveRevenueCounters {
+    // Vé đặt trong khoảng này trước lúc đọc có thể chưa commit: lần đọc sau đọc lại khoảng này
+    private static final long CATCH_UP_OVERLAP_SECONDS = 60;
+    // Đọc lại cả khi không có tin BOOKED, vd. khi tin bị mất
+    private static final long CATCH_UP_SECONDS = Long.getLong("revenue.catchUpSeconds", 5);
+    private static final String UNKNOWN = "Không rõ";
+    private static final LiveRevenueCounters INSTANCE = new LiveRevenueCounters();
+
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-revenue");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Day> today = new AtomicReference<>();
+    private final AtomicBoolean catchUpRequested = new AtomicBoolean();
+    private volatile LocalDateTime startedAt;
+    // Chỉ luồng live-revenue đọc/ghi: vé đặt trước cutoff đã được đếm, applied là các vé từ cutoff trở đi đã đếm
+    private LocalDateTime cutoff;
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+
+    private static final class Counter {
+        final LongAdder tickets = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+
+        void add(long ticketCount, long cents) {
+            tickets.add(ticketCount);
+            revenueCents.add(cents);
+        }
+
+        Counts read() {
+            return new Counts(tickets.sum(), revenueCents.sum());
+        }
+    }
+
+    private static final class Day {
+        final LocalDate date;
+        final Counter total = new Counter();
+        final Map<String, Counter> byMovie = new ConcurrentHashMap<>();
+        final Map<Integer, Counter> byShowtime = new ConcurrentHashMap<>();
+        final Set<String> changedMovies = ConcurrentHashMap.newKeySet();
+        final Set<Integer> changedShowtimes = ConcurrentHashMap.newKeySet();
+        // Lần rút tiếp theo phải gửi toàn bộ (ngày mới, hoặc vừa nạp số liệu từ trước lúc bắt đầu)
+        volatile boolean fullPending = true;
+
+        Day(LocalDate date) {
+            this.date = date;
+        }
+
+        void add(int showtimeID, String movieTitle, long tickets, long revenueCents) {
+            String movie = movieTitle == null ? UNKNOWN : movieTitle;
+            total.add(tickets, revenueCents);
+            byMovie.computeIfAbsent(movie, k -> new Counter()).add(tickets, revenueCents);
+            byShowtime.computeIfAbsent(showtimeID, k -> new Counter()).add(tickets, revenueCents);
+            // Đánh dấu sau khi cộng: lần rút nào bỏ sót mục này sẽ thấy nó ở lần sau
+            changedMovies.add(movie);
+            changedShowtimes.add(showtimeID);
+        }
+    }
+
+    private LiveRevenueCounters() {
+    }
+
+    public static LiveRevenueCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /** Loads the bookings already made today in the background, then keeps counting new ones. */
+    public synchronized void start() {
+        if (startedAt != null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        today.set(new Day(now.toLocalDate()));
+        startedAt = now;
+        scheduler.execute(this::seed);
+        scheduler.scheduleWithFixedDelay(this::catchUp, CATCH_UP_SECONDS, CATCH_UP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Called for each BOOKED message: reads the newly committed bookings, with at most one read queued. */
+    public void requestCatchUp() {
+        if (startedAt != null && catchUpRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::catchUp);
+        }
+    }
+
+    /** Everything counted today. */
+    public LiveRevenueSnapshot snapshot() {
+        Day day = startedAt == null ? null : currentDay(LocalDate.now());
+        if (day == null) {
+            return new LiveRevenueSnapshot(LocalDate.now(), true, new Counts(0, 0), new HashMap<>(), new HashMap<>());
+        }
+        Map<String, Counts> byMovie = new HashMap<>();
+        day.byMovie.forEach((movie, counter) -> byMovie.put(movie, counter.read()));
+        Map<Integer, Counts> byShowtime = new HashMap<>();
+        day.byShowtime.forEach((showtimeID, counter) -> byShowtime.put(showtimeID, counter.read()));
+        return new LiveRevenueSnapshot(day.date, true, day.total.read(), byMovie, byShowtime);
+    }
+
+    /**
+     * The entries changed since the previous drain, or null if nothing changed. After midnight or
+     * the initial load the result is a full snapshot.
+     */
+    public LiveRevenueSnapshot drainChanges() {
+        if (startedAt == null) {
+            return null;
+        }
+        Day day = currentDay(LocalDate.now());
+        if (day == null) {
+            return null;
+        }
+        if (day.fullPending) {
+            day.fullPending = false;
+            day.changedMovies.clear();
+            day.changedShowtimes.clear();
+            return snapshot();
+        }
+        if (day.changedMovies.isEmpty() && day.changedShowtimes.isEmpty()) {
+            return null;
+        }
+        // Bỏ đánh dấu trước khi đọc: lượt cộng xen vào sẽ đánh dấu lại và được gửi lần sau
+        Map<String, Counts> byMovie = new HashMap<>();
+        for (String movie : day.changedMovies) {
+            day.changedMovies.remove(movie);
+            byMovie.put(movie, day.byMovie.get(movie).read());
+        }
+        Map<Integer, Counts> byShowtime = new HashMap<>();
+        for (Integer showtimeID : day.changedShowtimes) {
+            day.changedShowtimes.remove(showtimeID);
+            byShowtime.put(showtimeID, day.byShowtime.get(showtimeID).read());
+        }
+        return new LiveRevenueSnapshot(day.date, false, day.total.read(), byMovie, byShowtime);
+    }
+
+    /** The counters of the given day, switching to a new day at midnight; null for a day already past. */
+    private Day currentDay(LocalDate date) {
+        while (true) {
+            Day day = today.get();
+            if (day.date.equals(date)) {
+                return day;
+            }
+            if (date.isBefore(day.date)) {
+                return null;
+            }
+            // Lượt cộng còn giữ ngày cũ lúc đổi ngày chỉ làm lệch số của ngày đã qua
+            today.compareAndSet(day, new Day(date));
+        }
+    }
+
+    private void seed() {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(CATCH_UP_OVERLAP_SECONDS);
+        Day day = today.get();
+        try {
+            revenueDAO.scanBookingFacts(day.date.atStartOfDay(), before,
+                    (showtimeID, movieTitle, roomName, genreID, countryID, bookingDay, hour, tickets, revenueCents) ->
+                            day.add(showtimeID, movieTitle, tickets, revenueCents));
+            cutoff = before;
+            day.fullPending = true;
+        } catch (SQLException e) {
+            // Có thể đã cộng một phần: bỏ số của ngày để lần đọc sau nạp lại từ đầu
+            today.compareAndSet(day, new Day(day.date));
+            System.err.println("Không thể nạp doanh thu trong ngày: " + e.getMessage());
+        }
+    }
+
+    /** Counts the tickets committed since the last read, by any process. */
+    private void catchUp() {
+        catchUpRequested.set(false);
+        if (cutoff == null) {
+            seed();
+            return;
+        }
+        LocalDateTime nextCutoff = LocalDateTime.now().minusSeconds(CATCH_UP_OVERLAP_SECONDS);
+        try {
+            revenueDAO.scanRecentBookings(cutoff, (historyID, customerID, showtimeID, movieTitle, bookedAt, priceCents) -> {
+                if (applied.putIfAbsent(historyID, bookedAt) == null) {
+                    Day day = currentDay(bookedAt.toLocalDate());
+                    if (day != null) {
+                        day.add(showtimeID, movieTitle, 1, priceCents);
+                    }
+                }
+            });
+            // Vé đặt trước mốc mới sẽ không được đọc lại nữa
+            cutoff = nextCutoff;
+            applied.values().removeIf(bookedAt -> bookedAt.isBefore(nextCutoff));
+        } catch (SQLException e) {
+            // Vé đã đếm vẫn nằm trong applied nên lần đọc sau không đếm lại
+            System.err.println("Không thể cập nhật doanh thu trực tiếp: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.movie.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Today's live tickets and revenue (hundredths of a VND), in total and per movie and showtime.
+ * A full snapshot holds every movie and showtime of the day; an update only those that changed
+ * since the previous one, with their new totals (not increments), so applying it twice is harmless.
+ */
+public final class LiveRevenueSnapshot {
+    /** Totals of one movie or showtime. */
+    public static final class Counts {
+        private final long tickets;
+        private final long revenueCents;
+
+        public Counts(long tickets, long revenueCents) {
+            this.tickets = tickets;
+            this.revenueCents = revenueCents;
+        }
+
+        public long getTickets() { return tickets; }
+
+        public long getRevenueCents() { return revenueCents; }
+    }
+
+    private final LocalDate date;
+    private final boolean full;
+    private final Counts total;
+    private final Map<String, Counts> byMovie;
+    private final Map<Integer, Counts> byShowtime;
+
+    public LiveRevenueSnapshot(LocalDate date, boolean full, Counts total,
+                               Map<String, Counts> byMovie, Map<Integer, Counts> byShowtime) {
+        this.date = date;
+        this.full = full;
+        this.total = total;
+        this.byMovie = Collections.unmodifiableMap(byMovie);
+        this.byShowtime = Collections.unmodifiableMap(byShowtime);
+    }
+
+    public LocalDate getDate() { return date; }
+
+    /** True if this replaces everything known about the day, false if it only updates some entries. */
+    public boolean isFull() { return full; }
+
+    public Counts getTotal() { return total; }
+
+    public Map<String, Counts> getByMovie() { return byMovie; }
+
+    public Map<Integer, Counts> getByShowtime() { return byShowtime; }
+}
\ No newline at end of file
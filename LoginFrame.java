@@ -123,7 +123,7 @@ public class LoginFrame extends JFrame {
                     return;
                 }
                 if (username.equals(adminUsername)) {
-                    new AdminFrame().setVisible(true);
+                    new AdminFrame(username, password).setVisible(true);
                 } else {
                     new UserFrame(1).setVisible(true); // Thay 1 bằng customerID thực tế
                 }
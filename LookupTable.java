@@ -0,0 +1,75 @@
+package com.movie.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable id -> name dictionary for small reference tables (Genre, Country).
+ * IDs are IDENTITY values, so names are stored in an array indexed directly by id.
+ * A snapshot is never modified; a refresh builds a new one and swaps the reference.
+ * Name lookups ignore surrounding spaces and letter case, like the database's default
+ * case-insensitive collation did for {@code WHERE Name = ?}.
+ */
+public final class LookupTable {
+    public static final LookupTable EMPTY = new LookupTable(new int[0], new String[0]);
+
+    private final String[] namesById;
+    private final List<String> names;
+    private final Map<String, Integer> idsByName;
+
+    public LookupTable(int[] ids, String[] names) {
+        if (ids.length != names.length) {
+            throw new IllegalArgumentException("ids and names must have the same length");
+        }
+        int maxId = 0;
+        for (int id : ids) {
+            if (id <= 0) {
+                throw new IllegalArgumentException("Invalid id: " + id);
+            }
+            maxId = Math.max(maxId, id);
+        }
+        this.namesById = new String[maxId + 1];
+        List<String> ordered = new ArrayList<>(names.length);
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            namesById[ids[i]] = names[i];
+            ordered.add(names[i]);
+            // Tên trùng: giữ id đầu tiên, giống SELECT ... WHERE Name = ? trả dòng đầu
+            byName.putIfAbsent(normalize(names[i]), ids[i]);
+        }
+        this.names = Collections.unmodifiableList(ordered);
+        this.idsByName = Collections.unmodifiableMap(byName);
+    }
+
+    /** Returns the name for the id, or null if the id is unknown. */
+    public String getName(int id) {
+        return id > 0 && id < namesById.length ? namesById[id] : null;
+    }
+
+    /** Returns the id for the name (trimmed, any case), or 0 if the name is unknown. */
+    public int getId(String name) {
+        Integer id = name == null ? null : idsByName.get(normalize(name));
+        return id == null ? 0 : id;
+    }
+
+    public boolean containsId(int id) {
+        return getName(id) != null;
+    }
+
+    /** Names in table order, as the selection dialogs show them. */
+    public List<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private static String normalize(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -1,19 +1,11 @@
 package com.movie;
 
-import com.movie.network.SocketServer;
-import com.movie.network.DataUpdater;
 import com.movie.ui.LoginFrame;
 import javax.swing.SwingUtilities;
 
 public class Main {
     public static void main(String[] args) {
-        // Khởi động server socket
-        SocketServer socketServer = new SocketServer(5000);
-        new Thread(socketServer::start).start();
-
-        // Khởi động DataUpdater
-        DataUpdater dataUpdater = new DataUpdater(socketServer);
-        dataUpdater.start();
+        // Server socket, HTTP API và các tác vụ nền chạy một lần trong tiến trình com.movie.Server
 
         // Khởi động giao diện đăng nhập
         SwingUtilities.invokeLater(() -> new LoginFrame().setVisible(true));
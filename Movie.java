@@ -21,6 +21,23 @@ public class Movie {
     // Constructors
     public Movie() {}
 
+    public Movie(Movie other) {
+        this.movieID = other.movieID;
+        this.title = other.title;
+        this.description = other.description;
+        this.duration = other.duration;
+        this.director = other.director;
+        this.genreID = other.genreID;
+        this.genreName = other.genreName;
+        this.poster = other.poster;
+        this.startDate = other.startDate;
+        this.endDate = other.endDate;
+        this.productionYear = other.productionYear;
+        this.countryID = other.countryID;
+        this.countryName = other.countryName;
+        this.ageRestriction = other.ageRestriction;
+    }
+
     // Getters and Setters
     public int getMovieID() { return movieID; }
     public void setMovieID(int movieID) { this.movieID = movieID; }
@@ -1,13 +1,27 @@
 package com.movie.bus;
 
+import com.movie.dao.DictionaryDAO;
 import com.movie.dao.MovieDAO;
 import com.movie.model.Movie;
+import com.movie.util.SingleFlight;
+import com.movie.util.TtlCache;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MovieBUS {
+    private static final long CACHE_TTL_MILLIS = 60_000;
+    private static final int CACHE_MAX_MOVIES = 1000;
+
+    // Cache dùng chung cho mọi instance (mỗi màn hình tạo MovieBUS riêng)
+    private static final TtlCache<Integer, Movie> moviesById = new TtlCache<>("movieById", CACHE_MAX_MOVIES, CACHE_TTL_MILLIS);
+    private static final TtlCache<String, List<Movie>> movieList = new TtlCache<>("movieList", 1, CACHE_TTL_MILLIS);
+    private static final String ALL_MOVIES = "all";
+    private static final SingleFlight<String, List<Movie>> allMoviesFlight = new SingleFlight<>("getAllMovies");
+
     private MovieDAO movieDAO = new MovieDAO();
+    private DictionaryDAO dictionaryDAO = new DictionaryDAO();
 
     public void addMovie(Movie movie) throws SQLException {
         if (movie.getTitle() == null || movie.getTitle().trim().isEmpty()) {
@@ -16,18 +30,32 @@ public class MovieBUS {
         if (movie.getAgeRestriction() < 0) {
             throw new IllegalArgumentException("Age restriction cannot be negative");
         }
-        movieDAO.addMovie(movie);
+        try {
+            movieDAO.addMovie(movie);
+        } finally {
+            movieList.invalidateAll();
+            NowShowingBUS.invalidate();
+            ShowtimeStatusEngine.requestReload();
+        }
     }
 
     public List<Movie> getAllMovies() throws SQLException {
-        return movieDAO.getAllMovies();
+        List<Movie> movies = movieList.getOrLoad(ALL_MOVIES,
+                key -> allMoviesFlight.execute(key, k -> movieDAO.getAllMovies()));
+        // Trả bản sao vì giao diện sửa trực tiếp đối tượng Movie trước khi lưu
+        List<Movie> copies = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            copies.add(new Movie(movie));
+        }
+        return copies;
     }
 
     public Movie getMovieById(int movieID) throws SQLException {
         if (movieID <= 0) {
             throw new IllegalArgumentException("Invalid movie ID");
         }
-        return movieDAO.getMovieById(movieID);
+        Movie movie = moviesById.getOrLoad(movieID, movieDAO::getMovieById);
+        return movie == null ? null : new Movie(movie);
     }
 
     public void updateMovie(Movie movie) throws SQLException {
@@ -40,14 +68,22 @@ public class MovieBUS {
         if (movie.getAgeRestriction() < 0) {
             throw new IllegalArgumentException("Age restriction cannot be negative");
         }
-        movieDAO.updateMovie(movie);
+        try {
+            movieDAO.updateMovie(movie);
+        } finally {
+            invalidate(movie.getMovieID());
+        }
     }
 
     public void deleteMovie(int movieID) throws SQLException {
         if (movieID <= 0) {
             throw new IllegalArgumentException("Invalid movie ID");
         }
-        movieDAO.deleteMovie(movieID);
+        try {
+            movieDAO.deleteMovie(movieID);
+        } finally {
+            invalidate(movieID);
+        }
     }
 
     public List<String> getAllGenres() throws SQLException {
@@ -57,4 +93,32 @@ public class MovieBUS {
     public List<String> getAllCountries() throws SQLException {
         return movieDAO.getAllCountries();
     }
+
+    public int getGenreIdByName(String genreName) throws SQLException {
+        return movieDAO.getGenreIdByName(genreName);
+    }
+
+    public int getCountryIdByName(String countryName) throws SQLException {
+        return movieDAO.getCountryIdByName(countryName);
+    }
+
+    /**
+     * Reloads the genre/country dictionaries after the reference tables change and drops
+     * cached movies, whose genre/country names were resolved from the old snapshot.
+     */
+    public void refreshDictionaries() throws SQLException {
+        try {
+            dictionaryDAO.refresh();
+        } finally {
+            moviesById.invalidateAll();
+            movieList.invalidateAll();
+        }
+    }
+
+    private void invalidate(int movieID) {
+        moviesById.invalidate(movieID);
+        movieList.invalidateAll();
+        NowShowingBUS.invalidate();
+        ShowtimeStatusEngine.requestReload();
+    }
 }
\ No newline at end of file
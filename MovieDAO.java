@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MovieDAO {
+    private final DictionaryDAO dictionaryDAO = new DictionaryDAO();
+
     public void addMovie(Movie movie) throws SQLException {
         String query = "INSERT INTO Movie (Title, Description, Duration, Director, GenreID, Poster, StartDate, EndDate, ProductionYear, CountryID, AgeRestriction) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
@@ -36,29 +38,13 @@ public class MovieDAO {
 
     public List<Movie> getAllMovies() throws SQLException {
         List<Movie> movies = new ArrayList<>();
-        String query = "SELECT m.*, g.GenreName, c.CountryName FROM Movie m " +
-                "LEFT JOIN Genre g ON m.GenreID = g.GenreID " +
-                "LEFT JOIN Country c ON m.CountryID = c.CountryID";
+        // Tên thể loại/quốc gia lấy từ DictionaryDAO trong bộ nhớ, không JOIN
+        String query = "SELECT * FROM Movie";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Movie movie = new Movie();
-                movie.setMovieID(rs.getInt("MovieID"));
-                movie.setTitle(rs.getString("Title"));
-                movie.setDescription(rs.getString("Description"));
-                movie.setDuration(rs.getInt("Duration"));
-                movie.setDirector(rs.getString("Director"));
-                movie.setGenreID(rs.getInt("GenreID"));
-                movie.setGenreName(rs.getString("GenreName"));
-                movie.setPoster(rs.getString("Poster"));
-                movie.setStartDate(rs.getDate("StartDate"));
-                movie.setEndDate(rs.getDate("EndDate"));
-                movie.setProductionYear(rs.getInt("ProductionYear"));
-                movie.setCountryID(rs.getInt("CountryID"));
-                movie.setCountryName(rs.getString("CountryName"));
-                movie.setAgeRestriction(rs.getInt("AgeRestriction"));
-                movies.add(movie);
+                movies.add(mapResultSetToMovie(rs));
             }
         } catch (SQLException e) {
             throw new SQLException("Failed to retrieve movies: " + e.getMessage(), e);
@@ -67,31 +53,13 @@ public class MovieDAO {
     }
 
     public Movie getMovieById(int movieID) throws SQLException {
-        String query = "SELECT m.*, g.GenreName, c.CountryName FROM Movie m " +
-                "LEFT JOIN Genre g ON m.GenreID = g.GenreID " +
-                "LEFT JOIN Country c ON m.CountryID = c.CountryID " +
-                "WHERE m.MovieID = ?";
+        String query = "SELECT * FROM Movie WHERE MovieID = ?";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, movieID);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Movie movie = new Movie();
-                    movie.setMovieID(rs.getInt("MovieID"));
-                    movie.setTitle(rs.getString("Title"));
-                    movie.setDescription(rs.getString("Description"));
-                    movie.setDuration(rs.getInt("Duration"));
-                    movie.setDirector(rs.getString("Director"));
-                    movie.setGenreID(rs.getInt("GenreID"));
-                    movie.setGenreName(rs.getString("GenreName"));
-                    movie.setPoster(rs.getString("Poster"));
-                    movie.setStartDate(rs.getDate("StartDate"));
-                    movie.setEndDate(rs.getDate("EndDate"));
-                    movie.setProductionYear(rs.getInt("ProductionYear"));
-                    movie.setCountryID(rs.getInt("CountryID"));
-                    movie.setCountryName(rs.getString("CountryName"));
-                    movie.setAgeRestriction(rs.getInt("AgeRestriction"));
-                    return movie;
+                    return mapResultSetToMovie(rs);
                 }
             }
         } catch (SQLException e) {
@@ -100,6 +68,25 @@ public class MovieDAO {
         return null;
     }
 
+    private Movie mapResultSetToMovie(ResultSet rs) throws SQLException {
+        Movie movie = new Movie();
+        movie.setMovieID(rs.getInt("MovieID"));
+        movie.setTitle(rs.getString("Title"));
+        movie.setDescription(rs.getString("Description"));
+        movie.setDuration(rs.getInt("Duration"));
+        movie.setDirector(rs.getString("Director"));
+        movie.setGenreID(rs.getInt("GenreID"));
+        movie.setGenreName(dictionaryDAO.getGenreName(movie.getGenreID()));
+        movie.setPoster(rs.getString("Poster"));
+        movie.setStartDate(rs.getDate("StartDate"));
+        movie.setEndDate(rs.getDate("EndDate"));
+        movie.setProductionYear(rs.getInt("ProductionYear"));
+        movie.setCountryID(rs.getInt("CountryID"));
+        movie.setCountryName(dictionaryDAO.getCountryName(movie.getCountryID()));
+        movie.setAgeRestriction(rs.getInt("AgeRestriction"));
+        return movie;
+    }
+
     public void updateMovie(Movie movie) throws SQLException {
         String query = "UPDATE Movie SET Title = ?, Description = ?, Duration = ?, Director = ?, GenreID = ?, Poster = ?, StartDate = ?, EndDate = ?, ProductionYear = ?, CountryID = ?, AgeRestriction = ? WHERE MovieID = ?";
         try (Connection conn = DBConnection.getConnection();
@@ -140,60 +127,18 @@ public class MovieDAO {
     }
 
     public List<String> getAllGenres() throws SQLException {
-        List<String> genres = new ArrayList<>();
-        String query = "SELECT GenreName FROM Genre";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                genres.add(rs.getString("GenreName"));
-            }
-        } catch (SQLException e) {
-            throw new SQLException("Failed to retrieve genres: " + e.getMessage(), e);
-        }
-        return genres;
+        return dictionaryDAO.getGenres().getNames();
     }
 
     public List<String> getAllCountries() throws SQLException {
-        List<String> countries = new ArrayList<>();
-        String query = "SELECT CountryName FROM Country";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                countries.add(rs.getString("CountryName"));
-            }
-        } catch (SQLException e) {
-            throw new SQLException("Failed to retrieve countries: " + e.getMessage(), e);
-        }
-        return countries;
+        return dictionaryDAO.getCountries().getNames();
     }
 
     public int getGenreIdByName(String genreName) throws SQLException {
-        String query = "SELECT GenreID FROM Genre WHERE GenreName = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, genreName);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("GenreID");
-                }
-            }
-        }
-        return 0;
+        return dictionaryDAO.getGenreId(genreName);
     }
 
     public int getCountryIdByName(String countryName) throws SQLException {
-        String query = "SELECT CountryID FROM Country WHERE CountryName = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, countryName);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("CountryID");
-                }
-            }
-        }
-        return 0;
+        return dictionaryDAO.getCountryId(countryName);
     }
 }
\ No newline at end of file
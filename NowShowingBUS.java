@@ -0,0 +1,204 @@
+package com.movie.bus;
+
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.ShowingSlot;
+import com.movie.util.IntervalIndex;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "now showing" index for the customer catalog: movieId -> bookable showtimes
+ * (room, time, price, remaining seats) and the reverse showtimeId/roomId lookups. Each room's
+ * showtimes are also kept as an {@link IntervalIndex} over [ShowDate, ShowDate + Duration), which
+ * answers the current/next showtime of a room and finds overlapping schedules.
+ * <p>
+ * The index is built with one query over Showtime/Movie/Room/Ticket. Bookings update the
+ * affected slot in place ({@link #onSeatsBooked}); showtime, room and movie changes mark the
+ * index dirty and it is rebuilt on the next read. Showtimes that have ended are filtered out
+ * at read time, and the whole index is rebuilt every few minutes to pick up outside changes.
+ */
+public class NowShowingBUS {
+    private static final long REBUILD_INTERVAL_MILLIS = 5 * 60_000L;
+    // Suất bắt đầu trước mốc này chắc chắn đã kết thúc (phim dài nhất < 24 giờ)
+    private static final long LOOKBACK_MILLIS = 24 * 60 * 60_000L;
+
+    private static final Object buildLock = new Object();
+    private static final Object stateLock = new Object();
+    private static volatile Index index;
+    private static volatile boolean dirty = true;
+    // Tăng mỗi lần có thay đổi; nếu thay đổi trong lúc đang dựng lại thì bản mới vẫn bị đánh dấu dirty
+    private static long changeCount;
+
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+
+    private static final class Index {
+        final Map<Integer, ShowingSlot> byShowtime;
+        final Map<Integer, int[]> showtimesByMovie;
+        final Map<Integer, IntervalIndex> scheduleByRoom;
+        final long builtAt;
+
+        Index(List<ShowingSlot> slots, long builtAt) {
+            slots.sort(Comparator.comparingLong(ShowingSlot::getShowTime));
+            Map<Integer, ShowingSlot> slotsById = new ConcurrentHashMap<>();
+            Map<Integer, List<Integer>> byMovie = new HashMap<>();
+            Map<Integer, List<ShowingSlot>> byRoom = new HashMap<>();
+            for (ShowingSlot slot : slots) {
+                slotsById.put(slot.getShowtimeID(), slot);
+                byMovie.computeIfAbsent(slot.getMovieID(), k -> new ArrayList<>()).add(slot.getShowtimeID());
+                byRoom.computeIfAbsent(slot.getRoomID(), k -> new ArrayList<>()).add(slot);
+            }
+            this.byShowtime = slotsById;
+            this.showtimesByMovie = toArrays(byMovie);
+            this.scheduleByRoom = toSchedules(byRoom);
+            this.builtAt = builtAt;
+        }
+
+        private static Map<Integer, IntervalIndex> toSchedules(Map<Integer, List<ShowingSlot>> slotsByRoom) {
+            Map<Integer, IntervalIndex> schedules = new HashMap<>();
+            slotsByRoom.forEach((roomID, roomSlots) -> {
+                int n = roomSlots.size();
+                long[] starts = new long[n];
+                long[] ends = new long[n];
+                int[] ids = new int[n];
+                for (int i = 0; i < n; i++) {
+                    ShowingSlot slot = roomSlots.get(i);
+                    starts[i] = slot.getShowTime();
+                    ends[i] = slot.getEndTime();
+                    ids[i] = slot.getShowtimeID();
+                }
+                schedules.put(roomID, new IntervalIndex(starts, ends, ids));
+            });
+            return Collections.unmodifiableMap(schedules);
+        }
+
+        IntervalIndex schedule(int roomID) {
+            return scheduleByRoom.getOrDefault(roomID, IntervalIndex.EMPTY);
+        }
+
+        private static Map<Integer, int[]> toArrays(Map<Integer, List<Integer>> lists) {
+            Map<Integer, int[]> arrays = new HashMap<>();
+            lists.forEach((key, ids) -> arrays.put(key, ids.stream().mapToInt(Integer::intValue).toArray()));
+            return Collections.unmodifiableMap(arrays);
+        }
+
+        List<ShowingSlot> resolve(int[] showtimeIds, long now) {
+            if (showtimeIds == null) {
+                return Collections.emptyList();
+            }
+            List<ShowingSlot> result = new ArrayList<>(showtimeIds.length);
+            for (int showtimeId : showtimeIds) {
+                ShowingSlot slot = byShowtime.get(showtimeId);
+                if (slot != null && slot.isBookable(now)) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** Bookable showtimes of the movie, ordered by start time. */
+    public List<ShowingSlot> getShowingsForMovie(int movieID) throws SQLException {
+        Index current = currentIndex();
+        return current.resolve(current.showtimesByMovie.get(movieID), System.currentTimeMillis());
+    }
+
+    /** Bookable showtimes in the room, ordered by start time. */
+    public List<ShowingSlot> getShowingsForRoom(int roomID) throws SQLException {
+        Index current = currentIndex();
+        return current.resolve(current.schedule(roomID).ids(), System.currentTimeMillis());
+    }
+
+    /** The showtime running in the room at the given time, or null. */
+    public ShowingSlot getShowingAt(int roomID, long time) throws SQLException {
+        Index current = currentIndex();
+        return current.byShowtime.get(current.schedule(roomID).idAt(time));
+    }
+
+    /** The first showtime in the room starting after the given time, or null. */
+    public ShowingSlot getNextShowing(int roomID, long time) throws SQLException {
+        Index current = currentIndex();
+        return current.byShowtime.get(current.schedule(roomID).nextAfter(time));
+    }
+
+    /** Pairs of showtimes in the room whose [start, end) overlap, e.g. from a badly entered schedule. */
+    public List<ShowingSlot[]> findOverlappingShowings(int roomID) throws SQLException {
+        Index current = currentIndex();
+        List<ShowingSlot[]> result = new ArrayList<>();
+        for (int[] pair : current.schedule(roomID).findOverlaps()) {
+            result.add(new ShowingSlot[]{current.byShowtime.get(pair[0]), current.byShowtime.get(pair[1])});
+        }
+        return result;
+    }
+
+    /** The slot for a showtime, or null if it is not bookable. */
+    public ShowingSlot getShowing(int showtimeID) throws SQLException {
+        ShowingSlot slot = currentIndex().byShowtime.get(showtimeID);
+        return slot != null && slot.isBookable(System.currentTimeMillis()) ? slot : null;
+    }
+
+    /** Every movie with at least one bookable showtime, for rendering the catalog in one pass. */
+    public Map<Integer, List<ShowingSlot>> getShowingsByMovie() throws SQLException {
+        Index current = currentIndex();
+        long now = System.currentTimeMillis();
+        Map<Integer, List<ShowingSlot>> result = new HashMap<>();
+        current.showtimesByMovie.forEach((movieID, showtimeIds) -> {
+            List<ShowingSlot> slots = current.resolve(showtimeIds, now);
+            if (!slots.isEmpty()) {
+                result.put(movieID, slots);
+            }
+        });
+        return result;
+    }
+
+    /** Called after a booking commits; updates the remaining seats of the showtime in place. */
+    static void onSeatsBooked(int showtimeID, int seatCount) {
+        synchronized (stateLock) {
+            changeCount++;
+            Index current = index;
+            if (current != null) {
+                current.byShowtime.computeIfPresent(showtimeID, (id, slot) -> slot.withBookedSeats(seatCount));
+            }
+        }
+    }
+
+    /** Marks the index stale after a showtime, room or movie change. */
+    static void invalidate() {
+        synchronized (stateLock) {
+            changeCount++;
+            dirty = true;
+        }
+    }
+
+    private Index currentIndex() throws SQLException {
+        Index current = index;
+        if (current != null && !dirty && System.currentTimeMillis() - current.builtAt < REBUILD_INTERVAL_MILLIS) {
+            return current;
+        }
+        synchronized (buildLock) {
+            current = index;
+            if (current != null && !dirty && System.currentTimeMillis() - current.builtAt < REBUILD_INTERVAL_MILLIS) {
+                return current;
+            }
+            long startChangeCount;
+            synchronized (stateLock) {
+                startChangeCount = changeCount;
+            }
+            long now = System.currentTimeMillis();
+            current = new Index(showtimeDAO.getBookableShowings(new Date(now - LOOKBACK_MILLIS)), now);
+            synchronized (stateLock) {
+                index = current;
+                // Một lượt đặt vé trong lúc truy vấn có thể đã hoặc chưa nằm trong kết quả → dựng lại lần sau
+                dirty = changeCount != startChangeCount;
+            }
+            return current;
+        }
+    }
+}
\ No newline at end of file
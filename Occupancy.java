@@ -0,0 +1,33 @@
+package com.movie.model;
+
+/** Seats of one showtime: sold, currently held for checkout, and still free. */
+public final class Occupancy {
+    private final int showtimeID;
+    private final int capacity;
+    private final int booked;
+    private final int held;
+
+    public Occupancy(int showtimeID, int capacity, int booked, int held) {
+        this.showtimeID = showtimeID;
+        this.capacity = capacity;
+        this.booked = booked;
+        this.held = held;
+    }
+
+    public int getShowtimeID() { return showtimeID; }
+
+    public int getCapacity() { return capacity; }
+
+    public int getBooked() { return booked; }
+
+    public int getHeld() { return held; }
+
+    public int getFree() { return Math.max(capacity - booked - held, 0); }
+
+    /** Sold seats / capacity, 0 for a room without seats. */
+    public double getFillRate() { return capacity > 0 ? (double) booked / capacity : 0; }
+
+    public Occupancy withHeld(int heldSeats) {
+        return new Occupancy(showtimeID, capacity, booked, heldSeats);
+    }
+}
\ No newline at end of file
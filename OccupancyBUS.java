@@ -0,0 +1,135 @@
+package com.movie.bus;
+
+import com.movie.dao.OccupancyDAO;
+import com.movie.model.FillCurve;
+import com.movie.model.Occupancy;
+import com.movie.network.SocketClient;
+import com.movie.network.SocketServer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sold, held and free seats per showtime, for whole lists of showtimes at once (admin showtime
+ * list, customer catalog), and fill-rate curves of past showtimes.
+ * <p>
+ * Sold seats are read from the database on every call, one round trip for the whole list, so
+ * bookings made by any process show at once. Seats are held in the server process (the HTTP API
+ * holds them while the customer pays), so held counts are asked from the server with a HOLDS
+ * socket message; if the server cannot be reached, no seat counts as held.
+ */
+public class OccupancyBUS {
+    private static final long MILLIS_PER_HOUR = 60 * 60_000L;
+    // Phim bán kém vẫn giữ một phần nhu cầu, không bị loại khỏi lịch
+    static final double MIN_DEMAND_WEIGHT = 0.2;
+
+    private final OccupancyDAO occupancyDAO = new OccupancyDAO();
+
+    /** Occupancy of each given showtime that exists, with one database round trip and one HOLDS request. */
+    public Map<Integer, Occupancy> getOccupancy(Collection<Integer> showtimeIDs) throws SQLException {
+        if (showtimeIDs.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Integer, Occupancy> sold = occupancyDAO.getOccupancy(new ArrayList<>(new LinkedHashSet<>(showtimeIDs)));
+        Map<Integer, Integer> holdCounts = fetchHoldCounts();
+        Map<Integer, Occupancy> result = new HashMap<>();
+        sold.forEach((showtimeID, occupancy) ->
+                result.put(showtimeID, occupancy.withHeld(holdCounts.getOrDefault(showtimeID, 0))));
+        return result;
+    }
+
+    /** Occupancy of one showtime, or null if it does not exist. */
+    public Occupancy getOccupancy(int showtimeID) throws SQLException {
+        return getOccupancy(List.of(showtimeID)).get(showtimeID);
+    }
+
+    /**
+     * How the showtimes of [from, to) (optionally of one movie) filled up, from the bookings in
+     * the database and in the archive. Only showtimes that have already started are counted.
+     */
+    public FillCurve getFillCurve(LocalDate from, LocalDate to, Integer movieID) throws SQLException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Khoảng ngày không hợp lệ");
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = to.atStartOfDay().isAfter(now) ? now : to.atStartOfDay();
+        long[] ticketsByLeadHour = new long[FillCurve.MAX_LEAD_HOURS + 1];
+        if (!start.isBefore(end)) {
+            return new FillCurve(0, 0, ticketsByLeadHour);
+        }
+        Map<Integer, Integer> capacities = occupancyDAO.getShowtimeCapacities(start, end, movieID);
+        long capacity = 0;
+        for (int seats : capacities.values()) {
+            capacity += seats;
+        }
+        try {
+            BookingArchive archive = BookingArchive.getInstance();
+            LocalDate hotSince = archive.withHotRange(since -> {
+                occupancyDAO.addLeadHours(start, end, movieID, since, ticketsByLeadHour);
+                return since;
+            });
+            // Phần đã lưu trữ: chỉ vé đặt trước hotSince, phần còn lại đã được đếm từ cơ sở dữ liệu
+            archive.scanShowingBookings(start, end, hotSince, (showtimeID, bookedAt, showAt) -> {
+                if (capacities.containsKey(showtimeID)) {
+                    long hour = (showAt - bookedAt) / MILLIS_PER_HOUR;
+                    ticketsByLeadHour[(int) Math.max(0, Math.min(hour, FillCurve.MAX_LEAD_HOURS))]++;
+                }
+            });
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+        return new FillCurve(capacities.size(), capacity, ticketsByLeadHour);
+    }
+
+    /**
+     * Demand weights for {@link ScheduleGenerator}, from how well each movie filled its showtimes
+     * over the last pastDays days: the movie's fill rate divided by the average over all movies, so
+     * an average movie weighs {@link ScheduleGenerator#DEFAULT_DEMAND_WEIGHT}. Movies without past
+     * showtimes are left out (they get the default); a weak movie keeps at least
+     * {@link #MIN_DEMAND_WEIGHT}, so it still gets screenings.
+     */
+    public Map<Integer, Double> getDemandWeights(int pastDays) throws SQLException {
+        if (pastDays <= 0) {
+            throw new IllegalArgumentException("Số ngày phải lớn hơn 0");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Double> fillRates = occupancyDAO.getFillRatesByMovie(now.minusDays(pastDays), now);
+        double average = fillRates.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        Map<Integer, Double> weights = new HashMap<>();
+        if (average <= 0) {
+            return weights; // Chưa bán được vé nào: mọi phim như nhau
+        }
+        fillRates.forEach((movieID, fillRate) -> weights.put(movieID,
+                Math.max(MIN_DEMAND_WEIGHT, ScheduleGenerator.DEFAULT_DEMAND_WEIGHT * fillRate / average)));
+        return weights;
+    }
+
+    /** Held seats per showtime, from the server's reply HOLDS:showtimeID>count|... */
+    private static Map<Integer, Integer> fetchHoldCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        String reply = SocketClient.requestOnce("localhost", 5000, SocketServer.HOLDS_COMMAND, SocketServer.HOLDS_COMMAND + ":");
+        if (reply == null) {
+            return counts;
+        }
+        for (String pair : reply.substring(SocketServer.HOLDS_COMMAND.length() + 1).split("\\|")) {
+            int gt = pair.indexOf('>');
+            if (gt > 0) {
+                try {
+                    counts.put(Integer.parseInt(pair.substring(0, gt)), Integer.parseInt(pair.substring(gt + 1)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Số ghế đang giữ không hợp lệ: " + pair);
+                }
+            }
+        }
+        return counts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.movie.dao;
+
+import com.movie.model.FillCurve;
+import com.movie.model.Occupancy;
+import com.movie.util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seat counts per showtime. Sold seats come from the Revenue rollup, which is never archived, so
+ * they stay correct for showtimes whose tickets have already been moved to the archive.
+ */
+public class OccupancyDAO {
+    // Số tham số mỗi câu IN (...), xa dưới giới hạn 2100 tham số của SQL Server
+    private static final int IN_CHUNK = 500;
+    // Dùng IX_Revenue_Showtime
+    private static final String SELECT_OCCUPANCY =
+            "SELECT s.ShowtimeID, r.Capacity, COALESCE(SUM(rv.TicketCount), 0) AS BookedSeats " +
+                    "FROM Showtime s " +
+                    "JOIN Room r ON s.RoomID = r.RoomID " +
+                    "LEFT JOIN Revenue rv ON rv.ShowtimeID = s.ShowtimeID " +
+                    "WHERE s.ShowtimeID IN (%s) " +
+                    "GROUP BY s.ShowtimeID, r.Capacity";
+    private static final String SELECT_CAPACITIES =
+            "SELECT s.ShowtimeID, r.Capacity " +
+                    "FROM Showtime s JOIN Room r ON s.RoomID = r.RoomID " +
+                    "WHERE s.ShowDate >= ? AND s.ShowDate < ? AND (? IS NULL OR s.MovieID = ?)";
+    // Số ghế bán / sức chứa theo phim, trên các suất bắt đầu trong khoảng; bảng tổng hợp không bị lưu trữ nên đủ cả tháng cũ
+    private static final String SELECT_FILL_BY_MOVIE =
+            "SELECT s.MovieID, SUM(r.Capacity) AS Capacity, COALESCE(SUM(sold.Tickets), 0) AS BookedSeats " +
+                    "FROM Showtime s " +
+                    "JOIN Room r ON s.RoomID = r.RoomID " +
+                    "LEFT JOIN (SELECT ShowtimeID, SUM(TicketCount) AS Tickets FROM Revenue GROUP BY ShowtimeID) sold " +
+                    "ON sold.ShowtimeID = s.ShowtimeID " +
+                    "WHERE s.ShowDate >= ? AND s.ShowDate < ? " +
+                    "GROUP BY s.MovieID";
+    // Vé bán sau giờ chiếu cho số âm, vé bán quá sớm vượt MAX_LEAD_HOURS: cả hai được dồn về hai đầu khi đọc
+    private static final String SELECT_LEAD_HOURS =
+            "SELECT DATEDIFF(MINUTE, bh.BookingDate, s.ShowDate) / 60 AS LeadHour, COUNT(*) AS Tickets " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "WHERE s.ShowDate >= ? AND s.ShowDate < ? AND (? IS NULL OR s.MovieID = ?) AND bh.BookingDate >= ? " +
+                    "GROUP BY DATEDIFF(MINUTE, bh.BookingDate, s.ShowDate) / 60";
+
+    /**
+     * Capacity and sold seats of the given showtimes; ids that do not exist are left out.
+     * @throws SQLException If a database error occurs.
+     */
+    public Map<Integer, Occupancy> getOccupancy(List<Integer> showtimeIDs) throws SQLException {
+        Map<Integer, Occupancy> result = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < showtimeIDs.size(); from += IN_CHUNK) {
+                List<Integer> chunk = showtimeIDs.subList(from, Math.min(showtimeIDs.size(), from + IN_CHUNK));
+                String sql = String.format(SELECT_OCCUPANCY, String.join(",", Collections.nCopies(chunk.size(), "?")));
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            int showtimeID = rs.getInt("ShowtimeID");
+                            result.put(showtimeID, new Occupancy(showtimeID, rs.getInt("Capacity"), rs.getInt("BookedSeats"), 0));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching occupancy: " + e.getMessage());
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Capacity of every showtime starting in [from, to), optionally only of one movie.
+     * @throws SQLException If a database error occurs.
+     */
+    public Map<Integer, Integer> getShowtimeCapacities(LocalDateTime from, LocalDateTime to, Integer movieID) throws SQLException {
+        Map<Integer, Integer> capacities = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_CAPACITIES)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            setMovie(stmt, 3, movieID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    capacities.put(rs.getInt("ShowtimeID"), rs.getInt("Capacity"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching showtime capacities: " + e.getMessage());
+            throw e;
+        }
+        return capacities;
+    }
+
+    /**
+     * Fill rate (sold seats / capacity) of each movie over its showtimes starting in [from, to);
+     * movies without such showtimes are left out.
+     * @throws SQLException If a database error occurs.
+     */
+    public Map<Integer, Double> getFillRatesByMovie(LocalDateTime from, LocalDateTime to) throws SQLException {
+        Map<Integer, Double> fillRates = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_FILL_BY_MOVIE)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long capacity = rs.getLong("Capacity");
+                    if (capacity > 0) {
+                        fillRates.put(rs.getInt("MovieID"), (double) rs.getLong("BookedSeats") / capacity);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching fill rates by movie: " + e.getMessage());
+            throw e;
+        }
+        return fillRates;
+    }
+
+    /**
+     * Adds to ticketsByLeadHour the tickets booked from bookedSince on for showtimes starting in
+     * [from, to), by whole hours between booking and show (see {@link FillCurve}).
+     * @throws SQLException If a database error occurs.
+     */
+    public void addLeadHours(LocalDateTime from, LocalDateTime to, Integer movieID, LocalDate bookedSince,
+                             long[] ticketsByLeadHour) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LEAD_HOURS)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            setMovie(stmt, 3, movieID);
+            stmt.setTimestamp(5, Timestamp.valueOf(bookedSince.atStartOfDay()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int hour = Math.max(0, Math.min(rs.getInt("LeadHour"), FillCurve.MAX_LEAD_HOURS));
+                    ticketsByLeadHour[hour] += rs.getLong("Tickets");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching booking lead times: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static void setMovie(PreparedStatement stmt, int index, Integer movieID) throws SQLException {
+        if (movieID == null) {
+            stmt.setNull(index, Types.INTEGER);
+            stmt.setNull(index + 1, Types.INTEGER);
+        } else {
+            stmt.setInt(index, movieID);
+            stmt.setInt(index + 1, movieID);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.movie.ui;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads poster thumbnails off the EDT. Images are decoded (subsampled while reading, so a
+ * full-size poster is never materialized) and scaled on a small background pool, then pushed
+ * into the target label on the EDT. Thumbnails are kept in an LRU bounded by pixel bytes,
+ * so memory stays flat however many movies the catalog has, and persisted in the
+ * {@link ThumbnailStore} so later client starts skip decoding entirely.
+ */
+public final class PosterService {
+    public static final String LOADING_TEXT = "Đang tải ảnh...";
+    public static final String NO_IMAGE_TEXT = "Không có ảnh";
+    public static final int CATALOG_WIDTH = 180;
+    public static final int CATALOG_HEIGHT = 130;
+    public static final int PREVIEW_WIDTH = 150;
+    public static final int PREVIEW_HEIGHT = 200;
+
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final String TARGET_KEY = "posterService.key";
+
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "poster-decoder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private static final LinkedHashMap<String, BufferedImage> thumbnails = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Map<String, CompletableFuture<BufferedImage>> pending = new ConcurrentHashMap<>();
+    private static long cachedBytes;
+
+    private PosterService() {
+    }
+
+    /**
+     * Shows the poster at path in the label, scaled to width x height. A cached thumbnail is
+     * set immediately; otherwise the label shows a placeholder until the background decode finishes.
+     * Must be called on the EDT. If the label is reused for another poster before the decode
+     * finishes, the stale result is dropped.
+     */
+    public static void load(String path, int width, int height, JLabel target) {
+        if (path == null || path.isEmpty()) {
+            target.putClientProperty(TARGET_KEY, null);
+            showMissing(target);
+            return;
+        }
+        File file = new File(path);
+        String key = cacheKey(file, width, height);
+        target.putClientProperty(TARGET_KEY, key);
+
+        BufferedImage cached = getCached(key);
+        if (cached != null) {
+            show(target, cached);
+            return;
+        }
+        target.setIcon(null);
+        target.setText(LOADING_TEXT);
+
+        pending.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> loadThumbnail(file, width, height), decoder))
+                .whenComplete((image, error) -> {
+                    pending.remove(key);
+                    if (image != null) {
+                        putCached(key, image);
+                    } else if (error != null) {
+                        System.err.println("Không thể tải poster " + path + ": " + error.getMessage());
+                    }
+                    SwingUtilities.invokeLater(() -> {
+                        if (!key.equals(target.getClientProperty(TARGET_KEY))) {
+                            return;
+                        }
+                        if (image != null) {
+                            show(target, image);
+                        } else {
+                            showMissing(target);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Pre-scales a newly uploaded poster into the on-disk store for every size the screens use,
+     * so customers never decode it. Runs in the background.
+     */
+    public static void prefetch(String path) {
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        File file = new File(path);
+        decoder.execute(() -> {
+            try {
+                loadThumbnail(file, CATALOG_WIDTH, CATALOG_HEIGHT);
+                loadThumbnail(file, PREVIEW_WIDTH, PREVIEW_HEIGHT);
+            } catch (RuntimeException e) {
+                System.err.println("Không thể tạo thumbnail cho " + path + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static BufferedImage loadThumbnail(File file, int width, int height) {
+        BufferedImage stored = ThumbnailStore.read(file, width, height);
+        if (stored != null) {
+            return stored;
+        }
+        BufferedImage image = decode(file, width, height);
+        if (image != null) {
+            ThumbnailStore.write(file, image);
+        }
+        return image;
+    }
+
+    private static String cacheKey(File file, int width, int height) {
+        // lastModified trong khóa để ảnh bị ghi đè cùng tên không dùng lại thumbnail cũ
+        return file.getAbsolutePath() + '|' + file.lastModified() + '|' + width + 'x' + height;
+    }
+
+    private static void show(JLabel target, BufferedImage image) {
+        target.setText("");
+        target.setIcon(new ImageIcon(image));
+    }
+
+    private static void showMissing(JLabel target) {
+        target.setIcon(null);
+        target.setText(NO_IMAGE_TEXT);
+    }
+
+    private static synchronized BufferedImage getCached(String key) {
+        return thumbnails.get(key);
+    }
+
+    private static synchronized void putCached(String key, BufferedImage image) {
+        BufferedImage previous = thumbnails.put(key, image);
+        if (previous != null) {
+            cachedBytes -= sizeOf(previous);
+        }
+        cachedBytes += sizeOf(image);
+        Iterator<BufferedImage> it = thumbnails.values().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+            BufferedImage eldest = it.next();
+            if (eldest == image) {
+                break;
+            }
+            cachedBytes -= sizeOf(eldest);
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /** Decodes the file subsampled close to the target size and scales it; null if it is not a readable image. */
+    static BufferedImage decode(File file, int width, int height) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Đọc bỏ bớt điểm ảnh nhưng vẫn giữ gấp đôi kích thước đích để thu nhỏ lần cuối cho mịn
+                int subsampling = Math.max(1, Math.min(sourceWidth / (2 * width), sourceHeight / (2 * height)));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return scale(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.movie.network;
+
+import com.movie.util.LatencyRecorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the realtime socket layer. Hot-path updates are LongAdder increments;
+ * per-second rates are derived when a STATS snapshot is taken.
+ */
+public class RealtimeStats {
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LatencyRecorder fanoutLatency = new LatencyRecorder();
+
+    private long lastSampleNanos = System.nanoTime();
+    private long lastIn;
+    private long lastOut;
+    private double inPerSecond;
+    private double outPerSecond;
+
+    public void messageReceived() {
+        messagesIn.increment();
+    }
+
+    public void messageSent() {
+        messagesOut.increment();
+    }
+
+    public void recordFanout(long nanos) {
+        fanoutLatency.record(nanos);
+    }
+
+    public LatencyRecorder getFanoutLatency() {
+        return fanoutLatency;
+    }
+
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    public double getInPerSecond() {
+        sample();
+        return inPerSecond;
+    }
+
+    public double getOutPerSecond() {
+        sample();
+        return outPerSecond;
+    }
+
+    // Tính lại tốc độ tối đa mỗi giây một lần để nhiều admin cùng hỏi không làm lệch số liệu
+    private synchronized void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed < 1_000_000_000L) {
+            return;
+        }
+        long in = messagesIn.sum();
+        long out = messagesOut.sum();
+        inPerSecond = (in - lastIn) * 1e9 / elapsed;
+        outPerSecond = (out - lastOut) * 1e9 / elapsed;
+        lastIn = in;
+        lastOut = out;
+        lastSampleNanos = now;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.movie.bus;
+
+import com.movie.dao.RevenueDAO;
+import com.movie.model.DailyRevenueReport;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds revenue reports over long ranges (a quarter, a year) in parallel.
+ * <p>
+ * The range is cut into partitions of {@link #PARTITION_DAYS} days (-Dreport.partitionDays).
+ * A fork-join task splits the partition list in halves down to single partitions and merges the
+ * partial reports on the way back up. A partition reads its archived days from the
+ * {@link BookingArchive} and the rest with one grouped query. At most {@link #DB_CONCURRENCY}
+ * queries (-Dreport.dbConcurrency) run at once over all reports, so a long report cannot take
+ * every connection. A {@link ReportJob} reports progress per partition and can be cancelled;
+ * partitions not started yet are then skipped.
+ */
+public final class ReportExecutor {
+    static final int PARTITION_DAYS = Integer.getInteger("report.partitionDays", 7);
+    static final int DB_CONCURRENCY = Integer.getInteger("report.dbConcurrency", 4);
+    private static final ReportExecutor INSTANCE = new ReportExecutor();
+
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final BookingArchive bookingArchive = BookingArchive.getInstance();
+    // Luồng của ForkJoinPool là luồng nền; chờ truy vấn qua managedBlock nên pool có thể bù luồng
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private final Semaphore dbPermits = new Semaphore(DB_CONCURRENCY, true);
+
+    /** Told after each finished partition; called from a worker thread. */
+    public interface ProgressListener {
+        void onProgress(int donePartitions, int totalPartitions);
+    }
+
+    /** A running report: wait for it with {@link #get()}, stop it with {@link #cancel()}. */
+    public final class ReportJob {
+        private final List<LocalDate[]> partitions;
+        private final ProgressListener listener;
+        private final AtomicInteger done = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile PartitionTask task;
+
+        private ReportJob(List<LocalDate[]> partitions, ProgressListener listener) {
+            this.partitions = partitions;
+            this.listener = listener;
+        }
+
+        public int getPartitionCount() { return partitions.size(); }
+
+        public int getDonePartitions() { return done.get(); }
+
+        public boolean isCancelled() { return cancelled; }
+
+        /** Stops the report: partitions not started are skipped, {@link #get()} throws CancellationException. */
+        public void cancel() {
+            cancelled = true;
+            PartitionTask current = task;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        /**
+         * Waits for the report.
+         * @throws SQLException If a partition failed; the other partitions are abandoned.
+         * @throws CancellationException If the report was cancelled.
+         */
+        public DailyRevenueReport get() throws SQLException {
+            LocalDate hotSince = getHotSince();
+            DailyRevenueReport.Builder report = run(hotSince);
+            // Một tháng vừa được lưu trữ trong lúc chạy: các phần đọc từ cơ sở dữ liệu có thể đã thiếu dòng, chạy lại một lần
+            if (!hotSince.equals(getHotSince())) {
+                done.set(0);
+                report = run(getHotSince());
+            }
+            return report.build();
+        }
+
+        private DailyRevenueReport.Builder run(LocalDate hotSince) throws SQLException {
+            PartitionTask root = new PartitionTask(this, hotSince, 0, partitions.size());
+            task = root;
+            // Kiểm tra sau khi gán task: cancel() chạy trước đó không thấy task để hủy
+            if (cancelled) {
+                throw new CancellationException("Đã hủy báo cáo");
+            }
+            try {
+                return pool.submit(root).get();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new SQLException("Bị ngắt khi đang lập báo cáo", e);
+            } catch (ExecutionException e) {
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof SQLException) {
+                        throw new SQLException(cause.getMessage(), cause);
+                    }
+                    if (cause instanceof CancellationException) {
+                        throw (CancellationException) cause;
+                    }
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private void partitionDone() {
+            int count = done.incrementAndGet();
+            if (listener != null) {
+                listener.onProgress(count, partitions.size());
+            }
+        }
+    }
+
+    private ReportExecutor() {
+    }
+
+    public static ReportExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts a report over the bookings made in [from, to); the result is a report of the whole
+     * range by movie, room, showtime and hour of sale.
+     * @param listener Progress callback, may be null.
+     */
+    public ReportJob submit(LocalDate from, LocalDate to, ProgressListener listener) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Khoảng thời gian không được để trống");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        if (from.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Không thể thống kê ngày trong tương lai: " + from);
+        }
+        List<LocalDate[]> partitions = new ArrayList<>();
+        for (LocalDate start = from; start.isBefore(to); start = start.plusDays(PARTITION_DAYS)) {
+            LocalDate end = start.plusDays(PARTITION_DAYS);
+            partitions.add(new LocalDate[]{start, end.isAfter(to) ? to : end});
+        }
+        return new ReportJob(partitions, listener);
+    }
+
+    private LocalDate getHotSince() throws SQLException {
+        try {
+            return bookingArchive.getHotSince();
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+    }
+
+    /** Builds the partitions [lo, hi) of a job: one directly, several by splitting in half. */
+    private final class PartitionTask extends RecursiveTask<DailyRevenueReport.Builder> {
+        private static final long serialVersionUID = 1L;
+
+        private final ReportJob job;
+        private final LocalDate hotSince;
+        private final int lo;
+        private final int hi;
+
+        PartitionTask(ReportJob job, LocalDate hotSince, int lo, int hi) {
+            this.job = job;
+            this.hotSince = hotSince;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected DailyRevenueReport.Builder compute() {
+            if (job.cancelled) {
+                throw new CancellationException("Đã hủy báo cáo");
+            }
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                PartitionTask right = new PartitionTask(job, hotSince, mid, hi);
+                right.fork();
+                DailyRevenueReport.Builder left = new PartitionTask(job, hotSince, lo, mid).compute();
+                return left.merge(right.join());
+            }
+            LocalDate[] partition = job.partitions.get(lo);
+            DailyRevenueReport.Builder report = new DailyRevenueReport.Builder(partition[0], partition[1]);
+            try {
+                LocalDate split = partition[0].isBefore(hotSince)
+                        ? (partition[1].isBefore(hotSince) ? partition[1] : hotSince) : partition[0];
+                if (partition[0].isBefore(split)) {
+                    bookingArchive.addToReport(partition[0], split, report);
+                }
+                if (split.isBefore(partition[1])) {
+                    queryWithPermit(split, partition[1], report);
+                }
+            } catch (IOException e) {
+                throw new CompletionException(new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e));
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            job.partitionDone();
+            return report;
+        }
+
+        private void queryWithPermit(LocalDate from, LocalDate to, DailyRevenueReport.Builder report) throws SQLException {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    private boolean acquired;
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        if (!acquired) {
+                            dbPermits.acquire();
+                            acquired = true;
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return acquired || (acquired = dbPermits.tryAcquire());
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Bị ngắt khi chờ kết nối cơ sở dữ liệu", e);
+            }
+            try {
+                // Có thể đã bị hủy trong lúc chờ lượt
+                if (job.cancelled) {
+                    throw new CancellationException("Đã hủy báo cáo");
+                }
+                revenueDAO.addRevenue(from, to, report);
+            } finally {
+                dbPermits.release();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,14 +1,86 @@
 package com.movie.bus;
 
 import com.movie.dao.RevenueDAO;
+import com.movie.model.DailyRevenueReport;
+import com.movie.model.RevenuePoint;
+import com.movie.model.TimeBucket;
+import com.movie.util.TtlCache;
 import javax.swing.JOptionPane;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Business logic class for handling revenue-related operations.
  */
 public class RevenueBUS {
+    // Giới hạn số điểm của một chuỗi để một lần gọi không trả về hàng chục nghìn điểm
+    private static final int MAX_SERIES_POINTS = 1000;
+    // Ngày đã qua không còn vé mới nên báo cáo không đổi; TTL chỉ để giải phóng bộ nhớ
+    private static final TtlCache<LocalDate, DailyRevenueReport> closedDays =
+            new TtlCache<>("dailyRevenue", 400, 24 * 60 * 60_000L);
+
     private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final BookingArchive bookingArchive = BookingArchive.getInstance();
+
+    /**
+     * Retrieves the revenue report of a day, from the booking archive if the day has been archived.
+     * Reports of past days are cached; today's report is always computed fresh since tickets are
+     * still being sold.
+     * @param date The day to report on; must not be in the future.
+     * @return The report, with totals by movie, room, showtime and hour.
+     * @throws SQLException If a database error occurs.
+     */
+    public DailyRevenueReport getDailyReport(LocalDate date) throws SQLException {
+        if (date == null) {
+            throw new IllegalArgumentException("Ngày không được để trống");
+        }
+        LocalDate today = LocalDate.now();
+        if (date.isAfter(today)) {
+            throw new IllegalArgumentException("Không thể thống kê ngày trong tương lai: " + date);
+        }
+        if (date.isEqual(today)) {
+            return revenueDAO.getDailyRevenue(date);
+        }
+        return closedDays.getOrLoad(date, this::loadClosedDay);
+    }
+
+    private DailyRevenueReport loadClosedDay(LocalDate date) throws SQLException {
+        try {
+            if (date.isBefore(bookingArchive.getHotSince())) {
+                return bookingArchive.getDailyReport(date);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+        return revenueDAO.getDailyRevenue(date);
+    }
+
+    /**
+     * Retrieves revenue over [from, to) bucketed by day, week or month, in one query.
+     * @param from First day (inclusive).
+     * @param to Last day (exclusive); must be after from.
+     * @param bucket Bucket size.
+     * @return One point per bucket, empty buckets included.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<RevenuePoint> getRevenueSeries(LocalDate from, LocalDate to, TimeBucket bucket) throws SQLException {
+        if (from == null || to == null || bucket == null) {
+            throw new IllegalArgumentException("Khoảng thời gian không được để trống");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        long points = bucket == TimeBucket.MONTH ? ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to) + 1
+                : bucket == TimeBucket.WEEK ? ChronoUnit.WEEKS.between(from, to) + 2
+                : ChronoUnit.DAYS.between(from, to);
+        if (points > MAX_SERIES_POINTS) {
+            throw new IllegalArgumentException("Khoảng thời gian quá dài, hãy chọn nhóm theo tuần hoặc tháng");
+        }
+        return revenueDAO.getRevenueSeries(from, to, bucket);
+    }
 
     /**
      * Retrieves the total revenue from all bookings.
@@ -0,0 +1,593 @@
+package com.movie.bus;
+
+import com.movie.dao.DictionaryDAO;
+import com.movie.dao.RevenueDAO;
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.CubeDimension;
+import com.movie.model.CubeRow;
+import com.movie.model.Movie;
+import com.movie.model.Showtime;
+import com.movie.util.LookupTable;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory cube of tickets and revenue by movie, room, genre, country, day and hour of sale.
+ * <p>
+ * Facts are stored column by column: every dimension is dictionary-encoded into an {@code int[]}
+ * and the measures are {@code long[]} (revenue in hundredths of a VND), so a query is a single
+ * pass over primitive arrays. Rows are kept in day order, which turns the date range into a
+ * binary search. Groups are accumulated in a dense array indexed by the mixed-radix group key
+ * when it is small enough, otherwise in a hash map.
+ * <p>
+ * The cube is built from the {@link BookingArchive} and BookingHistory on the first query. Before
+ * each query it catches up with the bookings committed since by any process, by reading
+ * BookingHistory again from the cube's cutoff; loading and catching up happen on one background
+ * thread and never block a booking. Movie and room names are those at build time.
+ */
+public final class RevenueCube {
+    // Vé đặt trong khoảng này trước lúc quét có thể chưa commit: lần cập nhật sau đọc lại khoảng này
+    static final long BUILD_OVERLAP_SECONDS = 60;
+    // Nhóm theo mảng đặc khi số tổ hợp khóa không quá mức này (2 mảng long, khoảng 64 MB)
+    static final long DENSE_GROUP_LIMIT = 1L << 22;
+    private static final String UNKNOWN = "Không rõ";
+    private static final RevenueCube INSTANCE = new RevenueCube();
+
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieBUS movieBUS = new MovieBUS();
+    private final DictionaryDAO dictionaryDAO = new DictionaryDAO();
+    private final BookingArchive bookingArchive = BookingArchive.getInstance();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "revenue-cube");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Columns columns;
+
+    private RevenueCube() {
+    }
+
+    public static RevenueCube getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tickets and revenue grouped by the given dimensions, over bookings made in [from, to).
+     * @param groupBy Dimensions to group by, in output order; empty for a grand total.
+     * @param filters Allowed labels per dimension (see {@link CubeDimension}); absent means no filter.
+     * @param from First day (inclusive), or null for no lower bound.
+     * @param to Last day (exclusive), or null for no upper bound.
+     * @return One row per non-empty group, highest revenue first.
+     * @throws SQLException If building the cube or catching it up failed.
+     */
+    public List<CubeRow> query(List<CubeDimension> groupBy, Map<CubeDimension, Set<String>> filters,
+                               LocalDate from, LocalDate to) throws SQLException {
+        if (groupBy == null || filters == null) {
+            throw new IllegalArgumentException("Thiếu chiều phân tích");
+        }
+        if (groupBy.size() != groupBy.stream().distinct().count()) {
+            throw new IllegalArgumentException("Mỗi chiều chỉ được chọn một lần");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        Columns current = awaitCurrent();
+        return current.query(groupBy, filters,
+                from == null ? Integer.MIN_VALUE : (int) from.toEpochDay(),
+                to == null ? Integer.MAX_VALUE : (int) to.toEpochDay());
+    }
+
+    private Columns awaitCurrent() throws SQLException {
+        try {
+            return worker.submit(() -> {
+                if (columns == null) {
+                    columns = build();
+                }
+                try {
+                    catchUp(columns);
+                } catch (SQLException e) {
+                    // Có thể đã cộng một phần: bỏ khối để lần truy vấn sau dựng lại từ cơ sở dữ liệu
+                    columns = null;
+                    throw e;
+                }
+                return columns;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi đang dựng khối phân tích", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Columns build() throws SQLException {
+        Columns built = new Columns(LocalDateTime.now().minusSeconds(BUILD_OVERLAP_SECONDS));
+        LookupTable genres = dictionaryDAO.getGenres();
+        LookupTable countries = dictionaryDAO.getCountries();
+        LocalDateTime hotSince;
+        try {
+            hotSince = bookingArchive.getHotSince().atStartOfDay();
+            loadArchive(built, hotSince, genres, countries);
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+        revenueDAO.scanBookingFacts(hotSince, built.cutoff, (showtimeID, movieTitle, roomName, genreID, countryID, day, hour, tickets, revenueCents) -> {
+            int[] codes = built.showtimeCodes.get(showtimeID);
+            if (codes == null) {
+                codes = built.encode(movieTitle, roomName, genres.getName(genreID), countries.getName(countryID));
+                built.showtimeCodes.put(showtimeID, codes);
+            }
+            built.add(codes, (int) day.toEpochDay(), hour, tickets, revenueCents);
+        });
+        return built;
+    }
+
+    /** Adds the bookings committed since the last call, by this or any other process. */
+    private void catchUp(Columns target) throws SQLException {
+        LocalDateTime nextCutoff = LocalDateTime.now().minusSeconds(BUILD_OVERLAP_SECONDS);
+        // Gộp theo (giờ bán, suất chiếu) như lần quét lúc dựng khối
+        NavigableMap<LocalDateTime, Map<Integer, long[]>> hours = new TreeMap<>();
+        revenueDAO.scanRecentBookings(target.cutoff, (historyID, customerID, showtimeID, movieTitle, bookedAt, priceCents) -> {
+            if (target.applied.putIfAbsent(historyID, bookedAt) == null) {
+                long[] totals = hours.computeIfAbsent(bookedAt.truncatedTo(ChronoUnit.HOURS), k -> new HashMap<>())
+                        .computeIfAbsent(showtimeID, k -> new long[2]);
+                totals[0]++;
+                totals[1] += priceCents;
+            }
+        });
+        for (Map.Entry<LocalDateTime, Map<Integer, long[]>> hour : hours.entrySet()) {
+            for (Map.Entry<Integer, long[]> showtime : hour.getValue().entrySet()) {
+                target.add(codesOf(target, showtime.getKey()), (int) hour.getKey().toLocalDate().toEpochDay(),
+                        hour.getKey().getHour(), showtime.getValue()[0], showtime.getValue()[1]);
+            }
+        }
+        // Vé đặt trước mốc mới sẽ không được đọc lại nữa
+        target.cutoff = nextCutoff;
+        target.applied.values().removeIf(bookedAt -> bookedAt.isBefore(nextCutoff));
+    }
+
+    /** Adds the archived months, summed per showtime and hour as the database scan does. */
+    private void loadArchive(Columns built, LocalDateTime before, LookupTable genres, LookupTable countries)
+            throws SQLException, IOException {
+        if (!before.isAfter(LocalDate.EPOCH.atStartOfDay())) {
+            return;
+        }
+        // Tên phim/phòng hiện tại như truy vấn trên cơ sở dữ liệu; suất đã xóa thì dùng tên lúc đặt vé
+        Map<Integer, Showtime> showtimes = new HashMap<>();
+        for (Showtime showtime : showtimeDAO.getAllShowtimes()) {
+            showtimes.put(showtime.getShowtimeID(), showtime);
+        }
+        Map<Integer, Movie> movies = new HashMap<>();
+        for (Movie movie : movieBUS.getAllMovies()) {
+            movies.put(movie.getMovieID(), movie);
+        }
+        // Vé trong kho theo thứ tự thời gian: cộng dồn từng giờ rồi ghi một dòng cho mỗi suất
+        Map<Integer, long[]> hourTotals = new HashMap<>();
+        LocalDateTime[] currentHour = new LocalDateTime[1];
+        Runnable flush = () -> {
+            hourTotals.forEach((showtimeID, totals) -> built.add(built.showtimeCodes.get(showtimeID),
+                    (int) currentHour[0].toLocalDate().toEpochDay(), currentHour[0].getHour(), totals[0], totals[1]));
+            hourTotals.clear();
+        };
+        bookingArchive.scanBookings(LocalDate.EPOCH.atStartOfDay(), before, (showtimeID, movieTitle, roomName, bookedAt, priceCents) -> {
+            LocalDateTime hour = bookedAt.truncatedTo(ChronoUnit.HOURS);
+            if (!hour.equals(currentHour[0])) {
+                flush.run();
+                currentHour[0] = hour;
+            }
+            if (!built.showtimeCodes.containsKey(showtimeID)) {
+                Showtime showtime = showtimes.get(showtimeID);
+                Movie movie = showtime == null ? null : movies.get(showtime.getMovieID());
+                built.showtimeCodes.put(showtimeID, built.encode(
+                        showtime == null ? movieTitle : showtime.getMovieTitle(),
+                        showtime == null ? roomName : showtime.getRoomName(),
+                        movie == null ? null : genres.getName(movie.getGenreID()),
+                        movie == null ? null : countries.getName(movie.getCountryID())));
+            }
+            long[] totals = hourTotals.computeIfAbsent(showtimeID, k -> new long[2]);
+            totals[0]++;
+            totals[1] += priceCents;
+        });
+        flush.run();
+    }
+
+    private int[] codesOf(Columns target, int showtimeID) throws SQLException {
+        int[] codes = target.showtimeCodes.get(showtimeID);
+        if (codes == null) {
+            Showtime showtime = showtimeDAO.getShowtimeById(showtimeID);
+            Movie movie = showtime == null ? null : movieBUS.getMovieById(showtime.getMovieID());
+            codes = target.encode(showtime == null ? null : showtime.getMovieTitle(),
+                    showtime == null ? null : showtime.getRoomName(),
+                    movie == null ? null : dictionaryDAO.getGenreName(movie.getGenreID()),
+                    movie == null ? null : dictionaryDAO.getCountryName(movie.getCountryID()));
+            target.showtimeCodes.put(showtimeID, codes);
+        }
+        return codes;
+    }
+
+    /**
+     * The fact table. Written only by the cube's worker thread under the write lock; queries
+     * run concurrently under the read lock.
+     */
+    static final class Columns {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int DIMENSIONS = CubeDimension.values().length;
+
+        // Vé đặt trước mốc này đã có trong khối; chỉ worker đọc/ghi cutoff và applied
+        LocalDateTime cutoff;
+        // Vé từ cutoff trở đi đã cộng vào khối: HistoryID -> lúc đặt
+        final Map<Long, LocalDateTime> applied = new HashMap<>();
+        // ShowtimeID -> mã phim, phòng, thể loại, quốc gia
+        final Map<Integer, int[]> showtimeCodes = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Dictionary[] dictionaries = new Dictionary[DIMENSIONS];
+        private int[][] codes = new int[DIMENSIONS][INITIAL_CAPACITY];
+        private long[] tickets = new long[INITIAL_CAPACITY];
+        private long[] revenueCents = new long[INITIAL_CAPACITY];
+        private int size;
+        private boolean daySorted = true;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        Columns(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+            dictionaries[CubeDimension.MOVIE.ordinal()] = new Dictionary();
+            dictionaries[CubeDimension.ROOM.ordinal()] = new Dictionary();
+            dictionaries[CubeDimension.GENRE.ordinal()] = new Dictionary();
+            dictionaries[CubeDimension.COUNTRY.ordinal()] = new Dictionary();
+        }
+
+        /** Codes of a showtime's movie, room, genre and country; null names count as unknown. */
+        int[] encode(String movie, String room, String genre, String country) {
+            lock.writeLock().lock();
+            try {
+                return new int[] {
+                        dictionaries[CubeDimension.MOVIE.ordinal()].encode(movie),
+                        dictionaries[CubeDimension.ROOM.ordinal()].encode(room),
+                        dictionaries[CubeDimension.GENRE.ordinal()].encode(genre),
+                        dictionaries[CubeDimension.COUNTRY.ordinal()].encode(country)
+                };
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void add(int[] showtimeCodes, int epochDay, int hour, long ticketCount, long cents) {
+            lock.writeLock().lock();
+            try {
+                if (size == tickets.length) {
+                    int capacity = size * 2;
+                    for (int d = 0; d < DIMENSIONS; d++) {
+                        codes[d] = Arrays.copyOf(codes[d], capacity);
+                    }
+                    tickets = Arrays.copyOf(tickets, capacity);
+                    revenueCents = Arrays.copyOf(revenueCents, capacity);
+                }
+                codes[CubeDimension.MOVIE.ordinal()][size] = showtimeCodes[0];
+                codes[CubeDimension.ROOM.ordinal()][size] = showtimeCodes[1];
+                codes[CubeDimension.GENRE.ordinal()][size] = showtimeCodes[2];
+                codes[CubeDimension.COUNTRY.ordinal()][size] = showtimeCodes[3];
+                codes[CubeDimension.DAY.ordinal()][size] = epochDay;
+                codes[CubeDimension.HOUR.ordinal()][size] = hour;
+                tickets[size] = ticketCount;
+                revenueCents[size] = cents;
+                // Hai vé quanh nửa đêm có thể đến lệch thứ tự: khi đó lọc theo ngày bằng cách quét hết
+                daySorted &= epochDay >= maxDay;
+                minDay = Math.min(minDay, epochDay);
+                maxDay = Math.max(maxDay, epochDay);
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<CubeRow> query(List<CubeDimension> groupBy, Map<CubeDimension, Set<String>> filters, int fromDay, int toDay) {
+            lock.readLock().lock();
+            try {
+                int lo = Math.max(fromDay, minDay);
+                int hi = toDay == Integer.MAX_VALUE ? maxDay + 1 : Math.min(toDay, maxDay + 1);
+                if (size == 0 || lo >= hi) {
+                    return Collections.emptyList();
+                }
+                // Mã của mỗi chiều được dời về 0..radix-1; ngày dời theo ngày đầu của khoảng
+                int[] offsets = new int[DIMENSIONS];
+                int[] radixes = new int[DIMENSIONS];
+                for (CubeDimension dimension : CubeDimension.values()) {
+                    int d = dimension.ordinal();
+                    if (dimension == CubeDimension.DAY) {
+                        offsets[d] = lo;
+                        radixes[d] = hi - lo;
+                    } else {
+                        radixes[d] = dimension == CubeDimension.HOUR ? 24 : dictionaries[d].size();
+                    }
+                }
+
+                int filterCount = filters.size();
+                int[][] filterColumns = new int[filterCount][];
+                BitSet[] allowed = new BitSet[filterCount];
+                int[] filterOffsets = new int[filterCount];
+                int f = 0;
+                for (Map.Entry<CubeDimension, Set<String>> filter : filters.entrySet()) {
+                    int d = filter.getKey().ordinal();
+                    BitSet bits = new BitSet(radixes[d]);
+                    for (String label : filter.getValue()) {
+                        int code = decodeLabel(filter.getKey(), label) - offsets[d];
+                        if (code >= 0 && code < radixes[d]) {
+                            bits.set(code);
+                        }
+                    }
+                    if (bits.isEmpty()) {
+                        return Collections.emptyList();
+                    }
+                    filterColumns[f] = codes[d];
+                    allowed[f] = bits;
+                    filterOffsets[f] = offsets[d];
+                    f++;
+                }
+
+                int groupCount = groupBy.size();
+                int[][] groupColumns = new int[groupCount][];
+                int[] groupOffsets = new int[groupCount];
+                long[] strides = new long[groupCount];
+                long combinations = 1;
+                for (int g = groupCount - 1; g >= 0; g--) {
+                    int d = groupBy.get(g).ordinal();
+                    groupColumns[g] = codes[d];
+                    groupOffsets[g] = offsets[d];
+                    strides[g] = combinations;
+                    combinations = multiplyCapped(combinations, radixes[d]);
+                }
+
+                int[] days = codes[CubeDimension.DAY.ordinal()];
+                boolean checkDay = !daySorted;
+                int first = checkDay ? 0 : lowerBound(days, size, lo);
+                int last = checkDay ? size : lowerBound(days, size, hi);
+
+                Groups groups = combinations <= DENSE_GROUP_LIMIT
+                        ? new DenseGroups((int) combinations) : new SparseGroups();
+                rows:
+                for (int r = first; r < last; r++) {
+                    if (checkDay && (days[r] < lo || days[r] >= hi)) {
+                        continue;
+                    }
+                    for (int k = 0; k < filterCount; k++) {
+                        if (!allowed[k].get(filterColumns[k][r] - filterOffsets[k])) {
+                            continue rows;
+                        }
+                    }
+                    long key = 0;
+                    for (int g = 0; g < groupCount; g++) {
+                        key += (groupColumns[g][r] - groupOffsets[g]) * strides[g];
+                    }
+                    groups.add(key, tickets[r], revenueCents[r]);
+                }
+
+                List<CubeRow> result = new ArrayList<>();
+                String[][] labelCache = new String[groupCount][];
+                for (int g = 0; g < groupCount; g++) {
+                    labelCache[g] = new String[radixes[groupBy.get(g).ordinal()]];
+                }
+                groups.forEach((key, ticketCount, cents) -> {
+                    String[] labels = new String[groupCount];
+                    for (int g = 0; g < groupCount; g++) {
+                        int code = (int) (key / strides[g] % labelCache[g].length);
+                        if (labelCache[g][code] == null) {
+                            labelCache[g][code] = label(groupBy.get(g), code + groupOffsets[g]);
+                        }
+                        labels[g] = labelCache[g][code];
+                    }
+                    result.add(new CubeRow(labels, ticketCount, cents));
+                });
+                result.sort(Comparator.comparingDouble(CubeRow::getRevenue).reversed());
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int decodeLabel(CubeDimension dimension, String label) {
+            switch (dimension) {
+                case DAY:
+                    return (int) LocalDate.parse(label).toEpochDay();
+                case HOUR:
+                    return Integer.parseInt(label);
+                default:
+                    return dictionaries[dimension.ordinal()].codeOf(label);
+            }
+        }
+
+        private String label(CubeDimension dimension, int code) {
+            switch (dimension) {
+                case DAY:
+                    return LocalDate.ofEpochDay(code).toString();
+                case HOUR:
+                    return String.format("%02d", code);
+                default:
+                    return dictionaries[dimension.ordinal()].labelOf(code);
+            }
+        }
+
+        private static int lowerBound(int[] values, int length, int key) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long multiplyCapped(long a, int b) {
+            return a > Long.MAX_VALUE / Math.max(b, 1) ? Long.MAX_VALUE : a * Math.max(b, 1);
+        }
+    }
+
+    /** Label <-> code for one dimension; codes are assigned in order of first appearance. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+
+        int encode(String label) {
+            String key = label == null ? UNKNOWN : label;
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = labels.size();
+                codes.put(key, code);
+                labels.add(key);
+            }
+            return code;
+        }
+
+        int codeOf(String label) {
+            return codes.getOrDefault(label, -1);
+        }
+
+        String labelOf(int code) {
+            return labels.get(code);
+        }
+
+        int size() {
+            return labels.size();
+        }
+    }
+
+    private interface GroupVisitor {
+        void visit(long key, long tickets, long revenueCents);
+    }
+
+    private interface Groups {
+        void add(long key, long tickets, long revenueCents);
+
+        void forEach(GroupVisitor visitor);
+    }
+
+    private static final class DenseGroups implements Groups {
+        private final long[] tickets;
+        private final long[] revenueCents;
+
+        DenseGroups(int combinations) {
+            tickets = new long[combinations];
+            revenueCents = new long[combinations];
+        }
+
+        @Override
+        public void add(long key, long ticketCount, long cents) {
+            tickets[(int) key] += ticketCount;
+            revenueCents[(int) key] += cents;
+        }
+
+        @Override
+        public void forEach(GroupVisitor visitor) {
+            for (int key = 0; key < tickets.length; key++) {
+                if (tickets[key] != 0 || revenueCents[key] != 0) {
+                    visitor.visit(key, tickets[key], revenueCents[key]);
+                }
+            }
+        }
+    }
+
+    /** Open-addressing hash table on the group key, so sparse groupings do not box every row. */
+    private static final class SparseGroups implements Groups {
+        private static final long EMPTY = -1;
+
+        private long[] keys = emptyKeys(1 << 12);
+        private long[] tickets = new long[keys.length];
+        private long[] revenueCents = new long[keys.length];
+        private int count;
+
+        @Override
+        public void add(long key, long ticketCount, long cents) {
+            int slot = slot(keys, key);
+            if (keys[slot] == EMPTY) {
+                if (2 * (count + 1) > keys.length) {
+                    grow();
+                    slot = slot(keys, key);
+                }
+                keys[slot] = key;
+                count++;
+            }
+            tickets[slot] += ticketCount;
+            revenueCents[slot] += cents;
+        }
+
+        @Override
+        public void forEach(GroupVisitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    visitor.visit(keys[slot], tickets[slot], revenueCents[slot]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldTickets = tickets;
+            long[] oldRevenue = revenueCents;
+            keys = emptyKeys(oldKeys.length * 2);
+            tickets = new long[keys.length];
+            revenueCents = new long[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    tickets[slot] = oldTickets[i];
+                    revenueCents[slot] = oldRevenue[i];
+                }
+            }
+        }
+
+        // Khóa nhóm không âm nên -1 đánh dấu ô trống; trộn bit để các khóa liên tiếp không dồn cụm
+        private static int slot(long[] table, long key) {
+            int mask = table.length - 1;
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (table[slot] != EMPTY && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long[] emptyKeys(int size) {
+            long[] table = new long[size];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+    }
+}
\ No newline at end of file
@@ -1,23 +1,127 @@
 package com.movie.dao;
 
+import com.movie.model.DailyRevenueReport;
+import com.movie.model.RevenuePoint;
+import com.movie.model.TimeBucket;
 import com.movie.util.DBConnection;
 import javax.swing.JOptionPane;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Data Access Object for retrieving revenue-related data from the database.
  */
 public class RevenueDAO {
+    // Mọi truy vấn theo thời gian lọc BookingDate theo khoảng [từ, đến) để dùng được IX_BookingHistory_BookingDate
     private static final String GET_REVENUE_BY_DATE_AND_MOVIE =
-            "SELECT MovieTitle, SUM(Price) as TotalRevenue " +
-                    "FROM BookingHistory WHERE CAST(BookingDate AS DATE) = ? GROUP BY MovieTitle";
+            "SELECT SUM(Price) as TotalRevenue " +
+                    "FROM BookingHistory WHERE BookingDate >= ? AND BookingDate < ? AND MovieTitle = ?";
+    // Bảng Revenue là bảng tổng hợp theo (ngày, suất chiếu), cập nhật trong giao dịch đặt vé
     private static final String GET_TOTAL_REVENUE =
-            "SELECT SUM(Price) as TotalRevenue FROM BookingHistory";
+            "SELECT SUM(TotalRevenue) as TotalRevenue FROM Revenue";
+    private static final String GET_TOTAL_REVENUE_BY_DATE =
+            "SELECT SUM(TotalRevenue) as TotalRevenue FROM Revenue WHERE RevenueDate = ?";
+    // Đọc từ bảng tổng hợp vì các tháng cũ đã được chuyển khỏi BookingHistory vào kho lưu trữ
+    private static final String GET_REVENUE_BY_DAY =
+            "SELECT RevenueDate AS BookingDay, SUM(TicketCount) AS Tickets, SUM(TotalRevenue) AS TotalRevenue " +
+                    "FROM Revenue WHERE RevenueDate >= ? AND RevenueDate < ? " +
+                    "GROUP BY RevenueDate";
+    // UPDLOCK + SERIALIZABLE giữ khóa khoảng khóa khi chưa có dòng, nên hai giao dịch không cùng INSERT một (ngày, suất)
+    private static final String UPDATE_ROLLUP =
+            "UPDATE Revenue WITH (UPDLOCK, SERIALIZABLE) SET TotalRevenue = TotalRevenue + ?, TicketCount = TicketCount + ? " +
+                    "WHERE RevenueDate = ? AND ShowtimeID = ?";
+    private static final String INSERT_ROLLUP =
+            "INSERT INTO Revenue (ShowtimeID, TotalRevenue, RevenueDate, TicketCount) VALUES (?, ?, ?, ?)";
+    // HOLDLOCK giữ khóa khoảng tới hết giao dịch: không tháng nào được ghi vào ArchiveState (và bị xóa khỏi
+    // BookingHistory) trong lúc dựng lại
+    private static final String GET_ARCHIVED_UNTIL =
+            "SELECT MAX(ArchivedMonth) AS LastMonth FROM ArchiveState WITH (HOLDLOCK)";
+    private static final String DELETE_ROLLUP_RANGE =
+            "DELETE FROM Revenue WHERE RevenueDate >= ? AND RevenueDate < ?";
+    private static final String REBUILD_ROLLUP_RANGE =
+            "INSERT INTO Revenue (ShowtimeID, TotalRevenue, RevenueDate, TicketCount) " +
+                    "SELECT t.ShowtimeID, SUM(bh.Price), CAST(bh.BookingDate AS DATE), COUNT(*) " +
+                    "FROM BookingHistory bh JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "GROUP BY t.ShowtimeID, CAST(bh.BookingDate AS DATE)";
+    // So từng ngày giữa bảng tổng hợp và dữ liệu gốc; FULL JOIN để bắt cả ngày chỉ có ở một bên
+    private static final String VERIFY_ROLLUP_RANGE =
+            "SELECT COALESCE(src.RevenueDate, r.RevenueDate) AS RevenueDate " +
+                    "FROM (SELECT CAST(bh.BookingDate AS DATE) AS RevenueDate, SUM(bh.Price) AS TotalRevenue, COUNT(*) AS Tickets " +
+                    "      FROM BookingHistory bh WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "      GROUP BY CAST(bh.BookingDate AS DATE)) src " +
+                    "FULL JOIN (SELECT RevenueDate, SUM(TotalRevenue) AS TotalRevenue, SUM(TicketCount) AS Tickets " +
+                    "      FROM Revenue WHERE RevenueDate >= ? AND RevenueDate < ? GROUP BY RevenueDate) r " +
+                    "ON src.RevenueDate = r.RevenueDate " +
+                    "WHERE src.RevenueDate IS NULL OR r.RevenueDate IS NULL " +
+                    "OR src.TotalRevenue <> r.TotalRevenue OR src.Tickets <> r.Tickets " +
+                    "ORDER BY 1";
+    private static final String GET_BOOKING_DATE_RANGE =
+            "SELECT MIN(BookingDate) AS FirstBooking, MAX(BookingDate) AS LastBooking FROM BookingHistory";
+    // Một truy vấn cho cả báo cáo ngày, mỗi dòng là (suất chiếu, giờ bán)
+    private static final String GET_REVENUE_BREAKDOWN =
+            "SELECT t.ShowtimeID, bh.MovieTitle, bh.RoomName, s.ShowDate, DATEPART(HOUR, bh.BookingDate) AS SaleHour, " +
+                    "COUNT(*) AS Tickets, SUM(bh.Price) AS TotalRevenue " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "LEFT JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "GROUP BY t.ShowtimeID, bh.MovieTitle, bh.RoomName, s.ShowDate, DATEPART(HOUR, bh.BookingDate)";
+
+    // Dữ liệu gốc cho khối phân tích: gộp sẵn theo (suất chiếu, ngày, giờ bán), tên hiện tại của phim/phòng, theo thứ tự ngày
+    private static final String SCAN_BOOKING_FACTS =
+            "SELECT t.ShowtimeID, m.Title, r.RoomName, m.GenreID, m.CountryID, " +
+                    "CAST(bh.BookingDate AS DATE) AS BookingDay, DATEPART(HOUR, bh.BookingDate) AS SaleHour, " +
+                    "COUNT(*) AS Tickets, SUM(bh.Price) AS TotalRevenue " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "LEFT JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+                    "LEFT JOIN Room r ON s.RoomID = r.RoomID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "GROUP BY t.ShowtimeID, m.Title, r.RoomName, m.GenreID, m.CountryID, " +
+                    "CAST(bh.BookingDate AS DATE), DATEPART(HOUR, bh.BookingDate) " +
+                    "ORDER BY BookingDay";
+
+    // Dữ liệu gốc cho các bản phác thảo khách hàng: gộp theo (khách, suất chiếu, ngày), tên hiện tại của phim/phòng
+    private static final String SCAN_CUSTOMER_FACTS =
+            "SELECT bh.CustomerID, t.ShowtimeID, m.Title, r.RoomName, m.GenreID, m.CountryID, " +
+                    "CAST(bh.BookingDate AS DATE) AS BookingDay, COUNT(*) AS Tickets " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "LEFT JOIN Showtime s ON t.ShowtimeID = s.ShowtimeID " +
+                    "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+                    "LEFT JOIN Room r ON s.RoomID = r.RoomID " +
+                    "WHERE bh.BookingDate >= ? AND bh.BookingDate < ? " +
+                    "GROUP BY bh.CustomerID, t.ShowtimeID, m.Title, r.RoomName, m.GenreID, m.CountryID, " +
+                    "CAST(bh.BookingDate AS DATE)";
+
+    // Từng vé kể từ một mốc, để bộ nhớ của mỗi tiến trình theo kịp vé do các tiến trình khác bán
+    private static final String SCAN_RECENT_BOOKINGS =
+            "SELECT bh.HistoryID, bh.CustomerID, t.ShowtimeID, bh.MovieTitle, bh.BookingDate, bh.Price " +
+                    "FROM BookingHistory bh " +
+                    "JOIN Ticket t ON bh.TicketID = t.TicketID " +
+                    "WHERE bh.BookingDate >= ? " +
+                    "ORDER BY bh.BookingDate";
+
+    /** Receives the rows of {@link #scanBookingFacts}; revenue is in hundredths of a VND (Price has 2 decimals). */
+    public interface BookingFactConsumer {
+        void accept(int showtimeID, String movieTitle, String roomName, int genreID, int countryID,
+                    LocalDate day, int hour, long tickets, long revenueCents);
+    }
 
     /**
      * Retrieves the revenue for a specific movie on a given date.
@@ -40,14 +144,15 @@ public class RevenueDAO {
             throw new IllegalArgumentException("Định dạng ngày không hợp lệ: " + dateStr);
         }
 
+        LocalDate date = LocalDate.parse(dateStr);
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(GET_REVENUE_BY_DATE_AND_MOVIE)) {
-            stmt.setDate(1, java.sql.Date.valueOf(dateStr));
+            stmt.setTimestamp(1, Timestamp.valueOf(date.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+            stmt.setString(3, movieTitle);
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    if (rs.getString("MovieTitle").equalsIgnoreCase(movieTitle)) {
-                        return rs.getDouble("TotalRevenue antichat");
-                    }
+                if (rs.next()) {
+                    return rs.getDouble("TotalRevenue");
                 }
             }
         } catch (SQLException e) {
@@ -77,20 +182,295 @@ public class RevenueDAO {
             throw new IllegalArgumentException("Định dạng ngày không hợp lệ: " + dateStr);
         }
 
-        double totalRevenue = 0.0;
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(GET_REVENUE_BY_DATE_AND_MOVIE)) {
+             PreparedStatement stmt = conn.prepareStatement(GET_TOTAL_REVENUE_BY_DATE)) {
             stmt.setDate(1, java.sql.Date.valueOf(dateStr));
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    totalRevenue += rs.getDouble("TotalRevenue");
+                if (rs.next()) {
+                    return rs.getDouble("TotalRevenue");
                 }
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving total revenue for date " + dateStr + ": " + e.getMessage());
             throw e;
         }
-        return totalRevenue;
+        return 0.0;
+    }
+
+    /**
+     * Adds a booking to the revenue rollup on the caller's connection, so the rollup commits or
+     * rolls back together with the tickets.
+     * @param conn The connection of the booking transaction.
+     * @param showtimeID The booked showtime.
+     * @param date The booking date.
+     * @param tickets Number of tickets booked.
+     * @param revenue Total price of the tickets.
+     * @throws SQLException If a database error occurs.
+     */
+    public void addToRollup(Connection conn, int showtimeID, LocalDate date, int tickets, double revenue) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(UPDATE_ROLLUP)) {
+            update.setDouble(1, revenue);
+            update.setInt(2, tickets);
+            update.setDate(3, java.sql.Date.valueOf(date));
+            update.setInt(4, showtimeID);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_ROLLUP)) {
+            insert.setInt(1, showtimeID);
+            insert.setDouble(2, revenue);
+            insert.setDate(3, java.sql.Date.valueOf(date));
+            insert.setInt(4, tickets);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the rollup rows of the days [from, to) from BookingHistory in one transaction.
+     * Archived days (per ArchiveState, read under lock in the same transaction) are left as they are.
+     * @return The number of rollup rows written.
+     * @throws SQLException If a database error occurs (nothing is changed).
+     */
+    public int rebuildRollup(LocalDate from, LocalDate to) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement archived = conn.prepareStatement(GET_ARCHIVED_UNTIL);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_ROLLUP_RANGE);
+                 PreparedStatement insert = conn.prepareStatement(REBUILD_ROLLUP_RANGE)) {
+                // Ngày đã lưu trữ không còn trong BookingHistory: dựng lại sẽ xóa mất doanh thu của chúng
+                try (ResultSet rs = archived.executeQuery()) {
+                    if (rs.next() && rs.getDate("LastMonth") != null) {
+                        LocalDate hotSince = rs.getDate("LastMonth").toLocalDate().plusMonths(1);
+                        if (from.isBefore(hotSince)) {
+                            from = hotSince;
+                        }
+                    }
+                }
+                if (!from.isBefore(to)) {
+                    conn.commit();
+                    return 0;
+                }
+                delete.setDate(1, java.sql.Date.valueOf(from));
+                delete.setDate(2, java.sql.Date.valueOf(to));
+                delete.executeUpdate();
+                insert.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                insert.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+                int rows = insert.executeUpdate();
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("Error rebuilding revenue rollup " + from + " - " + to + ": " + e.getMessage());
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Compares the rollup with BookingHistory day by day.
+     * @return The days in [from, to) whose revenue or ticket count differ.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<LocalDate> findRollupMismatches(LocalDate from, LocalDate to) throws SQLException {
+        List<LocalDate> days = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(VERIFY_ROLLUP_RANGE)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+            stmt.setDate(3, java.sql.Date.valueOf(from));
+            stmt.setDate(4, java.sql.Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate("RevenueDate").toLocalDate());
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Returns the days of the first and last booking, or null if there are no bookings.
+     * @throws SQLException If a database error occurs.
+     */
+    public LocalDate[] getBookingDayRange() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(GET_BOOKING_DATE_RANGE);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getTimestamp("FirstBooking") != null) {
+                return new LocalDate[]{
+                        rs.getTimestamp("FirstBooking").toLocalDateTime().toLocalDate(),
+                        rs.getTimestamp("LastBooking").toLocalDateTime().toLocalDate()};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the revenue booked in [from, to) as a time series in one query on the Revenue
+     * rollup, which also covers archived months. Every bucket in the
+     * range is present, empty ones with zero; the first and last bucket are clipped to the range.
+     * @param from First day (inclusive).
+     * @param to Last day (exclusive).
+     * @param bucket Bucket size (day, week or month).
+     * @return The buckets in time order.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<RevenuePoint> getRevenueSeries(LocalDate from, LocalDate to, TimeBucket bucket) throws SQLException {
+        // Nhóm theo ngày trong SQL (số dòng = số ngày), gộp tuần/tháng ở đây
+        Map<LocalDate, int[]> ticketsByBucket = new TreeMap<>();
+        Map<LocalDate, double[]> revenueByBucket = new TreeMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(GET_REVENUE_BY_DAY)) {
+            stmt.setDate(1, java.sql.Date.valueOf(from));
+            stmt.setDate(2, java.sql.Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate bucketStart = bucket.startOf(rs.getDate("BookingDay").toLocalDate());
+                    ticketsByBucket.computeIfAbsent(bucketStart, k -> new int[1])[0] += rs.getInt("Tickets");
+                    revenueByBucket.computeIfAbsent(bucketStart, k -> new double[1])[0] += rs.getDouble("TotalRevenue");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving revenue series " + from + " - " + to + ": " + e.getMessage());
+            throw e;
+        }
+
+        List<RevenuePoint> series = new ArrayList<>();
+        for (LocalDate start = bucket.startOf(from); start.isBefore(to); start = bucket.next(start)) {
+            LocalDate end = bucket.next(start);
+            int[] tickets = ticketsByBucket.get(start);
+            double[] revenue = revenueByBucket.get(start);
+            series.add(new RevenuePoint(start.isBefore(from) ? from : start, end.isAfter(to) ? to : end,
+                    tickets == null ? 0 : tickets[0], revenue == null ? 0 : revenue[0]));
+        }
+        return series;
+    }
+
+    /**
+     * Computes the revenue report of one day (by booking date) in a single query: totals by movie,
+     * room, showtime and hour of sale.
+     * @param date The day to report on.
+     * @return The report; empty if nothing was sold that day.
+     * @throws SQLException If a database error occurs.
+     */
+    public DailyRevenueReport getDailyRevenue(LocalDate date) throws SQLException {
+        DailyRevenueReport.Builder report = new DailyRevenueReport.Builder(date);
+        addRevenue(date, date.plusDays(1), report);
+        return report.build();
+    }
+
+    /**
+     * Adds the bookings made in [from, to) to a report, in a single query grouped by showtime and
+     * hour of sale; used for one day and for each partition of a range report.
+     * @throws SQLException If a database error occurs.
+     */
+    public void addRevenue(LocalDate from, LocalDate to, DailyRevenueReport.Builder report) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(GET_REVENUE_BREAKDOWN)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    report.add(rs.getInt("ShowtimeID"), rs.getString("MovieTitle"), rs.getString("RoomName"),
+                            rs.getTimestamp("ShowDate"), rs.getInt("SaleHour"), rs.getInt("Tickets"),
+                            rs.getDouble("TotalRevenue"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving revenue from " + from + " to " + to + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Streams the bookings made in [from, before), pre-aggregated per showtime, day and hour of
+     * sale, in day order, without materializing the result.
+     * @param from Inclusive lower bound on BookingDate.
+     * @param before Exclusive upper bound on BookingDate.
+     * @param consumer Receives one call per row.
+     * @throws SQLException If a database error occurs.
+     */
+    public void scanBookingFacts(LocalDateTime from, LocalDateTime before, BookingFactConsumer consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SCAN_BOOKING_FACTS)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(before));
+            stmt.setFetchSize(10_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal revenue = rs.getBigDecimal("TotalRevenue");
+                    consumer.accept(rs.getInt("ShowtimeID"), rs.getString("Title"), rs.getString("RoomName"),
+                            rs.getInt("GenreID"), rs.getInt("CountryID"), rs.getDate("BookingDay").toLocalDate(),
+                            rs.getInt("SaleHour"), rs.getLong("Tickets"),
+                            revenue == null ? 0 : revenue.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error scanning booking facts: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /** Receives the rows of {@link #scanCustomerFacts}. */
+    public interface CustomerFactConsumer {
+        void accept(int customerID, int showtimeID, String movieTitle, String roomName, int genreID, int countryID,
+                    LocalDate day, long tickets);
+    }
+
+    /**
+     * Streams the bookings made in [from, before), pre-aggregated per customer, showtime and day,
+     * without materializing the result.
+     * @throws SQLException If a database error occurs.
+     */
+    public void scanCustomerFacts(LocalDateTime from, LocalDateTime before, CustomerFactConsumer consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SCAN_CUSTOMER_FACTS)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(before));
+            stmt.setFetchSize(10_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getInt("CustomerID"), rs.getInt("ShowtimeID"), rs.getString("Title"),
+                            rs.getString("RoomName"), rs.getInt("GenreID"), rs.getInt("CountryID"),
+                            rs.getDate("BookingDay").toLocalDate(), rs.getLong("Tickets"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error scanning customer facts: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /** Receives the rows of {@link #scanRecentBookings}, one per ticket; price is in hundredths of a VND. */
+    public interface RecentBookingConsumer {
+        void accept(long historyID, int customerID, int showtimeID, String movieTitle, LocalDateTime bookedAt, long priceCents);
+    }
+
+    /**
+     * Streams the tickets booked at or after {@code from}, in booking order. Used to catch in-memory
+     * figures up with the committed bookings of every process; rows are not aggregated, so keep the
+     * window short.
+     * @throws SQLException If a database error occurs.
+     */
+    public void scanRecentBookings(LocalDateTime from, RecentBookingConsumer consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SCAN_RECENT_BOOKINGS)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal price = rs.getBigDecimal("Price");
+                    consumer.accept(rs.getLong("HistoryID"), rs.getInt("CustomerID"), rs.getInt("ShowtimeID"),
+                            rs.getString("MovieTitle"), rs.getTimestamp("BookingDate").toLocalDateTime(),
+                            price == null ? 0 : price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error scanning recent bookings: " + e.getMessage());
+            throw e;
+        }
     }
 
     /**
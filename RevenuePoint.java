@@ -0,0 +1,27 @@
+package com.movie.model;
+
+import java.time.LocalDate;
+
+/** One bucket of a revenue time series: tickets and revenue booked in [start, end). */
+public final class RevenuePoint {
+    private final LocalDate start;
+    private final LocalDate end;
+    private final int tickets;
+    private final double revenue;
+
+    public RevenuePoint(LocalDate start, LocalDate end, int tickets, double revenue) {
+        this.start = start;
+        this.end = end;
+        this.tickets = tickets;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getStart() { return start; }
+
+    /** Exclusive. */
+    public LocalDate getEnd() { return end; }
+
+    public int getTickets() { return tickets; }
+
+    public double getRevenue() { return revenue; }
+}
\ No newline at end of file
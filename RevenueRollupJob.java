@@ -0,0 +1,151 @@
+package com.movie.bus;
+
+import com.movie.dao.RevenueDAO;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfills and verifies the Revenue rollup, which bookings update in their own transaction.
+ * <p>
+ * On start the whole booking history is compared with the rollup day by day and the days that
+ * differ (e.g. bookings made before the rollup existed) are rebuilt from BookingHistory. After
+ * that the last {@link #NIGHTLY_CHECK_DAYS} days are checked every night shortly after midnight.
+ * Started once per deployment by {@link com.movie.Server}, never by clients.
+ * Can also be run by hand: {@code java com.movie.bus.RevenueRollupJob verify|rebuild [from to]}.
+ */
+public final class RevenueRollupJob {
+    static final int NIGHTLY_CHECK_DAYS = 2;
+    private static final int NIGHTLY_RUN_MINUTE = 5;
+    private static final RevenueRollupJob INSTANCE = new RevenueRollupJob();
+
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "revenue-rollup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean started;
+
+    private RevenueRollupJob() {
+    }
+
+    public static RevenueRollupJob getInstance() {
+        return INSTANCE;
+    }
+
+    /** Verifies the full history in the background, then schedules the nightly check. */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduler.execute(this::repairAll);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstRun = now.toLocalDate().plusDays(1).atTime(0, NIGHTLY_RUN_MINUTE);
+        scheduler.scheduleAtFixedRate(this::repairRecent, Duration.between(now, firstRun).toMillis(),
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the days in [from, to) whose rollup differs from BookingHistory; returns those days.
+     * Archived days are skipped: their bookings are no longer in BookingHistory and their rollup is final.
+     */
+    public List<LocalDate> repair(LocalDate from, LocalDate to) throws SQLException, IOException {
+        return BookingArchive.getInstance().withHotRange(hotSince -> {
+            LocalDate start = from.isBefore(hotSince) ? hotSince : from;
+            if (!start.isBefore(to)) {
+                return Collections.<LocalDate>emptyList();
+            }
+            List<LocalDate> mismatches = revenueDAO.findRollupMismatches(start, to);
+            for (LocalDate day : mismatches) {
+                revenueDAO.rebuildRollup(day, day.plusDays(1));
+            }
+            return mismatches;
+        });
+    }
+
+    private void repairAll() {
+        try {
+            LocalDate[] range = revenueDAO.getBookingDayRange();
+            if (range != null) {
+                report(repair(range[0], range[1].plusDays(1)));
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Không thể kiểm tra bảng tổng hợp doanh thu: " + e.getMessage());
+        }
+    }
+
+    private void repairRecent() {
+        LocalDate today = LocalDate.now();
+        try {
+            report(repair(today.minusDays(NIGHTLY_CHECK_DAYS), today));
+        } catch (SQLException | IOException e) {
+            System.err.println("Không thể kiểm tra bảng tổng hợp doanh thu: " + e.getMessage());
+        }
+    }
+
+    private static void report(List<LocalDate> repaired) {
+        if (!repaired.isEmpty()) {
+            System.out.println("Đã dựng lại bảng tổng hợp doanh thu cho " + repaired.size() + " ngày: " + repaired);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Cách dùng: RevenueRollupJob verify|rebuild [từ-ngày đến-ngày] (yyyy-MM-dd, đến-ngày không tính)");
+            System.exit(2);
+        }
+        RevenueDAO revenueDAO = new RevenueDAO();
+        LocalDate from;
+        LocalDate to;
+        if (args.length == 3) {
+            from = LocalDate.parse(args[1]);
+            to = LocalDate.parse(args[2]);
+        } else {
+            LocalDate[] range = revenueDAO.getBookingDayRange();
+            if (range == null) {
+                System.out.println("Chưa có vé nào được đặt");
+                return;
+            }
+            from = range[0];
+            to = range[1].plusDays(1);
+        }
+        LocalDate hotSince = BookingArchive.getInstance().getHotSince();
+        if (from.isBefore(hotSince)) {
+            System.out.println("Bỏ qua các ngày trước " + hotSince + " (đã lưu trữ)");
+            from = hotSince;
+        }
+        if (!from.isBefore(to)) {
+            return;
+        }
+        switch (args[0]) {
+            case "verify":
+                List<LocalDate> mismatches = revenueDAO.findRollupMismatches(from, to);
+                System.out.println(mismatches.isEmpty() ? "Bảng tổng hợp khớp với lịch sử đặt vé"
+                        : "Các ngày lệch: " + mismatches);
+                if (!mismatches.isEmpty()) {
+                    System.exit(1);
+                }
+                break;
+            case "rebuild":
+                System.out.println("Đã ghi " + revenueDAO.rebuildRollup(from, to) + " dòng tổng hợp từ " + from + " đến " + to);
+                break;
+            default:
+                System.err.println("Lệnh không hợp lệ: " + args[0]);
+                System.exit(2);
+        }
+    }
+}
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.movie.model;
 
-import java.util.List;
-
 public class Room {
+    public static final String STATUS_SHOWING = "Đang chiếu";
+    public static final String STATUS_UPCOMING = "Chuẩn bị chiếu";
+    public static final String STATUS_IDLE = "Không chiếu";
+
     private int roomID;
     private String roomName;
     private int capacity;
@@ -10,7 +12,20 @@ public class Room {
     private String movieTitle; // Tên phim đang chiếu
     private String status; // Trạng thái: Đang chiếu/Chuẩn bị chiếu/Không chiếu
     private String showtime; // Suất chiếu
-    private List<Seat> seats; // Danh sách ghế
+
+    public Room() {
+    }
+
+    // Bản sao để tính trạng thái theo thời điểm đọc mà không sửa bản dùng chung
+    public Room(Room other) {
+        this.roomID = other.roomID;
+        this.roomName = other.roomName;
+        this.capacity = other.capacity;
+        this.price = other.price;
+        this.movieTitle = other.movieTitle;
+        this.status = other.status;
+        this.showtime = other.showtime;
+    }
 
     // Getters and Setters
     public int getRoomID() { return roomID; }
@@ -33,7 +48,4 @@ public class Room {
 
     public String getShowtime() { return showtime; }
     public void setShowtime(String showtime) { this.showtime = showtime; }
-
-    public List<Seat> getSeats() { return seats; }
-    public void setSeats(List<Seat> seats) { this.seats = seats; }
 }
\ No newline at end of file
@@ -2,11 +2,19 @@ package com.movie.bus;
 
 import com.movie.dao.RoomDAO;
 import com.movie.model.Room;
+import com.movie.model.ShowingSlot;
+import com.movie.util.SingleFlight;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class RoomBUS {
+    // Nhiều màn hình gọi getAllRooms cùng lúc (mỗi thẻ phim trong UserFrame) → dùng chung một truy vấn
+    private static final SingleFlight<String, List<Room>> allRoomsFlight = new SingleFlight<>("getAllRooms");
+    private static final String ALL_ROOMS = "all";
+
     private RoomDAO roomDAO = new RoomDAO();
+    private NowShowingBUS nowShowingBUS = new NowShowingBUS();
 
     public void addRoom(String roomName, int capacity, double price) throws SQLException {
         if (roomName.isEmpty()) {
@@ -22,7 +30,12 @@ public class RoomBUS {
         room.setRoomName(roomName);
         room.setCapacity(capacity);
         room.setPrice(price);
-        roomDAO.addRoom(room);
+        try {
+            roomDAO.addRoom(room);
+        } finally {
+            SeatBUS.invalidateLayout(room.getRoomID());
+            NowShowingBUS.invalidate();
+        }
     }
 
     public void updateRoom(Room room) throws SQLException {
@@ -35,22 +48,54 @@ public class RoomBUS {
         if (room.getPrice() < 0) {
             throw new IllegalArgumentException("Giá vé không được âm");
         }
-        roomDAO.updateRoom(room);
+        try {
+            roomDAO.updateRoom(room);
+        } finally {
+            SeatBUS.invalidateLayout(room.getRoomID());
+            NowShowingBUS.invalidate();
+        }
     }
 
     public void deleteRoom(int roomID) throws SQLException {
-        roomDAO.deleteRoom(roomID);
+        try {
+            roomDAO.deleteRoom(roomID);
+        } finally {
+            SeatBUS.invalidateLayout(roomID);
+            NowShowingBUS.invalidate();
+        }
     }
 
     public List<Room> getAllRooms() throws SQLException {
-        return roomDAO.getAllRooms();
+        List<Room> rooms = allRoomsFlight.execute(ALL_ROOMS, key -> roomDAO.getAllRooms());
+        // Kết quả có thể dùng chung giữa nhiều luồng, trả bản sao cho mỗi nơi gọi
+        List<Room> copies = new ArrayList<>(rooms.size());
+        long now = System.currentTimeMillis();
+        for (Room room : rooms) {
+            Room copy = new Room(room);
+            applySchedule(copy, now);
+            copies.add(copy);
+        }
+        return copies;
     }
 
+    // Trạng thái phụ thuộc thời điểm đọc nên tính trên bản sao, từ lịch theo phòng của NowShowingBUS
+    private void applySchedule(Room room, long now) throws SQLException {
+        ShowingSlot showing = nowShowingBUS.getShowingAt(room.getRoomID(), now);
+        if (showing != null) {
+            room.setStatus(Room.STATUS_SHOWING);
+        } else {
+            showing = nowShowingBUS.getNextShowing(room.getRoomID(), now);
+            room.setStatus(showing != null ? Room.STATUS_UPCOMING : Room.STATUS_IDLE);
+        }
+        room.setMovieTitle(showing != null ? showing.getMovieTitle() : null);
+    }
+
+    // Một dòng theo khóa chính, chỉ tính trạng thái cho phòng này
     public Room getRoomById(int roomID) throws SQLException {
-        List<Room> rooms = roomDAO.getAllRooms();
-        return rooms.stream()
-                .filter(room -> room.getRoomID() == roomID)
-                .findFirst()
-                .orElse(null);
+        Room room = roomDAO.getRoomById(roomID);
+        if (room != null) {
+            applySchedule(room, System.currentTimeMillis());
+        }
+        return room;
     }
 }
\ No newline at end of file
@@ -1,15 +1,16 @@
 package com.movie.dao;
 
 import com.movie.model.Room;
-import com.movie.model.Seat;
 import com.movie.util.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 public class RoomDAO {
+    // Trạng thái và phim đang chiếu của phòng do RoomBUS lấy từ lịch theo phòng, không JOIN Showtime ở đây
+    private static final String SELECT_ROOMS = "SELECT RoomID, RoomName, Capacity, Price FROM Room";
+
     public void addRoom(Room room) throws SQLException {
         String query = "INSERT INTO Room (RoomName, Capacity, Price) VALUES (?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
@@ -57,89 +58,38 @@ public class RoomDAO {
 
     public List<Room> getAllRooms() throws SQLException {
         List<Room> rooms = new ArrayList<>();
-        String query = "SELECT r.*, m.Title, s.ShowDate, m.StartDate, m.EndDate, m.Duration " +
-                "FROM Room r " +
-                "LEFT JOIN Showtime s ON r.RoomID = s.RoomID " +
-                "LEFT JOIN Movie m ON s.MovieID = m.MovieID";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ROOMS);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Room room = new Room();
-                room.setRoomID(rs.getInt("RoomID"));
-                room.setRoomName(rs.getString("RoomName"));
-                room.setCapacity(rs.getInt("Capacity"));
-                room.setPrice(rs.getDouble("Price"));
-                room.setMovieTitle(rs.getString("Title"));
-                Date showDate = rs.getTimestamp("ShowDate");
-                Date startDate = rs.getDate("StartDate");
-                Date endDate = rs.getDate("EndDate");
-                Date currentDate = new Date();
-                if (showDate == null || startDate == null || endDate == null) {
-                    room.setStatus("Không chiếu");
-                } else {
-                    int duration = rs.getInt("Duration"); // Lấy Duration từ bảng Movie
-                    if (rs.wasNull()) duration = 0; // Nếu Duration là null, gán 0
-                    if (currentDate.after(startDate) && currentDate.before(endDate) &&
-                            currentDate.after(showDate) &&
-                            currentDate.before(new Date(showDate.getTime() + duration * 60 * 1000))) {
-                        room.setStatus("Đang chiếu");
-                    } else if (currentDate.before(showDate)) {
-                        room.setStatus("Chuẩn bị chiếu");
-                    } else {
-                        room.setStatus("Không chiếu");
-                    }
-                }
-                room.setSeats(getSeatsByRoomId(room.getRoomID()));
-                rooms.add(room);
+                rooms.add(mapResultSetToRoom(rs));
             }
         }
         return rooms;
     }
+
     public Room getRoomById(int roomID) throws SQLException {
-        String query = "SELECT r.*, m.Title, s.ShowDate, m.StartDate, m.EndDate, m.Duration " +
-                "FROM Room r " +
-                "LEFT JOIN Showtime s ON r.RoomID = s.RoomID " +
-                "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
-                "WHERE r.RoomID = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ROOMS + " WHERE RoomID = ?")) {
             stmt.setInt(1, roomID);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Room room = new Room();
-                    room.setRoomID(rs.getInt("RoomID"));
-                    room.setRoomName(rs.getString("RoomName"));
-                    room.setCapacity(rs.getInt("Capacity"));
-                    room.setPrice(rs.getDouble("Price"));
-                    room.setMovieTitle(rs.getString("Title"));
-                    Date showDate = rs.getTimestamp("ShowDate");
-                    Date startDate = rs.getDate("StartDate");
-                    Date endDate = rs.getDate("EndDate");
-                    Date currentDate = new Date();
-                    if (showDate == null || startDate == null || endDate == null) {
-                        room.setStatus("Không chiếu");
-                    } else {
-                        int duration = rs.getInt("Duration"); // Lấy Duration từ bảng Movie
-                        if (rs.wasNull()) duration = 0; // Nếu Duration là null, gán 0
-                        if (currentDate.after(startDate) && currentDate.before(endDate) &&
-                                currentDate.after(showDate) &&
-                                currentDate.before(new Date(showDate.getTime() + duration * 60 * 1000))) {
-                            room.setStatus("Đang chiếu");
-                        } else if (currentDate.before(showDate)) {
-                            room.setStatus("Chuẩn bị chiếu");
-                        } else {
-                            room.setStatus("Không chiếu");
-                        }
-                    }
-                    room.setSeats(getSeatsByRoomId(roomID));
-                    return room;
+                    return mapResultSetToRoom(rs);
                 }
             }
         }
         return null;
     }
 
+    private Room mapResultSetToRoom(ResultSet rs) throws SQLException {
+        Room room = new Room();
+        room.setRoomID(rs.getInt("RoomID"));
+        room.setRoomName(rs.getString("RoomName"));
+        room.setCapacity(rs.getInt("Capacity"));
+        room.setPrice(rs.getDouble("Price"));
+        return room;
+    }
+
     private void createSeatsForRoom(Room room) throws SQLException {
         String query = "INSERT INTO Seat (RoomID, SeatNumber, Status) VALUES (?, ?, 'Trống')";
         try (Connection conn = DBConnection.getConnection();
@@ -163,27 +113,4 @@ public class RoomDAO {
         }
         createSeatsForRoom(room);
     }
-
-    public List<Seat> getSeatsByRoomId(int roomID) throws SQLException {
-        List<Seat> seats = new ArrayList<>();
-        String query = "SELECT s.*, CASE WHEN t.TicketID IS NOT NULL THEN 'Đã đặt' ELSE 'Trống' END AS Status " +
-                "FROM Seat s " +
-                "LEFT JOIN Ticket t ON s.SeatID = t.SeatID " +
-                "WHERE s.RoomID = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, roomID);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Seat seat = new Seat();
-                    seat.setSeatID(rs.getInt("SeatID"));
-                    seat.setRoomID(rs.getInt("RoomID"));
-                    seat.setSeatNumber(rs.getString("SeatNumber"));
-                    seat.setStatus(rs.getString("Status"));
-                    seats.add(seat);
-                }
-            }
-        }
-        return seats;
-    }
 }
\ No newline at end of file
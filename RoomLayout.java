@@ -0,0 +1,105 @@
+package com.movie.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable seat layout of a room: seat ids, labels and grid positions in SeatID order.
+ * One instance is shared by every showtime in the room; booking state is never stored here
+ * and is overlaid per showtime with {@link #toSeats(Set)}.
+ */
+public final class RoomLayout {
+    public static final String STATUS_FREE = "Trống";
+    public static final String STATUS_BOOKED = "Đã đặt";
+    // Số ghế mỗi hàng khi nhãn không theo dạng chữ + số (khớp GridLayout 5 cột của BookingFrame)
+    private static final int DEFAULT_COLUMNS = 5;
+
+    private final int roomID;
+    private final int[] seatIds;
+    private final String[] labels;
+    private final int[] rows;
+    private final int[] cols;
+    private final Map<Integer, Integer> indexBySeatId;
+    private final long version;
+
+    public RoomLayout(int roomID, int[] seatIds, String[] labels) {
+        if (seatIds.length != labels.length) {
+            throw new IllegalArgumentException("seatIds and labels must have the same length");
+        }
+        this.roomID = roomID;
+        this.seatIds = seatIds.clone();
+        this.labels = labels.clone();
+        this.rows = new int[seatIds.length];
+        this.cols = new int[seatIds.length];
+        Map<Integer, Integer> index = new HashMap<>();
+        int maxSeatId = 0;
+        for (int i = 0; i < seatIds.length; i++) {
+            index.put(seatIds[i], i);
+            maxSeatId = Math.max(maxSeatId, seatIds[i]);
+            String label = labels[i];
+            if (label != null && label.length() > 1 && Character.isLetter(label.charAt(0))
+                    && label.substring(1).chars().allMatch(Character::isDigit)) {
+                rows[i] = Character.toUpperCase(label.charAt(0)) - 'A';
+                cols[i] = Integer.parseInt(label.substring(1)) - 1;
+            } else {
+                rows[i] = i / DEFAULT_COLUMNS;
+                cols[i] = i % DEFAULT_COLUMNS;
+            }
+        }
+        this.indexBySeatId = Collections.unmodifiableMap(index);
+        this.version = version(seatIds.length, maxSeatId);
+    }
+
+    /**
+     * Version of a room's seats: recreating them (RoomDAO.updateRoom deletes and re-inserts the
+     * rows) changes the count or gives higher SeatIDs, so a different version means a stale layout.
+     */
+    public static long version(int seatCount, int maxSeatId) {
+        return ((long) seatCount << 32) | (maxSeatId & 0xFFFFFFFFL);
+    }
+
+    public long getVersion() { return version; }
+
+    public int getRoomID() { return roomID; }
+
+    public int size() { return seatIds.length; }
+
+    public int getSeatId(int index) { return seatIds[index]; }
+
+    public String getLabel(int index) { return labels[index]; }
+
+    public int getRow(int index) { return rows[index]; }
+
+    public int getCol(int index) { return cols[index]; }
+
+    /** Returns the position of the seat in this layout, or -1 if it belongs to another room. */
+    public int indexOf(int seatID) {
+        Integer index = indexBySeatId.get(seatID);
+        return index == null ? -1 : index;
+    }
+
+    public boolean contains(int seatID) {
+        return indexBySeatId.containsKey(seatID);
+    }
+
+    /**
+     * Builds fresh Seat objects for one showtime; seats whose id is in bookedSeatIds are
+     * marked as booked. Callers may modify the returned list and seats freely.
+     */
+    public List<Seat> toSeats(Set<Integer> bookedSeatIds) {
+        List<Seat> seats = new ArrayList<>(seatIds.length);
+        for (int i = 0; i < seatIds.length; i++) {
+            Seat seat = new Seat();
+            seat.setSeatID(seatIds[i]);
+            seat.setRoomID(roomID);
+            seat.setSeatNumber(labels[i]);
+            seat.setStatus(bookedSeatIds.contains(seatIds[i]) ? STATUS_BOOKED : STATUS_FREE);
+            seats.add(seat);
+        }
+        return seats;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.movie.model;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * One scheduling conflict found by the validator: a proposed showtime (by its position in the
+ * validated list) against either an existing showtime or another proposed one in the same room.
+ */
+public final class ScheduleConflict {
+    public enum Type {
+        /** The screenings themselves overlap. */
+        OVERLAP,
+        /** The screenings do not overlap but leave less than the cleaning buffer between them. */
+        CLEANING_BUFFER
+    }
+
+    private final int candidateIndex;
+    private final int roomID;
+    private final long start;
+    private final long end;
+    private final int conflictingShowtimeID;
+    private final int conflictingCandidateIndex;
+    private final Type type;
+
+    public ScheduleConflict(int candidateIndex, int roomID, long start, long end,
+                            int conflictingShowtimeID, int conflictingCandidateIndex, Type type) {
+        this.candidateIndex = candidateIndex;
+        this.roomID = roomID;
+        this.start = start;
+        this.end = end;
+        this.conflictingShowtimeID = conflictingShowtimeID;
+        this.conflictingCandidateIndex = conflictingCandidateIndex;
+        this.type = type;
+    }
+
+    /** Position of the proposed showtime in the validated list. */
+    public int getCandidateIndex() { return candidateIndex; }
+
+    public int getRoomID() { return roomID; }
+
+    public Date getStart() { return new Date(start); }
+
+    public Date getEnd() { return new Date(end); }
+
+    /** The existing showtime it collides with, or 0 if it collides with another proposed showtime. */
+    public int getConflictingShowtimeID() { return conflictingShowtimeID; }
+
+    /** Position of the other proposed showtime, or -1 if it collides with an existing showtime. */
+    public int getConflictingCandidateIndex() { return conflictingCandidateIndex; }
+
+    public Type getType() { return type; }
+
+    public String getMessage() {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(start));
+        String other = conflictingShowtimeID > 0
+                ? "suất chiếu #" + conflictingShowtimeID
+                : "suất chiếu mới thứ " + (conflictingCandidateIndex + 1);
+        return type == Type.OVERLAP
+                ? "Suất chiếu lúc " + time + " tại phòng " + roomID + " trùng với " + other
+                : "Suất chiếu lúc " + time + " tại phòng " + roomID + " không đủ thời gian dọn phòng so với " + other;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.movie.bus;
+
+import com.movie.model.ScheduleConflict;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a showtime would collide with the room's schedule. Extends IllegalArgumentException
+ * so existing validation handlers show the message; callers that need details read {@link #getConflicts()}.
+ */
+public class ScheduleConflictException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<ScheduleConflict> conflicts;
+
+    public ScheduleConflictException(List<ScheduleConflict> conflicts) {
+        super(describe(conflicts));
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    public List<ScheduleConflict> getConflicts() {
+        return conflicts;
+    }
+
+    private static String describe(List<ScheduleConflict> conflicts) {
+        String message = conflicts.get(0).getMessage();
+        return conflicts.size() == 1 ? message : message + " (và " + (conflicts.size() - 1) + " xung đột khác)";
+    }
+}
\ No newline at end of file
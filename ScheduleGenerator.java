@@ -0,0 +1,204 @@
+package com.movie.bus;
+
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.Movie;
+import com.movie.model.Room;
+import com.movie.model.Showtime;
+import com.movie.util.IntervalIndex;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a week of showtimes for every room.
+ * <p>
+ * Each screening is worth demand weight x room capacity x duration in hours (expected seat-hours).
+ * Rooms are filled from the largest down, each day from opening time: at every free moment the
+ * solver places the movie with the best value per occupied minute (screening + cleaning buffer)
+ * that is in its StartDate..EndDate run and still ends before closing. A movie's demand for the day
+ * shrinks by {@link #DEMAND_DECAY} for every screening per room it already has, so popular films get
+ * more screenings but demand is still spread over the catalogue instead of one film playing
+ * everywhere. Existing showtimes are left in place and scheduled around, so the result passes
+ * {@link ScheduleValidator} as is.
+ */
+public class ScheduleGenerator {
+    public static final int DAYS_PER_WEEK = 7;
+    public static final double DEFAULT_DEMAND_WEIGHT = 1.0;
+    // Mỗi khi phim đã có thêm một suất trên mỗi phòng trong ngày, nhu cầu còn lại một nửa
+    static final double DEMAND_DECAY = 0.5;
+    // Giờ bắt đầu làm tròn lên bội số 5 phút như lịch chiếu thường thấy
+    private static final long START_GRANULARITY_MILLIS = 5 * 60_000L;
+    private static final long LOOKBACK_MILLIS = 24 * 60 * 60_000L;
+
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieBUS movieBUS = new MovieBUS();
+    private final RoomBUS roomBUS = new RoomBUS();
+    private final long cleaningBufferMillis;
+
+    public ScheduleGenerator() {
+        this(ScheduleValidator.DEFAULT_CLEANING_BUFFER_MILLIS);
+    }
+
+    public ScheduleGenerator(long cleaningBufferMillis) {
+        this.cleaningBufferMillis = cleaningBufferMillis;
+    }
+
+    /**
+     * Plans the week starting at weekStart for all rooms and movies; nothing is saved.
+     * demandWeights maps MovieID to its expected demand (missing movies get {@link #DEFAULT_DEMAND_WEIGHT}).
+     * A closing time at or before the opening time means closing after midnight; a day's last
+     * screening still ends at least a cleaning buffer before the next day's opening.
+     */
+    public List<Showtime> generateWeek(LocalDate weekStart, LocalTime opening, LocalTime closing,
+                                       Map<Integer, Double> demandWeights) throws SQLException {
+        ZoneId zone = ZoneId.systemDefault();
+        long from = weekStart.atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = weekStart.plusDays(DAYS_PER_WEEK + 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        Map<Integer, IntervalIndex> existing = showtimeDAO.getRoomSchedules(new Date(from - LOOKBACK_MILLIS), new Date(to));
+        return plan(movieBUS.getAllMovies(), roomBUS.getAllRooms(), demandWeights, existing,
+                weekStart, opening, closing, zone, cleaningBufferMillis);
+    }
+
+    static List<Showtime> plan(List<Movie> movies, List<Room> rooms, Map<Integer, Double> demandWeights,
+                               Map<Integer, IntervalIndex> existing, LocalDate weekStart,
+                               LocalTime opening, LocalTime closing, ZoneId zone, long cleaningBufferMillis) {
+        List<Movie> playable = new ArrayList<>();
+        for (Movie movie : movies) {
+            if (movie.getDuration() > 0 && demandWeights.getOrDefault(movie.getMovieID(), DEFAULT_DEMAND_WEIGHT) > 0) {
+                playable.add(movie);
+            }
+        }
+        List<Room> byCapacity = new ArrayList<>(rooms);
+        byCapacity.sort(Comparator.comparingInt(Room::getCapacity).reversed());
+
+        List<Showtime> planned = new ArrayList<>();
+        for (int day = 0; day < DAYS_PER_WEEK; day++) {
+            LocalDate date = weekStart.plusDays(day);
+            long open = date.atTime(opening).atZone(zone).toInstant().toEpochMilli();
+            LocalDate closingDate = closing.isAfter(opening) ? date : date.plusDays(1);
+            long close = closingDate.atTime(closing).atZone(zone).toInstant().toEpochMilli();
+            // Các suất trong ngày không nằm trong booked của ngày sau: dọn xong trước giờ mở cửa hôm sau
+            long nextOpen = date.plusDays(1).atTime(opening).atZone(zone).toInstant().toEpochMilli();
+            close = Math.min(close, nextOpen - cleaningBufferMillis);
+
+            List<Movie> running = new ArrayList<>();
+            for (Movie movie : playable) {
+                if (isRunningOn(movie, date, zone)) {
+                    running.add(movie);
+                }
+            }
+            if (running.isEmpty()) {
+                continue;
+            }
+            // Số suất đã xếp trong ngày của mỗi phim, trên mọi phòng
+            Map<Integer, Integer> screeningsToday = new HashMap<>();
+            for (Room room : byCapacity) {
+                IntervalIndex booked = existing.getOrDefault(room.getRoomID(), IntervalIndex.EMPTY);
+                fillRoomDay(room, running, demandWeights, booked, screeningsToday, rooms.size(), open, close,
+                        cleaningBufferMillis, planned);
+            }
+        }
+        return planned;
+    }
+
+    private static void fillRoomDay(Room room, List<Movie> running, Map<Integer, Double> demandWeights,
+                                    IntervalIndex booked, Map<Integer, Integer> screeningsToday, int roomCount,
+                                    long open, long close, long cleaningBufferMillis, List<Showtime> planned) {
+        long t = roundUp(open);
+        while (t < close) {
+            Movie best = null;
+            double bestScore = 0;
+            long blockedUntil = Long.MIN_VALUE;
+            for (Movie movie : running) {
+                long end = t + movie.getDuration() * 60_000L;
+                if (end > close) {
+                    continue;
+                }
+                long busyUntil = booked.maxEndOverlapping(t - cleaningBufferMillis, end + cleaningBufferMillis);
+                if (busyUntil != Long.MIN_VALUE) {
+                    blockedUntil = Math.max(blockedUntil, busyUntil);
+                    continue;
+                }
+                double weight = demandWeight(demandWeights, movie.getMovieID(),
+                        screeningsToday.getOrDefault(movie.getMovieID(), 0), roomCount);
+                double seatHours = weight * room.getCapacity() * movie.getDuration() / 60.0;
+                double score = seatHours / (movie.getDuration() * 60_000L + cleaningBufferMillis);
+                if (score > bestScore) {
+                    best = movie;
+                    bestScore = score;
+                }
+            }
+            if (best == null) {
+                if (blockedUntil == Long.MIN_VALUE) {
+                    return; // Không phim nào còn vừa trước giờ đóng cửa
+                }
+                // Vướng suất có sẵn: nhảy qua nó rồi thử lại
+                t = roundUp(Math.max(blockedUntil + cleaningBufferMillis, t + START_GRANULARITY_MILLIS));
+                continue;
+            }
+            Showtime showtime = new Showtime();
+            showtime.setRoomID(room.getRoomID());
+            showtime.setRoomName(room.getRoomName());
+            showtime.setMovieID(best.getMovieID());
+            showtime.setMovieTitle(best.getTitle());
+            showtime.setShowDate(new Date(t));
+            showtime.setStatus(ShowtimeStatusEngine.STATUS_UPCOMING);
+            planned.add(showtime);
+            screeningsToday.merge(best.getMovieID(), 1, Integer::sum);
+            t = roundUp(t + best.getDuration() * 60_000L + cleaningBufferMillis);
+        }
+    }
+
+    /** Total expected seat-hours of a plan, with the same demand decay the solver uses. */
+    public static double expectedSeatHours(List<Showtime> plan, List<Movie> movies, List<Room> rooms,
+                                           Map<Integer, Double> demandWeights, ZoneId zone) {
+        Map<Integer, Movie> moviesById = new HashMap<>();
+        movies.forEach(movie -> moviesById.put(movie.getMovieID(), movie));
+        Map<Integer, Integer> capacities = new HashMap<>();
+        rooms.forEach(room -> capacities.put(room.getRoomID(), room.getCapacity()));
+        Map<String, Integer> screenings = new HashMap<>();
+        double total = 0;
+        for (Showtime showtime : plan) {
+            Movie movie = moviesById.get(showtime.getMovieID());
+            if (movie == null) {
+                continue;
+            }
+            LocalDate date = toLocalDate(showtime.getShowDate(), zone);
+            int earlier = screenings.merge(movie.getMovieID() + "|" + date, 1, Integer::sum) - 1;
+            double weight = demandWeight(demandWeights, movie.getMovieID(), earlier, rooms.size());
+            total += weight * capacities.getOrDefault(showtime.getRoomID(), 0) * movie.getDuration() / 60.0;
+        }
+        return total;
+    }
+
+    private static double demandWeight(Map<Integer, Double> demandWeights, int movieID, int earlierScreenings, int roomCount) {
+        return demandWeights.getOrDefault(movieID, DEFAULT_DEMAND_WEIGHT)
+                * Math.pow(DEMAND_DECAY, earlierScreenings / (double) roomCount);
+    }
+
+    private static boolean isRunningOn(Movie movie, LocalDate date, ZoneId zone) {
+        if (movie.getStartDate() != null && date.isBefore(toLocalDate(movie.getStartDate(), zone))) {
+            return false;
+        }
+        return movie.getEndDate() == null || !date.isAfter(toLocalDate(movie.getEndDate(), zone));
+    }
+
+    // java.sql.Date không hỗ trợ toInstant() nên đi qua epoch millis
+    private static LocalDate toLocalDate(Date date, ZoneId zone) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate();
+    }
+
+    private static long roundUp(long millis) {
+        long remainder = Math.floorMod(millis, START_GRANULARITY_MILLIS);
+        return remainder == 0 ? millis : millis + START_GRANULARITY_MILLIS - remainder;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.movie.bus;
+
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.Movie;
+import com.movie.model.ScheduleConflict;
+import com.movie.model.Showtime;
+import com.movie.util.IntervalIndex;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks proposed showtimes against the rooms' schedules. A screening occupies
+ * [ShowDate, ShowDate + Duration) and must leave a cleaning buffer before the next one in the
+ * same room (15 minutes, or -Dschedule.cleaningMinutes).
+ * <p>
+ * A whole batch is validated with one range query: the existing showtimes around the batch are
+ * loaded into an {@link IntervalIndex} per room, each candidate is checked with a range lookup,
+ * and candidates are checked against each other with one sweep per room. Nothing is returned
+ * for an empty or conflict-free batch.
+ */
+public class ScheduleValidator {
+    static final long DEFAULT_CLEANING_BUFFER_MILLIS = Long.getLong("schedule.cleaningMinutes", 15) * 60_000L;
+    // Suất bắt đầu trước mốc này chắc chắn đã kết thúc khi suất mới bắt đầu (phim dài nhất < 24 giờ)
+    private static final long LOOKBACK_MILLIS = 24 * 60 * 60_000L;
+
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieBUS movieBUS = new MovieBUS();
+    private final long cleaningBufferMillis;
+
+    public ScheduleValidator() {
+        this(DEFAULT_CLEANING_BUFFER_MILLIS);
+    }
+
+    public ScheduleValidator(long cleaningBufferMillis) {
+        if (cleaningBufferMillis < 0) {
+            throw new IllegalArgumentException("Thời gian dọn phòng không được âm");
+        }
+        this.cleaningBufferMillis = cleaningBufferMillis;
+    }
+
+    public long getCleaningBufferMillis() {
+        return cleaningBufferMillis;
+    }
+
+    /** Throws {@link ScheduleConflictException} if the showtime collides with the room's schedule. */
+    public void requireNoConflicts(Showtime showtime) throws SQLException {
+        requireNoConflicts(null, Collections.singletonList(showtime));
+    }
+
+    /**
+     * Throws {@link ScheduleConflictException} if the batch collides with the rooms' schedules. With a
+     * connection, the schedules are read on its transaction and stay locked until it ends, so the
+     * showtimes can be saved on it without another transaction slipping in between.
+     */
+    public void requireNoConflicts(Connection conn, List<Showtime> candidates) throws SQLException {
+        List<ScheduleConflict> conflicts = validateAll(conn, candidates);
+        if (!conflicts.isEmpty()) {
+            throw new ScheduleConflictException(conflicts);
+        }
+    }
+
+    /**
+     * Validates a batch of new or edited showtimes (an edited one keeps its ShowtimeID and is not
+     * checked against its own old version). Hidden showtimes are skipped. Conflicts are ordered by
+     * candidate position; a clash between two candidates is reported once, on the later one.
+     */
+    public List<ScheduleConflict> validateAll(List<Showtime> candidates) throws SQLException {
+        return validateAll(null, candidates);
+    }
+
+    private List<ScheduleConflict> validateAll(Connection conn, List<Showtime> candidates) throws SQLException {
+        int n = candidates.size();
+        int[] roomIDs = new int[n];
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        boolean[] checked = new boolean[n];
+        Set<Integer> replaced = new HashSet<>();
+        Map<Integer, Integer> durations = movieDurations();
+        long minStart = Long.MAX_VALUE;
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            Showtime showtime = candidates.get(i);
+            if (showtime.getShowDate() == null) {
+                throw new IllegalArgumentException("Ngày giờ chiếu không được để trống");
+            }
+            if (showtime.getShowtimeID() > 0) {
+                replaced.add(showtime.getShowtimeID());
+            }
+            if (ShowtimeStatusEngine.STATUS_HIDDEN.equals(showtime.getStatus())) {
+                continue;
+            }
+            checked[i] = true;
+            roomIDs[i] = showtime.getRoomID();
+            starts[i] = showtime.getShowDate().getTime();
+            // Giống ShowtimeDAO.getRoomSchedules: suất chưa có phim giữ phòng ít nhất 1 phút
+            ends[i] = starts[i] + Math.max(durations.getOrDefault(showtime.getMovieID(), 0), 1) * 60_000L;
+            minStart = Math.min(minStart, starts[i]);
+            maxEnd = Math.max(maxEnd, ends[i]);
+        }
+        if (minStart == Long.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        Date from = new Date(minStart - LOOKBACK_MILLIS - cleaningBufferMillis);
+        Date to = new Date(maxEnd + cleaningBufferMillis);
+        Map<Integer, IntervalIndex> existing = conn == null ? showtimeDAO.getRoomSchedules(from, to)
+                : showtimeDAO.getRoomSchedulesForUpdate(conn, from, to);
+        return findConflicts(roomIDs, starts, ends, checked, replaced, existing, cleaningBufferMillis);
+    }
+
+    static List<ScheduleConflict> findConflicts(int[] roomIDs, long[] starts, long[] ends, boolean[] checked,
+                                                Set<Integer> replaced, Map<Integer, IntervalIndex> existing,
+                                                long cleaningBufferMillis) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        Map<Integer, List<Integer>> candidatesByRoom = new HashMap<>();
+        for (int i = 0; i < roomIDs.length; i++) {
+            if (!checked[i]) {
+                continue;
+            }
+            candidatesByRoom.computeIfAbsent(roomIDs[i], k -> new ArrayList<>()).add(i);
+            IntervalIndex schedule = existing.getOrDefault(roomIDs[i], IntervalIndex.EMPTY);
+            Set<Integer> overlapping = new HashSet<>();
+            for (int showtimeID : schedule.overlapping(starts[i], ends[i])) {
+                if (!replaced.contains(showtimeID)) {
+                    overlapping.add(showtimeID);
+                    conflicts.add(new ScheduleConflict(i, roomIDs[i], starts[i], ends[i], showtimeID, -1,
+                            ScheduleConflict.Type.OVERLAP));
+                }
+            }
+            if (cleaningBufferMillis > 0) {
+                for (int showtimeID : schedule.overlapping(starts[i] - cleaningBufferMillis, ends[i] + cleaningBufferMillis)) {
+                    if (!replaced.contains(showtimeID) && !overlapping.contains(showtimeID)) {
+                        conflicts.add(new ScheduleConflict(i, roomIDs[i], starts[i], ends[i], showtimeID, -1,
+                                ScheduleConflict.Type.CLEANING_BUFFER));
+                    }
+                }
+            }
+        }
+
+        // Các suất mới với nhau: kéo dài mỗi suất thêm thời gian dọn phòng rồi quét một lượt theo phòng
+        candidatesByRoom.forEach((roomID, indexes) -> {
+            int count = indexes.size();
+            if (count < 2) {
+                return;
+            }
+            long[] roomStarts = new long[count];
+            long[] bufferedEnds = new long[count];
+            int[] ids = new int[count];
+            for (int k = 0; k < count; k++) {
+                int i = indexes.get(k);
+                roomStarts[k] = starts[i];
+                bufferedEnds[k] = ends[i] + cleaningBufferMillis;
+                ids[k] = i;
+            }
+            for (int[] pair : new IntervalIndex(roomStarts, bufferedEnds, ids).findOverlaps()) {
+                int earlier = pair[0];
+                int later = pair[1];
+                boolean overlap = starts[earlier] < ends[later] && starts[later] < ends[earlier];
+                conflicts.add(new ScheduleConflict(later, roomID, starts[later], ends[later], 0, earlier,
+                        overlap ? ScheduleConflict.Type.OVERLAP : ScheduleConflict.Type.CLEANING_BUFFER));
+            }
+        });
+        conflicts.sort(Comparator.comparingInt(ScheduleConflict::getCandidateIndex));
+        return conflicts;
+    }
+
+    private Map<Integer, Integer> movieDurations() throws SQLException {
+        Map<Integer, Integer> durations = new HashMap<>();
+        for (Movie movie : movieBUS.getAllMovies()) {
+            durations.put(movie.getMovieID(), movie.getDuration());
+        }
+        return durations;
+    }
+}
\ No newline at end of file
@@ -1,14 +1,44 @@
 package com.movie.bus;
 
 import com.movie.dao.SeatDAO;
+import com.movie.dao.TicketDAO;
+import com.movie.model.RoomLayout;
 import com.movie.model.Seat;
+import com.movie.util.TtlCache;
 import java.sql.SQLException;
 import java.util.List;
 
 public class SeatBUS {
+    // Sơ đồ phòng gần như không đổi; phòng sửa ở tiến trình khác được phát hiện nhờ so phiên bản mỗi lần đọc
+    private static final TtlCache<Integer, RoomLayout> layouts = new TtlCache<>("roomLayout", 500, 60 * 60_000L);
+
     private SeatDAO seatDAO = new SeatDAO();
+    private TicketDAO ticketDAO = new TicketDAO();
+
+    /**
+     * The cached layout of the room, checked against the seat count and highest SeatID in the
+     * database (one small aggregate query) and reloaded if the room's seats were recreated.
+     */
+    public RoomLayout getRoomLayout(int roomId) throws SQLException {
+        RoomLayout cached = layouts.get(roomId);
+        if (cached != null) {
+            if (cached.getVersion() == seatDAO.getLayoutVersion(roomId)) {
+                return cached;
+            }
+            layouts.invalidate(roomId);
+        }
+        return layouts.getOrLoad(roomId, seatDAO::getRoomLayout);
+    }
+
+    /**
+     * Seats of the room with the bookings of one showtime overlaid, using a single query
+     * for the booked seat ids instead of one check per seat.
+     */
+    public List<Seat> getSeatsForShowtime(int showtimeId, int roomId) throws SQLException {
+        return getRoomLayout(roomId).toSeats(ticketDAO.getBookedSeatIds(showtimeId));
+    }
 
-    public List<Seat> getSeatsByRoomId(int roomId) throws SQLException {
-        return seatDAO.getSeatsByRoomId(roomId);
+    static void invalidateLayout(int roomId) {
+        layouts.invalidate(roomId);
     }
-}
+}
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.movie.dao;
 
-import com.movie.model.Seat;
+import com.movie.model.RoomLayout;
 import com.movie.util.DBConnection;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,24 +10,38 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class SeatDAO {
-    private static final String SELECT_BY_ROOM = "SELECT SeatID, RoomID, SeatNumber, Status FROM Seat WHERE RoomID = ?";
+    private static final String SELECT_LAYOUT = "SELECT SeatID, SeatNumber FROM Seat WHERE RoomID = ? ORDER BY SeatID";
+    private static final String SELECT_LAYOUT_VERSION = "SELECT COUNT(*) AS Seats, MAX(SeatID) AS MaxSeatID FROM Seat WHERE RoomID = ?";
 
-    public List<Seat> getSeatsByRoomId(int roomId) throws SQLException {
-        List<Seat> seats = new ArrayList<>();
+    public RoomLayout getRoomLayout(int roomId) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ROOM)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LAYOUT)) {
             stmt.setInt(1, roomId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Seat seat = new Seat();
-                    seat.setSeatID(rs.getInt("SeatID"));
-                    seat.setRoomID(rs.getInt("RoomID"));
-                    seat.setSeatNumber(rs.getString("SeatNumber"));
-                    seat.setStatus(rs.getString("Status"));
-                    seats.add(seat);
+                    ids.add(rs.getInt("SeatID"));
+                    labels.add(rs.getString("SeatNumber"));
                 }
             }
         }
-        return seats;
+        int[] seatIds = new int[ids.size()];
+        for (int i = 0; i < seatIds.length; i++) {
+            seatIds[i] = ids.get(i);
+        }
+        return new RoomLayout(roomId, seatIds, labels.toArray(new String[0]));
+    }
+
+    /** Current {@link RoomLayout#version} of the room's seats, without reading them. */
+    public long getLayoutVersion(int roomId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LAYOUT_VERSION)) {
+            stmt.setInt(1, roomId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return RoomLayout.version(rs.getInt("Seats"), rs.getInt("MaxSeatID"));
+            }
+        }
     }
 }
\ No newline at end of file
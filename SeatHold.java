@@ -0,0 +1,28 @@
+package com.movie.model;
+
+import java.util.List;
+
+public class SeatHold {
+    private String holdID;
+    private int customerID;
+    private int showtimeID;
+    private List<Seat> seats; // Danh sách ghế đang giữ
+    private long expiresAt; // Thời điểm hết hạn (epoch millis)
+
+    public String getHoldID() { return holdID; }
+    public void setHoldID(String holdID) { this.holdID = holdID; }
+
+    public int getCustomerID() { return customerID; }
+    public void setCustomerID(int customerID) { this.customerID = customerID; }
+
+    public int getShowtimeID() { return showtimeID; }
+    public void setShowtimeID(int showtimeID) { this.showtimeID = showtimeID; }
+
+    public List<Seat> getSeats() { return seats; }
+    public void setSeats(List<Seat> seats) { this.seats = seats; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+
+    public boolean isExpired() { return System.currentTimeMillis() >= expiresAt; }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.movie.bus;
+
+import com.movie.dao.TicketDAO;
+import com.movie.model.Seat;
+import com.movie.model.SeatHold;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giữ ghế tạm thời trong bộ nhớ trước khi thanh toán.
+ * State is shared by every instance, like the executor in ThreadManager.
+ */
+public class SeatHoldBUS {
+    public static final long HOLD_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private static final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    // Hold đã được một lượt thanh toán giành lấy: không còn trong holds nhưng ghế vẫn bị giữ
+    private static final Map<String, SeatHold> paying = new ConcurrentHashMap<>();
+    // showtimeID -> (seatID -> holdID)
+    private static final Map<Integer, Map<Integer, String>> heldSeats = new ConcurrentHashMap<>();
+
+    private final TicketDAO ticketDAO = new TicketDAO();
+
+    public SeatHold holdSeats(int customerID, int showtimeID, List<Seat> seats) throws SQLException {
+        if (customerID <= 0 || showtimeID <= 0 || seats == null || seats.isEmpty()) {
+            throw new IllegalArgumentException("Thông tin giữ ghế không hợp lệ");
+        }
+        Set<Integer> booked = ticketDAO.getBookedSeatIds(showtimeID);
+        for (Seat seat : seats) {
+            if (booked.contains(seat.getSeatID())) {
+                throw new IllegalStateException("Ghế " + seat.getSeatNumber() + " đã được đặt!");
+            }
+        }
+
+        SeatHold hold = new SeatHold();
+        hold.setHoldID(UUID.randomUUID().toString());
+        hold.setCustomerID(customerID);
+        hold.setShowtimeID(showtimeID);
+        hold.setSeats(new ArrayList<>(seats));
+        hold.setExpiresAt(System.currentTimeMillis() + HOLD_TTL_MILLIS);
+
+        // Đăng ký hold trước khi giành ghế để luồng khác thấy hold này còn hiệu lực
+        holds.put(hold.getHoldID(), hold);
+        Map<Integer, String> seatMap = heldSeats.computeIfAbsent(showtimeID, k -> new ConcurrentHashMap<>());
+        for (Seat seat : seats) {
+            String owner = seatMap.putIfAbsent(seat.getSeatID(), hold.getHoldID());
+            boolean claimed = owner == null || owner.equals(hold.getHoldID())
+                    // Chủ cũ đã hết hạn: giành lại ghế
+                    || (!isLive(owner) && seatMap.replace(seat.getSeatID(), owner, hold.getHoldID()));
+            if (!claimed) {
+                releaseHold(hold.getHoldID());
+                throw new IllegalStateException("Ghế " + seat.getSeatNumber() + " đang được giữ!");
+            }
+        }
+        return hold;
+    }
+
+    public SeatHold getHold(String holdID) {
+        SeatHold hold = holdID == null ? null : holds.get(holdID);
+        if (hold != null && hold.isExpired()) {
+            releaseHold(holdID);
+            return null;
+        }
+        return hold;
+    }
+
+    /**
+     * Takes a live hold for payment. Exactly one caller gets it: the hold leaves the live holds
+     * (so it can neither be paid twice nor released) but its seats stay held until
+     * {@link #completeHold} or {@link #unclaimHold}. Another customer's hold is treated as missing.
+     * @throws IllegalStateException If the hold does not exist, has expired or is already being paid.
+     */
+    public SeatHold claimHold(String holdID, int customerID) {
+        SeatHold hold = getHold(holdID);
+        if (hold != null && hold.getCustomerID() != customerID) {
+            hold = null;
+        }
+        // Vào paying trước rồi mới rời holds: không lúc nào ghế trông như không ai giữ
+        if (hold == null || paying.putIfAbsent(holdID, hold) != null) {
+            throw new IllegalStateException("Không tìm thấy, đã hết hạn hoặc đang thanh toán giữ ghế");
+        }
+        if (!holds.remove(holdID, hold)) {
+            // Vừa bị hủy hoặc hết hạn
+            paying.remove(holdID, hold);
+            throw new IllegalStateException("Không tìm thấy, đã hết hạn hoặc đang thanh toán giữ ghế");
+        }
+        return hold;
+    }
+
+    /** Frees the seats of a hold taken by {@link #claimHold} once its seats are booked. */
+    public void completeHold(String holdID) {
+        releaseSeats(paying.remove(holdID));
+    }
+
+    /** Gives a hold taken by {@link #claimHold} back after a failed payment, until it expires. */
+    public void unclaimHold(String holdID) {
+        SeatHold hold = paying.get(holdID);
+        if (hold != null) {
+            holds.put(holdID, hold);
+            paying.remove(holdID, hold);
+        }
+    }
+
+    /**
+     * Releases a live hold of the given customer; a hold being paid is left alone.
+     * @return False if no such live hold belongs to the customer.
+     */
+    public boolean cancelHold(String holdID, int customerID) {
+        SeatHold hold = getHold(holdID);
+        if (hold == null || hold.getCustomerID() != customerID || !holds.remove(holdID, hold)) {
+            return false;
+        }
+        releaseSeats(hold);
+        return true;
+    }
+
+    /** Releases a live hold; a hold being paid is left alone. */
+    public void releaseHold(String holdID) {
+        releaseSeats(holds.remove(holdID));
+    }
+
+    /** True if the seat is held, by a live hold or one being paid, for another customer. */
+    public boolean isHeldByOther(int showtimeID, int seatID, int customerID) {
+        Map<Integer, String> seatMap = heldSeats.get(showtimeID);
+        String owner = seatMap == null ? null : seatMap.get(seatID);
+        if (owner == null || !isLive(owner)) {
+            return false;
+        }
+        SeatHold hold = paying.get(owner);
+        if (hold == null) {
+            hold = holds.get(owner);
+        }
+        return hold != null && hold.getCustomerID() != customerID;
+    }
+
+    private void releaseSeats(SeatHold hold) {
+        if (hold == null) {
+            return;
+        }
+        Map<Integer, String> seatMap = heldSeats.get(hold.getShowtimeID());
+        if (seatMap != null) {
+            for (Seat seat : hold.getSeats()) {
+                seatMap.remove(seat.getSeatID(), hold.getHoldID());
+            }
+        }
+    }
+
+    public Set<Integer> getHeldSeatIds(int showtimeID) {
+        purgeExpired();
+        Map<Integer, String> seatMap = heldSeats.get(showtimeID);
+        return seatMap == null ? new HashSet<>() : new HashSet<>(seatMap.keySet());
+    }
+
+    /**
+     * @return number of held seats per showtime (showtimes without holds are omitted)
+     */
+    public Map<Integer, Integer> getHoldCounts() {
+        purgeExpired();
+        Map<Integer, Integer> counts = new HashMap<>();
+        heldSeats.forEach((showtimeID, seatMap) -> {
+            if (!seatMap.isEmpty()) {
+                counts.put(showtimeID, seatMap.size());
+            }
+        });
+        return counts;
+    }
+
+    private boolean isLive(String holdID) {
+        if (paying.containsKey(holdID)) {
+            return true;
+        }
+        SeatHold hold = holds.get(holdID);
+        return hold != null && !hold.isExpired();
+    }
+
+    private void purgeExpired() {
+        for (SeatHold hold : holds.values()) {
+            if (hold.isExpired()) {
+                releaseHold(hold.getHoldID());
+            }
+        }
+    }
+}
\ No newline at end of file
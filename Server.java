@@ -0,0 +1,54 @@
+package com.movie;
+
+import com.movie.bus.LiveRevenueCounters;
+import com.movie.bus.RevenueRollupJob;
+import com.movie.bus.ShowtimeStatusEngine;
+import com.movie.network.BookingHttpServer;
+import com.movie.network.DataUpdater;
+import com.movie.network.SocketServer;
+
+import java.io.IOException;
+
+/**
+ * Entry point of the server process: the socket server every client connects to and the
+ * background jobs that must run once per deployment rather than in every client.
+ * Run a single instance; clients start with {@link Main}.
+ */
+public class Server {
+    public static final int PORT = 5000;
+
+    public static void main(String[] args) {
+        SocketServer socketServer = new SocketServer(PORT);
+        try {
+            socketServer.bind();
+        } catch (IOException e) {
+            // Cổng đã có server khác: không chạy thêm các tác vụ nền lần thứ hai
+            System.err.println("Không thể mở cổng " + PORT + " (server đã chạy?): " + e.getMessage());
+            System.exit(1);
+        }
+
+        // Khởi động DataUpdater
+        DataUpdater dataUpdater = new DataUpdater(socketServer);
+        dataUpdater.start();
+
+        // Cập nhật trạng thái suất chiếu theo lịch (thay cho việc ghi khi đọc)
+        ShowtimeStatusEngine.getInstance().start();
+
+        // Bù và đối soát bảng tổng hợp doanh thu (Revenue) với lịch sử đặt vé
+        RevenueRollupJob.getInstance().start();
+
+        // Bộ đếm doanh thu trong ngày, đẩy tới màn hình quản trị qua socket
+        LiveRevenueCounters.getInstance().start();
+
+        // HTTP API (không cần giao diện Swing): chỉ khi bật rõ ràng bằng -Dhttp.enabled=true
+        if (Boolean.getBoolean("http.enabled")) {
+            try {
+                new BookingHttpServer(Integer.getInteger("http.port", BookingHttpServer.DEFAULT_PORT)).start();
+            } catch (IOException e) {
+                System.err.println("Không thể khởi động HTTP API: " + e.getMessage());
+            }
+        }
+
+        socketServer.start();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.movie.bus;
+
+import com.movie.model.Customer;
+
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phiên đăng nhập của HTTP API: token ngẫu nhiên cấp khi đăng nhập, hết hạn sau SESSION_TTL_MILLIS.
+ * State is shared by every instance, like the holds in SeatHoldBUS.
+ */
+public class SessionBUS {
+    public static final long SESSION_TTL_MILLIS = 8 * 60 * 60 * 1000L;
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private final CustomerBUS customerBUS = new CustomerBUS();
+
+    private static final class Session {
+        final int customerID;
+        final long expiresAt;
+
+        Session(int customerID, long expiresAt) {
+            this.customerID = customerID;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    /**
+     * Checks the credentials and opens a session.
+     * @return The session token, or null if the username or password is wrong.
+     */
+    public String login(String username, String password) throws SQLException {
+        if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu tên đăng nhập hoặc mật khẩu");
+        }
+        Customer customer = customerBUS.authenticate(username, password);
+        if (customer == null) {
+            return null;
+        }
+        purgeExpired();
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(customer.getCustomerID(), System.currentTimeMillis() + SESSION_TTL_MILLIS));
+        return token;
+    }
+
+    /** The customer of a live session, or 0 if the token is unknown or expired. */
+    public int getCustomerID(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            return 0;
+        }
+        if (session.isExpired()) {
+            sessions.remove(token, session);
+            return 0;
+        }
+        return session.customerID;
+    }
+
+    public void logout(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    private void purgeExpired() {
+        sessions.values().removeIf(Session::isExpired);
+    }
+}
\ No newline at end of file
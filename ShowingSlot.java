@@ -0,0 +1,78 @@
+package com.movie.model;
+
+import java.util.Date;
+
+/**
+ * Immutable entry of the "now showing" index: one bookable showtime with its room, time,
+ * price and remaining seats. Booking a seat produces a new instance (see {@link #withBookedSeats(int)}).
+ */
+public final class ShowingSlot {
+    private final int showtimeID;
+    private final int movieID;
+    private final String movieTitle;
+    private final int roomID;
+    private final String roomName;
+    private final long showTime;
+    private final long endTime;
+    private final double price;
+    private final int capacity;
+    private final int bookedSeats;
+
+    public ShowingSlot(int showtimeID, int movieID, String movieTitle, int roomID, String roomName,
+                       Date showDate, int durationMinutes, double price, int capacity, int bookedSeats) {
+        this.showtimeID = showtimeID;
+        this.movieID = movieID;
+        this.movieTitle = movieTitle;
+        this.roomID = roomID;
+        this.roomName = roomName;
+        this.showTime = showDate.getTime();
+        this.endTime = showTime + Math.max(durationMinutes, 0) * 60_000L;
+        this.price = price;
+        this.capacity = capacity;
+        this.bookedSeats = bookedSeats;
+    }
+
+    private ShowingSlot(ShowingSlot other, int bookedSeats) {
+        this.showtimeID = other.showtimeID;
+        this.movieID = other.movieID;
+        this.movieTitle = other.movieTitle;
+        this.roomID = other.roomID;
+        this.roomName = other.roomName;
+        this.showTime = other.showTime;
+        this.endTime = other.endTime;
+        this.price = other.price;
+        this.capacity = other.capacity;
+        this.bookedSeats = bookedSeats;
+    }
+
+    public ShowingSlot withBookedSeats(int count) {
+        return new ShowingSlot(this, bookedSeats + count);
+    }
+
+    public int getShowtimeID() { return showtimeID; }
+
+    public int getMovieID() { return movieID; }
+
+    public String getMovieTitle() { return movieTitle; }
+
+    public int getRoomID() { return roomID; }
+
+    public String getRoomName() { return roomName; }
+
+    public Date getShowDate() { return new Date(showTime); }
+
+    public long getShowTime() { return showTime; }
+
+    public long getEndTime() { return endTime; }
+
+    public double getPrice() { return price; }
+
+    public int getCapacity() { return capacity; }
+
+    public int getRemainingSeats() { return Math.max(capacity - bookedSeats, 0); }
+
+    // Còn đặt được khi suất chiếu chưa kết thúc (giống trạng thái "Đang chiếu"/"Chuẩn bị chiếu" của phòng)
+    public boolean isBookable(long now) {
+        return now < endTime;
+    }
+}
\ No newline at end of file
@@ -13,6 +13,21 @@ public class Showtime {
     private String staffName;
     private String status;
 
+    public Showtime() {
+    }
+
+    public Showtime(Showtime other) {
+        this.showtimeID = other.showtimeID;
+        this.movieID = other.movieID;
+        this.roomID = other.roomID;
+        this.showDate = other.showDate;
+        this.staffID = other.staffID;
+        this.movieTitle = other.movieTitle;
+        this.roomName = other.roomName;
+        this.staffName = other.staffName;
+        this.status = other.status;
+    }
+
     public int getShowtimeID() { return showtimeID; }
     public void setShowtimeID(int showtimeID) { this.showtimeID = showtimeID; }
 
@@ -1,15 +1,22 @@
 package com.movie.bus;
 
 import com.movie.dao.ShowtimeDAO;
+import com.movie.model.ScheduleConflict;
 import com.movie.model.Showtime;
-import com.movie.model.Movie;
+import com.movie.util.DBConnection;
+import com.movie.util.SingleFlight;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 public class ShowtimeBUS {
+    private static final SingleFlight<String, List<Showtime>> allShowtimesFlight = new SingleFlight<>("getAllShowtimes");
+    private static final String ALL_SHOWTIMES = "all";
     private ShowtimeDAO showtimeDAO = new ShowtimeDAO();
-    private MovieBUS movieBUS = new MovieBUS();
+    private ScheduleValidator scheduleValidator = new ScheduleValidator();
 
     public void addShowtime(int movieID, int roomID, Date showDate, int staffID) throws SQLException {
         Showtime showtime = new Showtime();
@@ -17,18 +24,99 @@ public class ShowtimeBUS {
         showtime.setRoomID(roomID);
         showtime.setShowDate(showDate);
         showtime.setStaffID(staffID);
-        showtime.setStatus("Không chiếu"); // Mặc định khi thêm suất chiếu mới
-        showtimeDAO.addShowtime(showtime);
+        showtime.setStatus(ShowtimeStatusEngine.STATUS_NOT_SHOWING); // Mặc định khi thêm suất chiếu mới
+        addShowtime(showtime);
+    }
+
+    private interface ScheduleWrite {
+        void write(Connection conn) throws SQLException;
+    }
+
+    /** Adds the showtime; throws {@link ScheduleConflictException} if it collides with the room's schedule. */
+    public void addShowtime(Showtime showtime) throws SQLException {
+        try {
+            saveValidated(Collections.singletonList(showtime), conn -> showtimeDAO.addShowtime(conn, showtime));
+        } finally {
+            NowShowingBUS.invalidate();
+            ShowtimeStatusEngine.requestReload();
+        }
+    }
+
+    /** Updates the showtime; throws {@link ScheduleConflictException} if it collides with the room's schedule. */
+    public void updateShowtime(Showtime showtime) throws SQLException {
+        try {
+            saveValidated(Collections.singletonList(showtime), conn -> showtimeDAO.updateShowtime(conn, showtime));
+        } finally {
+            NowShowingBUS.invalidate();
+            ShowtimeStatusEngine.requestReload();
+        }
     }
 
     public void updateShowtimeStatus(int showtimeID, String status) throws SQLException {
-        showtimeDAO.updateShowtimeStatus(showtimeID, status);
+        try {
+            showtimeDAO.updateShowtimeStatus(showtimeID, status);
+        } finally {
+            NowShowingBUS.invalidate();
+            ShowtimeStatusEngine.requestReload();
+        }
+    }
+
+    /**
+     * Saves a batch of new showtimes (e.g. a generated week) with one batched insert, after
+     * validating the whole batch; throws {@link ScheduleConflictException} and saves nothing on conflict.
+     */
+    public void addShowtimes(List<Showtime> showtimes) throws SQLException {
+        if (showtimes.isEmpty()) {
+            return;
+        }
+        try {
+            saveValidated(showtimes, conn -> showtimeDAO.addShowtimes(conn, showtimes));
+        } finally {
+            NowShowingBUS.invalidate();
+            ShowtimeStatusEngine.requestReload();
+        }
+    }
+
+    /**
+     * Validates and writes in one transaction: the schedules read by the check stay locked until
+     * commit, so concurrent saves, from this process or any other, cannot both pass the check.
+     */
+    private void saveValidated(List<Showtime> showtimes, ScheduleWrite write) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                scheduleValidator.requireNoConflicts(conn, showtimes);
+                write.write(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Checks a batch of proposed showtimes (e.g. a whole week) without saving anything. */
+    public List<ScheduleConflict> validateSchedule(List<Showtime> showtimes) throws SQLException {
+        return scheduleValidator.validateAll(showtimes);
     }
 
     public List<Showtime> getAllShowtimes() throws SQLException {
-        List<Showtime> showtimes = showtimeDAO.getAllShowtimes();
-        updateShowtimeStatuses(showtimes);
-        return showtimes;
+        // Các lời gọi đồng thời dùng chung một lần đọc; trạng thái do ShowtimeStatusEngine ghi, đọc không ghi
+        List<Showtime> showtimes = allShowtimesFlight.execute(ALL_SHOWTIMES, key -> showtimeDAO.getAllShowtimes());
+        List<Showtime> copies = new ArrayList<>(showtimes.size());
+        for (Showtime showtime : showtimes) {
+            copies.add(new Showtime(showtime));
+        }
+        return copies;
+    }
+
+    public Showtime getShowtimeById(int showtimeID) throws SQLException {
+        if (showtimeID <= 0) {
+            throw new IllegalArgumentException("Invalid showtime ID");
+        }
+        return showtimeDAO.getShowtimeById(showtimeID);
     }
 
     // Thêm phương thức mới để lấy suất chiếu theo roomId và movieId
@@ -37,51 +125,6 @@ public class ShowtimeBUS {
         List<Showtime> filteredShowtimes = showtimes.stream()
                 .filter(showtime -> showtime.getRoomID() == roomId && showtime.getMovieID() == movieId)
                 .toList();
-        updateShowtimeStatuses(filteredShowtimes);
         return filteredShowtimes;
     }
-
-    private void updateShowtimeStatuses(List<Showtime> showtimes) throws SQLException {
-        long currentTime = System.currentTimeMillis(); // Thời gian hiện tại
-
-        for (Showtime showtime : showtimes) {
-            String currentStatus = showtime.getStatus();
-
-            if (currentStatus != null && !currentStatus.equals("Ẩn")) {
-                // Kiểm tra nếu thiếu phim hoặc ngày chiếu
-                if (showtime.getMovieID() == 0 || showtime.getShowDate() == null) {
-                    if (!currentStatus.equals("Không chiếu")) {
-                        showtimeDAO.updateShowtimeStatus(showtime.getShowtimeID(), "Không chiếu");
-                        showtime.setStatus("Không chiếu");
-                    }
-                    continue;
-                }
-
-                long showTime = showtime.getShowDate().getTime();
-                Movie movie = movieBUS.getMovieById(showtime.getMovieID());
-
-                // Nếu không tìm thấy phim hoặc thời lượng <= 0 thì bỏ qua cập nhật
-                if (movie == null || movie.getDuration() <= 0) {
-                    continue;
-                }
-
-                long duration = movie.getDuration() * 60 * 1000L; // phút → milliseconds
-
-                String newStatus;
-                if (currentTime < showTime) {
-                    newStatus = "Sắp công chiếu";
-                } else if (currentTime >= showTime && currentTime < showTime + duration) {
-                    newStatus = "Đang chiếu";
-                } else {
-                    newStatus = "Đã chiếu xong";
-                }
-
-                // Nếu khác trạng thái hiện tại → cập nhật
-                if (!newStatus.equals(currentStatus)) {
-                    showtimeDAO.updateShowtimeStatus(showtime.getShowtimeID(), newStatus);
-                    showtime.setStatus(newStatus);
-                }
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.movie.dao;
 
+import com.movie.model.ShowingSlot;
 import com.movie.model.Showtime;
 import com.movie.util.DBConnection;
+import com.movie.util.IntervalIndex;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -9,14 +11,55 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ShowtimeDAO {
+    private static final String SELECT_SHOWTIMES =
+            "SELECT s.ShowtimeID, s.MovieID, s.RoomID, s.ShowDate, s.StaffID, s.Status, " +
+            "m.Title AS MovieTitle, r.RoomName, st.FullName AS StaffName " +
+            "FROM Showtime s " +
+            "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+            "LEFT JOIN Room r ON s.RoomID = r.RoomID " +
+            "LEFT JOIN Staff st ON s.StaffID = st.StaffID";
+
+    // Suất chiếu có phim, chưa bị ẩn, kèm giá/sức chứa phòng và số vé đã bán; lọc thời gian kết thúc ở tầng BUS
+    private static final String SELECT_BOOKABLE_SHOWINGS =
+            "SELECT s.ShowtimeID, s.MovieID, m.Title, m.Duration, s.RoomID, r.RoomName, r.Price, r.Capacity, s.ShowDate, " +
+            "COUNT(t.TicketID) AS BookedSeats " +
+            "FROM Showtime s " +
+            "JOIN Movie m ON s.MovieID = m.MovieID " +
+            "JOIN Room r ON s.RoomID = r.RoomID " +
+            "LEFT JOIN Ticket t ON t.ShowtimeID = s.ShowtimeID " +
+            "WHERE (s.Status IS NULL OR s.Status <> N'Ẩn') AND s.ShowDate >= ? " +
+            "GROUP BY s.ShowtimeID, s.MovieID, m.Title, m.Duration, s.RoomID, r.RoomName, r.Price, r.Capacity, s.ShowDate";
+
+    // Suất chưa có phim vẫn giữ phòng ít nhất 1 phút từ giờ bắt đầu
+    private static final String SELECT_SCHEDULE =
+            "SELECT s.ShowtimeID, s.RoomID, s.ShowDate, m.Duration " +
+            "FROM Showtime s " +
+            "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+            "WHERE (s.Status IS NULL OR s.Status <> N'Ẩn') AND s.ShowDate >= ? AND s.ShowDate < ?";
+    // Như SELECT_SCHEDULE nhưng khóa cả khoảng ShowDate (kể cả chỗ trống) đến hết giao dịch:
+    // giao dịch khác không chèn hay dời suất vào khoảng này trước khi giao dịch hiện tại commit
+    private static final String SELECT_SCHEDULE_FOR_UPDATE =
+            "SELECT s.ShowtimeID, s.RoomID, s.ShowDate, m.Duration " +
+            "FROM Showtime s WITH (UPDLOCK, HOLDLOCK) " +
+            "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
+            "WHERE (s.Status IS NULL OR s.Status <> N'Ẩn') AND s.ShowDate >= ? AND s.ShowDate < ?";
 
     public void addShowtime(Showtime showtime) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            addShowtime(conn, showtime);
+        }
+    }
+
+    // Ghi trên kết nối của người gọi để kiểm tra lịch và ghi nằm trong cùng giao dịch
+    public void addShowtime(Connection conn, Showtime showtime) throws SQLException {
         String query = "INSERT INTO Showtime (MovieID, RoomID, ShowDate, StaffID, Status) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
             if (showtime.getMovieID() == 0) {
                 stmt.setNull(1, java.sql.Types.INTEGER);
             } else {
@@ -34,10 +77,55 @@ public class ShowtimeDAO {
         }
     }
 
+    /** Inserts the showtimes in one batch and transaction; all or none are saved. */
+    public void addShowtimes(List<Showtime> showtimes) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                addShowtimes(conn, showtimes);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Inserts the showtimes in one batch on the caller's connection and transaction. */
+    public void addShowtimes(Connection conn, List<Showtime> showtimes) throws SQLException {
+        String query = "INSERT INTO Showtime (MovieID, RoomID, ShowDate, StaffID, Status) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (Showtime showtime : showtimes) {
+                if (showtime.getMovieID() == 0) {
+                    stmt.setNull(1, java.sql.Types.INTEGER);
+                } else {
+                    stmt.setInt(1, showtime.getMovieID());
+                }
+                stmt.setInt(2, showtime.getRoomID());
+                stmt.setTimestamp(3, new Timestamp(showtime.getShowDate().getTime()));
+                if (showtime.getStaffID() == 0) {
+                    stmt.setNull(4, java.sql.Types.INTEGER);
+                } else {
+                    stmt.setInt(4, showtime.getStaffID());
+                }
+                stmt.setString(5, showtime.getStatus());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     public void updateShowtime(Showtime showtime) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            updateShowtime(conn, showtime);
+        }
+    }
+
+    public void updateShowtime(Connection conn, Showtime showtime) throws SQLException {
         String query = "UPDATE Showtime SET MovieID = ?, ShowDate = ?, StaffID = ?, Status = ? WHERE ShowtimeID = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
             if (showtime.getMovieID() == 0) {
                 stmt.setNull(1, java.sql.Types.INTEGER);
             } else {
@@ -65,34 +153,146 @@ public class ShowtimeDAO {
         }
     }
 
+    /**
+     * Applies several status changes in one batch and transaction. Hidden showtimes are never
+     * overwritten, even if they were hidden after the change was computed.
+     */
+    public void updateShowtimeStatuses(Map<Integer, String> statuses) throws SQLException {
+        String query = "UPDATE Showtime SET Status = ? WHERE ShowtimeID = ? AND (Status IS NULL OR Status <> N'Ẩn')";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<Integer, String> entry : statuses.entrySet()) {
+                    stmt.setString(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
     public List<Showtime> getAllShowtimes() throws SQLException {
         List<Showtime> showtimes = new ArrayList<>();
-        String query = "SELECT s.ShowtimeID, s.MovieID, s.RoomID, s.ShowDate, s.StaffID, s.Status, " +
-                "m.Title AS MovieTitle, r.RoomName, st.FullName AS StaffName " +
-                "FROM Showtime s " +
-                "LEFT JOIN Movie m ON s.MovieID = m.MovieID " +
-                "LEFT JOIN Room r ON s.RoomID = r.RoomID " +
-                "LEFT JOIN Staff st ON s.StaffID = st.StaffID";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SHOWTIMES);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Showtime showtime = new Showtime();
-                showtime.setShowtimeID(rs.getInt("ShowtimeID"));
-                showtime.setMovieID(rs.getInt("MovieID"));
-                showtime.setRoomID(rs.getInt("RoomID"));
-                showtime.setShowDate(rs.getTimestamp("ShowDate"));
-                showtime.setStaffID(rs.getInt("StaffID"));
-                showtime.setStatus(rs.getString("Status"));
-                showtime.setMovieTitle(rs.getString("MovieTitle"));
-                showtime.setRoomName(rs.getString("RoomName"));
-                showtime.setStaffName(rs.getString("StaffName"));
-                showtimes.add(showtime);
+                showtimes.add(mapResultSetToShowtime(rs));
             }
         }
         return showtimes;
     }
 
+    public Showtime getShowtimeById(int showtimeID) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SHOWTIMES + " WHERE s.ShowtimeID = ?")) {
+            stmt.setInt(1, showtimeID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToShowtime(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the showtimes that can still be booked or are currently running, starting at or
+     * after {@code since}, with the number of tickets already sold for each.
+     */
+    public List<ShowingSlot> getBookableShowings(Date since) throws SQLException {
+        List<ShowingSlot> slots = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKABLE_SHOWINGS)) {
+            stmt.setTimestamp(1, new Timestamp(since.getTime()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    slots.add(new ShowingSlot(
+                            rs.getInt("ShowtimeID"),
+                            rs.getInt("MovieID"),
+                            rs.getString("Title"),
+                            rs.getInt("RoomID"),
+                            rs.getString("RoomName"),
+                            rs.getTimestamp("ShowDate"),
+                            rs.getInt("Duration"),
+                            rs.getDouble("Price"),
+                            rs.getInt("Capacity"),
+                            rs.getInt("BookedSeats")));
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns, per room, the [ShowDate, ShowDate + Duration) intervals of the non-hidden showtimes
+     * starting in [from, to), tagged with their ShowtimeID.
+     */
+    public Map<Integer, IntervalIndex> getRoomSchedules(Date from, Date to) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return readRoomSchedules(conn, SELECT_SCHEDULE, from, to);
+        }
+    }
+
+    /**
+     * Same as {@link #getRoomSchedules} on the caller's transaction, locking the range read until it
+     * ends so no other transaction can add or move a showtime into it first.
+     */
+    public Map<Integer, IntervalIndex> getRoomSchedulesForUpdate(Connection conn, Date from, Date to) throws SQLException {
+        return readRoomSchedules(conn, SELECT_SCHEDULE_FOR_UPDATE, from, to);
+    }
+
+    private Map<Integer, IntervalIndex> readRoomSchedules(Connection conn, String query, Date from, Date to) throws SQLException {
+        Map<Integer, List<long[]>> rowsByRoom = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setTimestamp(1, new Timestamp(from.getTime()));
+            stmt.setTimestamp(2, new Timestamp(to.getTime()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long start = rs.getTimestamp("ShowDate").getTime();
+                    long end = start + Math.max(rs.getInt("Duration"), 1) * 60_000L;
+                    rowsByRoom.computeIfAbsent(rs.getInt("RoomID"), k -> new ArrayList<>())
+                            .add(new long[]{start, end, rs.getInt("ShowtimeID")});
+                }
+            }
+        }
+        Map<Integer, IntervalIndex> schedules = new HashMap<>();
+        rowsByRoom.forEach((roomID, rows) -> {
+            long[] starts = new long[rows.size()];
+            long[] ends = new long[rows.size()];
+            int[] ids = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                starts[i] = rows.get(i)[0];
+                ends[i] = rows.get(i)[1];
+                ids[i] = (int) rows.get(i)[2];
+            }
+            schedules.put(roomID, new IntervalIndex(starts, ends, ids));
+        });
+        return schedules;
+    }
+
+    private Showtime mapResultSetToShowtime(ResultSet rs) throws SQLException {
+        Showtime showtime = new Showtime();
+        showtime.setShowtimeID(rs.getInt("ShowtimeID"));
+        showtime.setMovieID(rs.getInt("MovieID"));
+        showtime.setRoomID(rs.getInt("RoomID"));
+        showtime.setShowDate(rs.getTimestamp("ShowDate"));
+        showtime.setStaffID(rs.getInt("StaffID"));
+        showtime.setStatus(rs.getString("Status"));
+        showtime.setMovieTitle(rs.getString("MovieTitle"));
+        showtime.setRoomName(rs.getString("RoomName"));
+        showtime.setStaffName(rs.getString("StaffName"));
+        return showtime;
+    }
+
     public void deleteShowtime(int showtimeID) throws SQLException {
         String query = "DELETE FROM Showtime WHERE ShowtimeID = ?";
         try (Connection conn = DBConnection.getConnection();
@@ -0,0 +1,214 @@
+package com.movie.bus;
+
+import com.movie.dao.MovieDAO;
+import com.movie.dao.ShowtimeDAO;
+import com.movie.model.Movie;
+import com.movie.model.Showtime;
+import com.movie.network.SocketClient;
+import com.movie.network.SocketServer;
+import com.movie.network.ThreadManager;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps Showtime.Status in step with the clock without writing on read.
+ * <p>
+ * For every showtime the engine works out the next transition
+ * ("Sắp công chiếu" → "Đang chiếu" at the start time, "Đang chiếu" → "Đã chiếu xong" at
+ * start + movie duration) and keeps them in a priority queue ordered by due time. A single
+ * scheduler thread sleeps until the head is due, applies every transition that is due in one
+ * batched UPDATE and queues the follow-up transitions.
+ * <p>
+ * Showtime and movie changes call {@link #requestReload()}, which rebuilds the queue from the
+ * database; a full resync also runs periodically in case of changes made outside the application.
+ * All queue state is confined to the scheduler thread. The engine is started only by
+ * {@link com.movie.Server}; clients forward their reload requests to it over the socket.
+ */
+public final class ShowtimeStatusEngine {
+    public static final String STATUS_NOT_SHOWING = "Không chiếu";
+    public static final String STATUS_UPCOMING = "Sắp công chiếu";
+    public static final String STATUS_SHOWING = "Đang chiếu";
+    public static final String STATUS_FINISHED = "Đã chiếu xong";
+    public static final String STATUS_HIDDEN = "Ẩn";
+
+    private static final long RESYNC_INTERVAL_MINUTES = 30;
+    private static final ShowtimeStatusEngine INSTANCE = new ShowtimeStatusEngine();
+
+    private final ShowtimeDAO showtimeDAO = new ShowtimeDAO();
+    private final MovieDAO movieDAO = new MovieDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "showtime-status");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Chỉ truy cập từ luồng scheduler
+    private final PriorityQueue<Transition> queue = new PriorityQueue<>();
+    private ScheduledFuture<?> wakeUp;
+    private volatile boolean started;
+
+    private static final class Transition implements Comparable<Transition> {
+        final int showtimeID;
+        final long dueAt;
+        final String status;
+        // Thời điểm kết thúc, để xếp bước tiếp theo sau khi chuyển sang "Đang chiếu"
+        final long endAt;
+
+        Transition(int showtimeID, long dueAt, String status, long endAt) {
+            this.showtimeID = showtimeID;
+            this.dueAt = dueAt;
+            this.status = status;
+            this.endAt = endAt;
+        }
+
+        @Override
+        public int compareTo(Transition other) {
+            return Long.compare(dueAt, other.dueAt);
+        }
+    }
+
+    private ShowtimeStatusEngine() {
+    }
+
+    public static ShowtimeStatusEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /** Loads every showtime, fixes stale statuses and starts scheduling. Safe to call more than once. */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduler.scheduleWithFixedDelay(this::reload, 0, RESYNC_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Rebuilds the schedule after a showtime or movie change; runs asynchronously. Where the engine
+     * is not running (a client), the server is asked to reload instead.
+     */
+    public static void requestReload() {
+        if (INSTANCE.started) {
+            INSTANCE.scheduler.execute(INSTANCE::reload);
+        } else {
+            ThreadManager.execute(() -> SocketClient.sendOnce("localhost", 5000, SocketServer.SHOWTIMES_CHANGED_COMMAND));
+        }
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The status a showtime should have at the given time, or null if it is managed by hand
+     * (hidden, no status) or cannot be computed (movie missing or without a duration).
+     */
+    static String computeStatus(Showtime showtime, Movie movie, long now) {
+        String currentStatus = showtime.getStatus();
+        if (currentStatus == null || currentStatus.equals(STATUS_HIDDEN)) {
+            return null;
+        }
+        if (showtime.getMovieID() == 0 || showtime.getShowDate() == null) {
+            return STATUS_NOT_SHOWING;
+        }
+        if (movie == null || movie.getDuration() <= 0) {
+            return null;
+        }
+        long start = showtime.getShowDate().getTime();
+        long end = start + movie.getDuration() * 60_000L;
+        if (now < start) {
+            return STATUS_UPCOMING;
+        }
+        return now < end ? STATUS_SHOWING : STATUS_FINISHED;
+    }
+
+    private void reload() {
+        try {
+            List<Showtime> showtimes = showtimeDAO.getAllShowtimes();
+            Map<Integer, Movie> movies = new HashMap<>();
+            for (Movie movie : movieDAO.getAllMovies()) {
+                movies.put(movie.getMovieID(), movie);
+            }
+
+            queue.clear();
+            long now = System.currentTimeMillis();
+            Map<Integer, String> corrections = new LinkedHashMap<>();
+            for (Showtime showtime : showtimes) {
+                Movie movie = movies.get(showtime.getMovieID());
+                String status = computeStatus(showtime, movie, now);
+                if (status == null) {
+                    continue;
+                }
+                if (!status.equals(showtime.getStatus())) {
+                    corrections.put(showtime.getShowtimeID(), status);
+                }
+                if (!status.equals(STATUS_NOT_SHOWING)) {
+                    long start = showtime.getShowDate().getTime();
+                    long end = start + movie.getDuration() * 60_000L;
+                    scheduleAfter(showtime.getShowtimeID(), status, start, end);
+                }
+            }
+            apply(corrections);
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Không thể tải lịch chiếu cho bộ cập nhật trạng thái: " + e.getMessage());
+        }
+        rescheduleWakeUp();
+    }
+
+    private void scheduleAfter(int showtimeID, String status, long start, long end) {
+        Transition next = null;
+        if (status.equals(STATUS_UPCOMING)) {
+            next = new Transition(showtimeID, start, STATUS_SHOWING, end);
+        } else if (status.equals(STATUS_SHOWING)) {
+            next = new Transition(showtimeID, end, STATUS_FINISHED, end);
+        }
+        if (next != null) {
+            queue.add(next);
+        }
+    }
+
+    private void runDue() {
+        long now = System.currentTimeMillis();
+        Map<Integer, String> due = new LinkedHashMap<>();
+        while (!queue.isEmpty() && queue.peek().dueAt <= now) {
+            Transition transition = queue.poll();
+            due.put(transition.showtimeID, transition.status);
+            scheduleAfter(transition.showtimeID, transition.status, transition.dueAt, transition.endAt);
+        }
+        apply(due);
+        rescheduleWakeUp();
+    }
+
+    private void apply(Map<Integer, String> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        try {
+            showtimeDAO.updateShowtimeStatuses(statuses);
+        } catch (SQLException e) {
+            // Lần đồng bộ kế tiếp sẽ sửa lại các trạng thái chưa ghi được
+            System.err.println("Không thể cập nhật trạng thái " + statuses.size() + " suất chiếu: " + e.getMessage());
+        }
+    }
+
+    private void rescheduleWakeUp() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        Transition head = queue.peek();
+        if (head != null) {
+            long delay = Math.max(0, head.dueAt - System.currentTimeMillis());
+            wakeUp = scheduler.schedule(this::runDue, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.movie.util;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent identical reads: while a load for a key is in flight, other callers
+ * with the same key wait for it and receive the same result instead of querying again.
+ * Nothing is kept after the load finishes, so this is not a cache; the result is shared,
+ * so callers that hand it to the UI should copy it.
+ * <p>
+ * Each instance can be switched off with the system property singleflight.&lt;name&gt;=false
+ * or {@link #setEnabled(boolean)}; counters are exported like {@link TtlCache}'s.
+ */
+public class SingleFlight<K, V> {
+    private static final List<SingleFlight<?, ?>> registry = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private volatile boolean enabled;
+
+    public SingleFlight(String name) {
+        this.name = name;
+        this.enabled = !"false".equalsIgnoreCase(System.getProperty("singleflight." + name));
+        registry.add(this);
+    }
+
+    public static List<SingleFlight<?, ?>> getAll() {
+        return registry;
+    }
+
+    public V execute(K key, TtlCache.Loader<K, V> loader) throws SQLException {
+        calls.increment();
+        if (!enabled) {
+            executions.increment();
+            return loader.load(key);
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            deduplicated.increment();
+            return await(existing);
+        }
+        executions.increment();
+        try {
+            V value = loader.load(key);
+            future.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw new SQLException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+}
\ No newline at end of file
@@ -2,9 +2,13 @@ package com.movie.network;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import javax.swing.JOptionPane;
 
 public class SocketClient {
+    private static final int CONNECT_TIMEOUT_MILLIS = 3000;
+    private static final int REPLY_TIMEOUT_MILLIS = 3000;
+
     private Socket socket;
     private PrintWriter out;
     private BufferedReader in;
@@ -12,6 +16,7 @@ public class SocketClient {
     private int serverPort;
     private volatile boolean isConnected; // Thread-safe flag
     private volatile boolean shouldStop; // Control stopping
+    private volatile MessageListener listener; // Nhận tin nhắn từ luồng đọc duy nhất
 
     public SocketClient(String serverAddress, int serverPort) {
         this.serverAddress = serverAddress;
@@ -24,8 +29,8 @@ public class SocketClient {
         new Thread(() -> {
             try {
                 socket = new Socket(serverAddress, serverPort);
-                out = new PrintWriter(socket.getOutputStream(), true);
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+                in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
                 synchronized (this) {
                     isConnected = true;
                     notifyAll(); // Notify waiting threads
@@ -50,6 +55,45 @@ public class SocketClient {
         }
     }
 
+    /**
+     * Connects, sends one line and disconnects, for notifications that expect no reply.
+     * Failures are only logged: there is nothing the caller could show the user.
+     */
+    public static void sendOnce(String serverAddress, int serverPort, String message) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(serverAddress, serverPort), CONNECT_TIMEOUT_MILLIS);
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            writer.println(message);
+        } catch (IOException e) {
+            System.err.println("Không thể gửi tới server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Connects, sends one line and returns the first line starting with {@code replyPrefix},
+     * skipping the broadcasts that arrive meanwhile. Returns null if the server cannot be reached
+     * or does not answer in time; the failure is only logged.
+     */
+    public static String requestOnce(String serverAddress, int serverPort, String message, String replyPrefix) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(serverAddress, serverPort), CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(REPLY_TIMEOUT_MILLIS);
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer.println(message);
+            long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MILLIS;
+            String line;
+            while ((line = reader.readLine()) != null && System.currentTimeMillis() < deadline) {
+                if (line.startsWith(replyPrefix)) {
+                    return line;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Không nhận được trả lời từ server: " + e.getMessage());
+        }
+        return null;
+    }
+
     public void sendMessage(String message) {
         if (isConnected && out != null && !shouldStop) {
             out.println(message);
@@ -78,19 +122,17 @@ public class SocketClient {
     }
 
     public void addMessageListener(MessageListener listener) {
-        new Thread(() -> listenForMessages(listener)).start();
+        // Chỉ có một luồng đọc socket (tạo trong start()); hai luồng cùng đọc sẽ chia nhau mất tin nhắn
+        this.listener = listener;
     }
 
     private void listenForMessages() {
-        listenForMessages(null);
-    }
-
-    private void listenForMessages(MessageListener listener) {
         try {
             String message;
             while (isConnected && !shouldStop && (message = in.readLine()) != null) {
-                if (listener != null) {
-                    listener.onMessage(message);
+                MessageListener current = listener;
+                if (current != null) {
+                    current.onMessage(message);
                 }
             }
         } catch (IOException e) {
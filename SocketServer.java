@@ -1,26 +1,84 @@
 package com.movie.network;
 
+import com.movie.bus.LiveRevenueCounters;
+import com.movie.bus.SeatHoldBUS;
+import com.movie.bus.ShowtimeStatusEngine;
+import com.movie.model.LiveRevenueSnapshot;
+import com.movie.util.DBConnection;
+import com.movie.util.LatencyRecorder;
+import com.movie.util.PasswordEncrypter;
+import com.movie.util.SingleFlight;
+import com.movie.util.TtlCache;
+
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SocketServer {
-    private ServerSocket serverSocket;
+    /** Sent by a client as STATS; only answered on a connection that logged in as admin, otherwise {@link #STATS_DENIED}. */
+    public static final String STATS_COMMAND = "STATS";
+    public static final String STATS_DENIED = "STATS_DENIED";
+    /** Sent by a client to get the held seats per showtime; the reply is HOLDS:showtimeID>count|... */
+    public static final String HOLDS_COMMAND = "HOLDS";
+    /** ADMIN_LOGIN:username:password, checked against admin.properties; the reply is ADMIN_LOGIN:OK or ADMIN_LOGIN:FAIL. */
+    public static final String ADMIN_LOGIN_COMMAND = "ADMIN_LOGIN";
+    /** Sent by a client to receive REVENUE:... lines: a full snapshot, then the changes at most once per push interval. */
+    public static final String REVENUE_COMMAND = "REVENUE";
+    /** Sent by a client after changing showtimes or movies, so the status engine in this process reloads. */
+    public static final String SHOWTIMES_CHANGED_COMMAND = "SHOWTIMES_CHANGED";
+    /**
+     * Sent by the client that committed a booking, so the live revenue counters read the new
+     * bookings from the database at once. Carries no figures and is never broadcast.
+     */
+    public static final String BOOKED_COMMAND = "BOOKED";
+    // Gộp mọi lượt đặt vé trong khoảng này vào một tin, dù bán được bao nhiêu vé
+    private static final long REVENUE_PUSH_MILLIS = Long.getLong("revenue.pushMillis", 1000);
+
+    private ServerSocketChannel serverChannel;
     private int port;
     private CopyOnWriteArrayList<ClientHandler> clients = new CopyOnWriteArrayList<>();
+    private final RealtimeStats stats = new RealtimeStats();
+    private final SeatHoldBUS seatHoldBUS = new SeatHoldBUS();
+    private final Properties adminCredentials = loadAdminCredentials();
+    private final ScheduledExecutorService revenueFeed = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "revenue-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public SocketServer(int port) {
         this.port = port;
     }
 
+    /** Opens the listening socket; call before {@link #start()} to find out whether the port is free. */
+    public void bind() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        System.out.println("Server đang chạy trên cổng " + port);
+    }
+
     public void start() {
         try {
-            serverSocket = new ServerSocket(port);
-            System.out.println("Server đang chạy trên cổng " + port);
+            if (serverChannel == null) {
+                bind();
+            }
+            revenueFeed.scheduleWithFixedDelay(this::pushRevenue, REVENUE_PUSH_MILLIS, REVENUE_PUSH_MILLIS, TimeUnit.MILLISECONDS);
 
             while (true) {
-                Socket clientSocket = serverSocket.accept();
-                ClientHandler clientHandler = new ClientHandler(clientSocket, this);
+                SocketChannel clientChannel = serverChannel.accept();
+                ClientHandler clientHandler = new ClientHandler(clientChannel, this);
                 clients.add(clientHandler);
                 new Thread(clientHandler).start();
             }
@@ -29,23 +87,184 @@ public class SocketServer {
         }
     }
 
+    /**
+     * Encodes a message (plus the line terminator) once into a read-only direct buffer.
+     * The result can be shared by any number of writers through {@link ByteBuffer#duplicate()}.
+     */
+    public static ByteBuffer encode(String message) {
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(message + "\n");
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.remaining());
+        direct.put(encoded).flip();
+        return direct.asReadOnlyBuffer();
+    }
+
     public void broadcast(String message) {
+        broadcastFrame(encode(message));
+    }
+
+    private void broadcastFrame(ByteBuffer... frame) {
+        long start = System.nanoTime();
         clients.removeIf(client -> !client.isValid());
         for (ClientHandler client : clients) {
             if (client.isValid()) {
-                client.sendMessage(message);
+                client.send(frame);
+            }
+        }
+        stats.recordFanout(System.nanoTime() - start);
+    }
+
+    RealtimeStats getStats() {
+        return stats;
+    }
+
+    private static Properties loadAdminCredentials() {
+        Properties props = new Properties();
+        try (InputStream in = SocketServer.class.getResourceAsStream("/admin.properties")) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("Lỗi khi tải file admin.properties: " + e.getMessage());
+        }
+        if (props.getProperty("admin.username") == null || props.getProperty("admin.password") == null) {
+            // Không có tài khoản admin thì không kết nối nào xem được số liệu giám sát
+            System.err.println("Thiếu admin.username hoặc admin.password: lệnh STATS sẽ bị từ chối");
+        }
+        return props;
+    }
+
+    /** Same check as the admin login of the client (LoginFrame). */
+    boolean isAdmin(String username, String password) {
+        String adminUsername = adminCredentials.getProperty("admin.username");
+        String adminPasswordHash = adminCredentials.getProperty("admin.password");
+        return adminUsername != null && adminPasswordHash != null
+                && adminUsername.equals(username) && PasswordEncrypter.checkPassword(password, adminPasswordHash);
+    }
+
+    /**
+     * Builds the reply to the STATS admin command, one line in the same plain-text style as
+     * the rest of the protocol: STATS:key=value;key=value...
+     * Per-client queue depths and per-showtime hold counts are encoded as id>count pairs joined by '|';
+     * each cache is reported as cache.name=hits/misses/size and each single-flight read as
+     * flight.name=calls/executions/deduplicated.
+     */
+    public String buildStatsMessage() {
+        LatencyRecorder fanout = stats.getFanoutLatency();
+        StringBuilder sb = new StringBuilder(STATS_COMMAND).append(':');
+        sb.append("clients=").append(clients.size());
+        sb.append(";inPerSec=").append(String.format("%.1f", stats.getInPerSecond()));
+        sb.append(";outPerSec=").append(String.format("%.1f", stats.getOutPerSecond()));
+        sb.append(";inTotal=").append(stats.getMessagesIn());
+        sb.append(";outTotal=").append(stats.getMessagesOut());
+        sb.append(";fanoutCount=").append(fanout.getCount());
+        sb.append(";fanoutP50Ms=").append(String.format("%.3f", fanout.getPercentileMillis(50)));
+        sb.append(";fanoutP95Ms=").append(String.format("%.3f", fanout.getPercentileMillis(95)));
+        sb.append(";fanoutP99Ms=").append(String.format("%.3f", fanout.getPercentileMillis(99)));
+        sb.append(";fanoutMaxMs=").append(String.format("%.3f", fanout.getMaxMillis()));
+        sb.append(";queue=");
+        String separator = "";
+        for (ClientHandler client : clients) {
+            sb.append(separator).append(client.getName()).append('>').append(client.getQueueDepth());
+            separator = "|";
+        }
+        sb.append(";holds=");
+        appendHoldCounts(sb);
+        sb.append(";dbOpen=").append(DBConnection.getOpenConnections());
+        sb.append(";dbPeak=").append(DBConnection.getPeakConnections());
+        sb.append(";dbTotal=").append(DBConnection.getTotalConnections());
+        for (TtlCache<?, ?> cache : TtlCache.getAll()) {
+            sb.append(";cache.").append(cache.getName()).append('=')
+                    .append(cache.getHits()).append('/').append(cache.getMisses()).append('/').append(cache.size());
+        }
+        for (SingleFlight<?, ?> flight : SingleFlight.getAll()) {
+            sb.append(";flight.").append(flight.getName()).append('=')
+                    .append(flight.getCalls()).append('/').append(flight.getExecutions()).append('/').append(flight.getDeduplicated());
+        }
+        return sb.toString();
+    }
+
+    /** Reply to HOLDS: the seats held in this process (the HTTP API holds them), per showtime. */
+    public String buildHoldsMessage() {
+        StringBuilder sb = new StringBuilder(HOLDS_COMMAND).append(':');
+        appendHoldCounts(sb);
+        return sb.toString();
+    }
+
+    private void appendHoldCounts(StringBuilder sb) {
+        String separator = "";
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(seatHoldBUS.getHoldCounts()).entrySet()) {
+            sb.append(separator).append(entry.getKey()).append('>').append(entry.getValue());
+            separator = "|";
+        }
+    }
+
+    /**
+     * Sends the live revenue changes since the last push to the subscribed clients, encoded once
+     * for all of them; a client that has just subscribed, or every client after midnight, gets the
+     * full snapshot instead. Runs on the revenue-feed thread only, so each client sees the lines in order.
+     */
+    private void pushRevenue() {
+        try {
+            LiveRevenueCounters counters = LiveRevenueCounters.getInstance();
+            LiveRevenueSnapshot changes = counters.drainChanges();
+            ByteBuffer update = changes == null ? null : encode(buildRevenueMessage(changes));
+            ByteBuffer full = changes != null && changes.isFull() ? update : null;
+            for (ClientHandler client : clients) {
+                if (!client.isValid() || !client.isRevenueSubscriber()) {
+                    continue;
+                }
+                if (client.takeRevenueSnapshotRequest() || full != null) {
+                    if (full == null) {
+                        full = encode(buildRevenueMessage(counters.snapshot()));
+                    }
+                    client.send(full);
+                } else if (update != null) {
+                    client.send(update);
+                }
             }
+        } catch (RuntimeException e) {
+            // Lỗi không được thoát ra ngoài, nếu không lịch đẩy sẽ dừng hẳn
+            System.err.println("Không thể gửi doanh thu trực tiếp: " + e.getMessage());
         }
     }
 
+    /**
+     * One REVENUE line: REVENUE:date=yyyy-MM-dd;full=1|0;tickets=n;revenue=cents;movies=...;showtimes=...
+     * Movies and showtimes are key>tickets>cents entries joined by '|', movie titles URL-encoded;
+     * revenue is in hundredths of a VND.
+     */
+    public static String buildRevenueMessage(LiveRevenueSnapshot snapshot) {
+        StringBuilder sb = new StringBuilder(REVENUE_COMMAND).append(':');
+        sb.append("date=").append(snapshot.getDate());
+        sb.append(";full=").append(snapshot.isFull() ? 1 : 0);
+        sb.append(";tickets=").append(snapshot.getTotal().getTickets());
+        sb.append(";revenue=").append(snapshot.getTotal().getRevenueCents());
+        sb.append(";movies=");
+        String separator = "";
+        for (Map.Entry<String, LiveRevenueSnapshot.Counts> entry : snapshot.getByMovie().entrySet()) {
+            sb.append(separator).append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('>')
+                    .append(entry.getValue().getTickets()).append('>').append(entry.getValue().getRevenueCents());
+            separator = "|";
+        }
+        sb.append(";showtimes=");
+        separator = "";
+        for (Map.Entry<Integer, LiveRevenueSnapshot.Counts> entry : snapshot.getByShowtime().entrySet()) {
+            sb.append(separator).append(entry.getKey()).append('>')
+                    .append(entry.getValue().getTickets()).append('>').append(entry.getValue().getRevenueCents());
+            separator = "|";
+        }
+        return sb.toString();
+    }
+
     public void removeClient(ClientHandler clientHandler) {
         clients.remove(clientHandler);
     }
 
     public void stop() {
+        revenueFeed.shutdownNow();
         try {
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
+            if (serverChannel != null && serverChannel.isOpen()) {
+                serverChannel.close();
             }
             for (ClientHandler client : clients) {
                 client.stop();
@@ -57,19 +276,27 @@ public class SocketServer {
 }
 
 class ClientHandler implements Runnable {
-    private Socket socket;
+    private SocketChannel channel;
     private SocketServer server;
-    private PrintWriter out;
     private BufferedReader in;
     private volatile boolean isValid;
+    private final String name;
+    // Số frame đang chờ ghi tới client này (các luồng broadcast xếp hàng trên khóa ghi)
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private volatile boolean revenueSubscriber;
+    // Đã đăng nhập bằng tài khoản admin trên kết nối này
+    private volatile boolean admin;
+    // Đã đăng ký nhưng chưa nhận ảnh chụp đầy đủ; luồng revenue-feed gửi để giữ đúng thứ tự các tin
+    private final AtomicBoolean revenueSnapshotRequested = new AtomicBoolean();
 
-    public ClientHandler(Socket socket, SocketServer server) {
-        this.socket = socket;
+    public ClientHandler(SocketChannel channel, SocketServer server) {
+        this.channel = channel;
         this.server = server;
         this.isValid = true;
+        this.name = String.valueOf(channel.socket().getRemoteSocketAddress());
         try {
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            channel.socket().setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(channel.socket().getInputStream(), StandardCharsets.UTF_8));
         } catch (IOException e) {
             isValid = false;
             e.printStackTrace();
@@ -81,6 +308,37 @@ class ClientHandler implements Runnable {
         try {
             String message;
             while (isValid && (message = in.readLine()) != null) {
+                server.getStats().messageReceived();
+                if (message.startsWith(SocketServer.ADMIN_LOGIN_COMMAND + ":")) {
+                    // Không broadcast, không ghi log: tin chứa mật khẩu
+                    String[] parts = message.split(":", 3);
+                    admin = parts.length == 3 && server.isAdmin(parts[1], parts[2]);
+                    sendMessage(SocketServer.ADMIN_LOGIN_COMMAND + (admin ? ":OK" : ":FAIL"));
+                    continue;
+                }
+                if (message.equals(SocketServer.STATS_COMMAND)) {
+                    // Lệnh quản trị: chỉ trả lời cho client đã hỏi, không broadcast
+                    sendMessage(admin ? server.buildStatsMessage() : SocketServer.STATS_DENIED);
+                    continue;
+                }
+                if (message.equals(SocketServer.HOLDS_COMMAND)) {
+                    sendMessage(server.buildHoldsMessage());
+                    continue;
+                }
+                if (message.equals(SocketServer.REVENUE_COMMAND)) {
+                    revenueSnapshotRequested.set(true);
+                    revenueSubscriber = true;
+                    continue;
+                }
+                if (message.equals(SocketServer.BOOKED_COMMAND)) {
+                    // Chỉ là tín hiệu: số vé và doanh thu luôn đọc lại từ các dòng đã commit
+                    LiveRevenueCounters.getInstance().requestCatchUp();
+                    continue;
+                }
+                if (message.equals(SocketServer.SHOWTIMES_CHANGED_COMMAND)) {
+                    ShowtimeStatusEngine.requestReload();
+                    continue;
+                }
                 System.out.println("Nhận từ client: " + message);
                 server.broadcast(message);
             }
@@ -94,13 +352,59 @@ class ClientHandler implements Runnable {
     }
 
     public void sendMessage(String message) {
-        if (isValid && out != null) {
-            out.println(message);
+        send(SocketServer.encode(message));
+    }
+
+    /**
+     * Writes a shared frame to this client. Each segment is duplicated so the shared
+     * buffers' positions are never touched and no bytes are copied.
+     */
+    public void send(ByteBuffer... frame) {
+        if (!isValid) {
+            return;
+        }
+        ByteBuffer[] views = new ByteBuffer[frame.length];
+        long remaining = 0;
+        for (int i = 0; i < frame.length; i++) {
+            views[i] = frame[i].duplicate();
+            remaining += views[i].remaining();
         }
+        queueDepth.incrementAndGet();
+        try {
+            // Khóa theo client để các frame từ nhiều luồng broadcast không bị xen kẽ
+            synchronized (this) {
+                while (remaining > 0) {
+                    remaining -= channel.write(views);
+                }
+            }
+            server.getStats().messageSent();
+        } catch (IOException e) {
+            System.err.println("Không thể gửi tới client: " + e.getMessage());
+            stop();
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRevenueSubscriber() {
+        return revenueSubscriber;
+    }
+
+    /** True once after the client subscribed to revenue updates. */
+    public boolean takeRevenueSnapshotRequest() {
+        return revenueSnapshotRequested.getAndSet(false);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
     }
 
     public boolean isValid() {
-        return isValid && socket != null && !socket.isClosed();
+        return isValid && channel != null && channel.isOpen();
     }
 
     public void stop() {
@@ -110,11 +414,11 @@ class ClientHandler implements Runnable {
 
     private void cleanup() {
         try {
-            if (out != null) out.close();
-            if (in != null) in.close();
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
+            // Đóng channel trước để giải phóng luồng đang chặn ở readLine()
+            if (channel != null && channel.isOpen()) {
+                channel.close();
             }
+            if (in != null) in.close();
             server.removeClient(this);
         } catch (IOException e) {
             e.printStackTrace();
@@ -0,0 +1,120 @@
+package com.movie.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K summary: at most capacity counters. A new key on a full summary takes over
+ * the smallest counter and inherits its count as the possible overcount (error), so any key
+ * whose true weight exceeds total / capacity is always present and counts are never too low.
+ * Summaries merge (Agarwal et al., "Mergeable summaries"), so daily summaries add up to any range.
+ * Not thread-safe.
+ */
+public final class SpaceSaving<K> {
+    /** One tracked key: count is an upper bound, count - error a lower bound of its true weight. */
+    public static final class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() { return key; }
+
+        public long getCount() { return count; }
+
+        public long getError() { return error; }
+
+        public long getGuaranteedCount() { return count - error; }
+    }
+
+    private final int capacity;
+    // key -> {count, error}
+    private final Map<K, long[]> counters = new HashMap<>();
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() { return capacity; }
+
+    /** Adds weight (e.g. tickets) to a key. */
+    public void offer(K key, long weight) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{weight, 0});
+            return;
+        }
+        // Quét tìm bộ đếm nhỏ nhất: capacity nhỏ (vài trăm) nên rẻ hơn giữ thêm cấu trúc sắp xếp
+        K minKey = null;
+        long[] min = null;
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{min[0] + weight, min[0]});
+    }
+
+    /** Adds another summary of the same capacity. */
+    public void merge(SpaceSaving<K> other) {
+        // Khóa vắng mặt ở một bên có thể đã bị đẩy ra ở bên đó với số đếm tới mức nhỏ nhất của bên đó
+        long minHere = counters.size() < capacity ? 0 : minCount();
+        long minThere = other.counters.size() < other.capacity ? 0 : other.minCount();
+        Map<K, long[]> combined = new HashMap<>();
+        counters.forEach((key, counter) -> {
+            long[] theirs = other.counters.get(key);
+            combined.put(key, theirs != null
+                    ? new long[]{counter[0] + theirs[0], counter[1] + theirs[1]}
+                    : new long[]{counter[0] + minThere, counter[1] + minThere});
+        });
+        other.counters.forEach((key, theirs) -> {
+            if (!counters.containsKey(key)) {
+                combined.put(key, new long[]{theirs[0] + minHere, theirs[1] + minHere});
+            }
+        });
+        List<Map.Entry<K, long[]>> ordered = new ArrayList<>(combined.entrySet());
+        ordered.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        counters.clear();
+        for (int i = 0; i < Math.min(capacity, ordered.size()); i++) {
+            counters.put(ordered.get(i).getKey(), ordered.get(i).getValue());
+        }
+    }
+
+    public SpaceSaving<K> copy() {
+        SpaceSaving<K> copy = new SpaceSaving<>(capacity);
+        counters.forEach((key, counter) -> copy.counters.put(key, counter.clone()));
+        return copy;
+    }
+
+    /** The n heaviest keys, heaviest first. */
+    public List<Entry<K>> top(int n) {
+        List<Entry<K>> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry<>(key, counter[0], counter[1])));
+        entries.sort((a, b) -> Long.compare(b.count, a.count));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    private long minCount() {
+        long min = Long.MAX_VALUE;
+        for (long[] counter : counters.values()) {
+            min = Math.min(min, counter[0]);
+        }
+        return min;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.movie.ui;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content-addressed on-disk store of pre-scaled poster thumbnails, so a client start does not
+ * decode any full-size poster. The file name is a SHA-256 of source path + mtime + target size,
+ * so a changed poster simply gets a new entry. Thumbnails are stored as raw ARGB pixels behind a
+ * small header and read back through a memory-mapped buffer, without any image decoding.
+ * <p>
+ * The directory defaults to ~/.movie-booking/thumbnails and can be changed with -Dthumbnail.dir.
+ * Replaced posters leave their old entries behind, so the first use of the store in a process
+ * deletes the least recently used entries beyond -Dthumbnail.maxMB (default 64). Reads refresh
+ * an entry's modification time (at most once a day) since access times are often not kept.
+ */
+final class ThumbnailStore {
+    private static final int MAGIC = 0x4D544842; // "MTHB"
+    private static final int HEADER_BYTES = 12;
+    private static final Path DIRECTORY = Paths.get(System.getProperty("thumbnail.dir",
+            System.getProperty("user.home") + File.separator + ".movie-booking" + File.separator + "thumbnails"));
+    private static final long MAX_BYTES = Long.getLong("thumbnail.maxMB", 64) * 1024 * 1024;
+    // Chỉ ghi lại thời gian sửa khi đã cũ hơn mức này, để không ghi đĩa mỗi lần hiện poster
+    private static final long TOUCH_AFTER_MILLIS = 24 * 60 * 60_000L;
+    // Tệp tạm của lần ghi bị ngắt giữa chừng
+    private static final long STALE_TEMP_MILLIS = 60 * 60_000L;
+    private static final AtomicBoolean pruned = new AtomicBoolean();
+
+    private ThumbnailStore() {
+    }
+
+    /** Returns the stored thumbnail, or null if there is none (or it is unreadable). */
+    static BufferedImage read(File source, int width, int height) {
+        pruneOnce();
+        Path file = entryFor(source, width, height);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expectedSize = HEADER_BYTES + 4L * width * height;
+            if (channel.size() != expectedSize) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != width || mapped.getInt() != height) {
+                return null;
+            }
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            mapped.asIntBuffer().get(pixels);
+            touch(file);
+            return image;
+        } catch (IOException e) {
+            System.err.println("Không đọc được thumbnail " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Stores the thumbnail; written to a temp file and renamed so readers never see a partial entry. */
+    static void write(File source, BufferedImage image) {
+        pruneOnce();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Path file = entryFor(source, width, height);
+        if (Files.isRegularFile(file)) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(DIRECTORY);
+            temp = Files.createTempFile(DIRECTORY, "thumb", ".tmp");
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * width * height);
+            buffer.putInt(MAGIC).putInt(width).putInt(height);
+            buffer.asIntBuffer().put(image.getRGB(0, 0, width, height, null, 0, width));
+            buffer.rewind();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+        } catch (IOException e) {
+            System.err.println("Không ghi được thumbnail " + file + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            long now = System.currentTimeMillis();
+            if (now - Files.getLastModifiedTime(file).toMillis() > TOUCH_AFTER_MILLIS) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            }
+        } catch (IOException e) {
+            // Chỉ ảnh hưởng thứ tự dọn dẹp
+        }
+    }
+
+    /** Deletes the least recently used entries beyond {@link #MAX_BYTES} and stale temp files, once per process. */
+    private static void pruneOnce() {
+        if (!pruned.compareAndSet(false, true) || !Files.isDirectory(DIRECTORY)) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // Vừa bị tiến trình khác xóa hoặc thay
+                }
+                long modified = attributes.lastModifiedTime().toMillis();
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp") && now - modified > STALE_TEMP_MILLIS) {
+                    deleteQuietly(file);
+                } else if (name.endsWith(".thumb") && attributes.isRegularFile()) {
+                    entries.add(new Entry(file, modified, attributes.size()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Không dọn được thư mục thumbnail " + DIRECTORY + ": " + e.getMessage());
+            return;
+        }
+        // Dùng gần đây nhất trước: giữ cho tới khi chạm giới hạn, xóa phần còn lại
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.modified).reversed());
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.size;
+            if (total > MAX_BYTES) {
+                deleteQuietly(entry.file);
+            }
+        }
+    }
+
+    // Windows không xóa được tệp đang được ánh xạ ở tiến trình khác: để lại, lần sau xóa
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Chưa xóa được thumbnail " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        final Path file;
+        final long modified;
+        final long size;
+
+        Entry(Path file, long modified, long size) {
+            this.file = file;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+
+    private static Path entryFor(File source, int width, int height) {
+        String key = source.getAbsolutePath() + '|' + source.lastModified() + '|' + width + 'x' + height;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + 6);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return DIRECTORY.resolve(name.append(".thumb").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
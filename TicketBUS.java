@@ -1,101 +1,127 @@
 package com.movie.bus;
 
 import com.movie.dao.BookingHistoryDAO;
+import com.movie.dao.RevenueDAO;
 import com.movie.dao.TicketDAO;
 import com.movie.model.BookingHistory;
 import com.movie.model.Seat;
 import com.movie.model.Ticket;
 import com.movie.network.SocketClient;
+import com.movie.network.SocketServer;
 import com.movie.network.ThreadManager;
+import com.movie.util.TtlCache;
 
 import javax.swing.JOptionPane;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 public class TicketBUS {
+    // Lịch sử đặt vé gần đây theo khách hàng: đặt vé thành công nối thêm vào, chỉ đọc lại DB khi chưa có
+    private static final TtlCache<Integer, List<BookingHistory>> historyCache =
+            new TtlCache<>("bookingHistory", 500, 10 * 60_000L);
+    private static final int MAX_CACHED_BOOKINGS = 500;
+
     private final TicketDAO ticketDAO = new TicketDAO();
     private final BookingHistoryDAO bookingHistoryDAO = new BookingHistoryDAO();
+    private final RevenueDAO revenueDAO = new RevenueDAO();
+    private final SeatHoldBUS seatHoldBUS = new SeatHoldBUS();
 
     public String processPayment(int customerID, int showtimeID, List<Seat> seats, double totalPrice, String movieTitle, String roomName) throws SQLException {
-        if (customerID <= 0 || showtimeID <= 0 || seats == null || seats.isEmpty() || totalPrice < 0) {
+        try {
+            bookSeats(customerID, showtimeID, seats, totalPrice, movieTitle, roomName);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(null,
+                    e.getMessage(),
+                    "Lỗi", JOptionPane.ERROR_MESSAGE);
+            return e.getMessage();
+        } catch (SQLException e) {
             JOptionPane.showMessageDialog(null,
-                    "Thông tin đặt vé không hợp lệ",
+                    "Không thể xử lý thanh toán: " + e.getMessage(),
                     "Lỗi", JOptionPane.ERROR_MESSAGE);
-            return "Thông tin đặt vé không hợp lệ";
+            throw e;
+        }
+
+        JOptionPane.showMessageDialog(null,
+                "Thanh toán thành công!",
+                "Thành công", JOptionPane.INFORMATION_MESSAGE);
+        return "Thanh toán thành công!";
+    }
+
+    /**
+     * Books the seats without any UI interaction (used by the Swing client and the HTTP API).
+     * @throws IllegalArgumentException if the booking data is invalid
+     * @throws IllegalStateException if one of the seats is already booked or held by another customer
+     * @throws SQLException if a database error occurs (the transaction is rolled back)
+     */
+    public void bookSeats(int customerID, int showtimeID, List<Seat> seats, double totalPrice, String movieTitle, String roomName) throws SQLException {
+        if (customerID <= 0 || showtimeID <= 0 || seats == null || seats.isEmpty() || totalPrice < 0) {
+            throw new IllegalArgumentException("Thông tin đặt vé không hợp lệ");
         }
 
         for (Seat seat : seats) {
-            if (ticketDAO.isSeatBooked(seat.getSeatID(), showtimeID)) {
-                String message = "Ghế " + seat.getSeatNumber() + " đã được đặt!";
-                JOptionPane.showMessageDialog(null,
-                        message,
-                        "Lỗi", JOptionPane.ERROR_MESSAGE);
-                return message;
+            if (seatHoldBUS.isHeldByOther(showtimeID, seat.getSeatID(), customerID)) {
+                throw new IllegalStateException("Ghế " + seat.getSeatNumber() + " đang được giữ!");
             }
         }
 
+        List<BookingHistory> added = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        int pricePerSeat = (int) (totalPrice / seats.size());
         Connection conn = null;
         try {
             conn = com.movie.util.DBConnection.getConnection();
             conn.setAutoCommit(false);
 
+            // Kiểm tra trong giao dịch và giữ khóa đến lúc commit; chỉ mục UX_Ticket_Showtime_Seat chặn nốt phần còn lại
+            for (Seat seat : seats) {
+                if (ticketDAO.isSeatBooked(conn, seat.getSeatID(), showtimeID)) {
+                    throw new IllegalStateException("Ghế " + seat.getSeatNumber() + " đã được đặt!");
+                }
+            }
+
+            // Vé, lịch sử và bảng tổng hợp doanh thu đều ghi trên conn: cùng commit hoặc cùng rollback
+            Date bookingDate = java.sql.Timestamp.valueOf(now);
             for (Seat seat : seats) {
                 Ticket ticket = new Ticket();
                 ticket.setCustomerID(customerID);
                 ticket.setShowtimeID(showtimeID);
                 ticket.setSeatID(seat.getSeatID());
-                ticket.setPrice((int) (totalPrice / seats.size()));
+                ticket.setPrice(pricePerSeat);
                 ticket.setSeatNumber(seat.getSeatNumber());
-                int ticketID = ticketDAO.bookTicket(ticket);
+                int ticketID = ticketDAO.bookTicket(conn, ticket);
 
                 BookingHistory history = new BookingHistory();
                 history.setCustomerID(customerID);
                 history.setTicketID(ticketID);
-                history.setBookingDate(new Date());
+                history.setBookingDate(bookingDate);
                 history.setMovieTitle(movieTitle);
                 history.setRoomName(roomName);
                 history.setSeatNumber(seat.getSeatNumber());
-                history.setPrice((int) (totalPrice / seats.size()));
-                bookingHistoryDAO.addBooking(history);
+                history.setPrice(pricePerSeat);
+                bookingHistoryDAO.addBooking(conn, history);
+                added.add(history);
             }
+            revenueDAO.addToRollup(conn, showtimeID, now.toLocalDate(), seats.size(), (double) pricePerSeat * seats.size());
 
             conn.commit();
-
-            ThreadManager.execute(() -> {
-                SocketClient client = new SocketClient("localhost", 5000);
-                client.start();
-                try {
-                    client.waitForConnection();
-                    if (client.isConnected()) {
-                        client.sendMessage("SEAT_UPDATE:" + showtimeID + ":" + seats.get(0).getRoomID() + ":" + getSeatNumbers(seats));
-                        // Add a small delay to ensure the server processes the message
-                        Thread.sleep(100);
-                    }
-                } catch (InterruptedException e) {
-                    System.err.println("Interrupted while waiting for socket connection: " + e.getMessage());
-                } finally {
-                    client.stop();
-                }
-            });
-
-            JOptionPane.showMessageDialog(null,
-                    "Thanh toán thành công!",
-                    "Thành công", JOptionPane.INFORMATION_MESSAGE);
-            return "Thanh toán thành công!";
+            NowShowingBUS.onSeatsBooked(showtimeID, seats.size());
+            appendToHistory(customerID, added);
+        } catch (IllegalStateException e) {
+            rollback(conn);
+            throw e;
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
-                }
+            rollback(conn);
+            if (TicketDAO.isDuplicateKey(e)) {
+                // Giao dịch khác vừa đặt cùng ghế
+                throw new IllegalStateException("Ghế đã được người khác đặt, vui lòng chọn ghế khác!");
             }
             System.err.println("Error processing payment for customer " + customerID + ": " + e.getMessage());
-            JOptionPane.showMessageDialog(null,
-                    "Không thể xử lý thanh toán: " + e.getMessage(),
-                    "Lỗi", JOptionPane.ERROR_MESSAGE);
             throw e;
         } finally {
             if (conn != null) {
@@ -107,6 +133,35 @@ public class TicketBUS {
                 }
             }
         }
+
+        ThreadManager.execute(() -> {
+            SocketClient client = new SocketClient("localhost", 5000);
+            client.start();
+            try {
+                client.waitForConnection();
+                if (client.isConnected()) {
+                    // Bộ đếm doanh thu trực tiếp nằm trong tiến trình server: báo để nó đọc ngay các vé vừa commit
+                    client.sendMessage(SocketServer.BOOKED_COMMAND);
+                    client.sendMessage("SEAT_UPDATE:" + showtimeID + ":" + seats.get(0).getRoomID() + ":" + getSeatNumbers(seats));
+                    // Add a small delay to ensure the server processes the message
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                System.err.println("Interrupted while waiting for socket connection: " + e.getMessage());
+            } finally {
+                client.stop();
+            }
+        });
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error during rollback: " + rollbackEx.getMessage());
+            }
+        }
     }
 
     public List<BookingHistory> getBookingHistory(int customerID) throws SQLException {
@@ -118,7 +173,12 @@ public class TicketBUS {
         }
 
         try {
-            return bookingHistoryDAO.getBookingsByCustomer(customerID);
+            List<BookingHistory> history = historyCache.getOrLoad(customerID, this::loadBookingHistory);
+            if (history.size() > MAX_CACHED_BOOKINGS) {
+                historyCache.invalidate(customerID);
+            }
+            // Bản sao vì giao diện sắp xếp lại danh sách
+            return new ArrayList<>(history);
         } catch (SQLException e) {
             System.err.println("Error retrieving booking history for customer " + customerID + ": " + e.getMessage());
             JOptionPane.showMessageDialog(null,
@@ -128,6 +188,32 @@ public class TicketBUS {
         }
     }
 
+    // Các tháng cũ đã chuyển sang kho lưu trữ nên nối thêm phía sau (cũ hơn mọi dòng còn trong cơ sở dữ liệu)
+    private List<BookingHistory> loadBookingHistory(int customerID) throws SQLException {
+        List<BookingHistory> history = bookingHistoryDAO.getBookingsByCustomer(customerID);
+        try {
+            history.addAll(BookingArchive.getInstance().findByCustomer(customerID));
+        } catch (IOException e) {
+            throw new SQLException("Không đọc được kho lưu trữ đặt vé: " + e.getMessage(), e);
+        }
+        return Collections.unmodifiableList(history);
+    }
+
+    private void appendToHistory(int customerID, List<BookingHistory> added) {
+        historyCache.updateIfPresent(customerID, history -> {
+            if (history.size() + added.size() > MAX_CACHED_BOOKINGS) {
+                return null;
+            }
+            List<BookingHistory> updated = new ArrayList<>(added.size() + history.size());
+            // Giữ thứ tự mới nhất trước như truy vấn
+            for (int i = added.size() - 1; i >= 0; i--) {
+                updated.add(added.get(i));
+            }
+            updated.addAll(history);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
     public boolean isSeatBooked(int seatID, int showtimeID) throws SQLException {
         return ticketDAO.isSeatBooked(seatID, showtimeID);
     }
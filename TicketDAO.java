@@ -8,17 +8,28 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
 
 public class TicketDAO {
     private static final String INSERT_TICKET = "INSERT INTO Ticket (CustomerID, ShowtimeID, SeatID, Price, SeatNumber) VALUES (?, ?, ?, ?, ?)";
     private static final String CHECK_SEAT_BOOKED = "SELECT COUNT(*) FROM Ticket WHERE SeatID = ? AND ShowtimeID = ?";
+    // Khóa khoảng khóa (ShowtimeID, SeatID) đến hết giao dịch: giao dịch khác không chèn được vé cùng ghế
+    private static final String CHECK_SEAT_BOOKED_FOR_UPDATE = "SELECT COUNT(*) FROM Ticket WITH (UPDLOCK, HOLDLOCK) WHERE SeatID = ? AND ShowtimeID = ?";
+    private static final String SELECT_BOOKED_SEATS = "SELECT SeatID FROM Ticket WHERE ShowtimeID = ?";
 
     public int bookTicket(Ticket ticket) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return bookTicket(conn, ticket);
+        }
+    }
+
+    // Ghi trên kết nối của người gọi để vé nằm trong cùng giao dịch đặt vé
+    public int bookTicket(Connection conn, Ticket ticket) throws SQLException {
         if (ticket.getSeatNumber() == null) {
             throw new SQLException("SeatNumber không được để trống!");
         }
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(INSERT_TICKET, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_TICKET, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, ticket.getCustomerID());
             stmt.setInt(2, ticket.getShowtimeID());
             stmt.setInt(3, ticket.getSeatID());
@@ -50,4 +61,35 @@ public class TicketDAO {
         }
         return false;
     }
+
+    // Đọc trên kết nối của giao dịch đặt vé, giữ khóa đến khi commit
+    public boolean isSeatBooked(Connection conn, int seatID, int showtimeID) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(CHECK_SEAT_BOOKED_FOR_UPDATE)) {
+            stmt.setInt(1, seatID);
+            stmt.setInt(2, showtimeID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    /** True if the error is a violation of a unique index or constraint (e.g. UX_Ticket_Showtime_Seat). */
+    public static boolean isDuplicateKey(SQLException e) {
+        // SQL Server: 2601 = trùng chỉ mục UNIQUE, 2627 = trùng ràng buộc UNIQUE/PRIMARY KEY
+        return e.getErrorCode() == 2601 || e.getErrorCode() == 2627;
+    }
+
+    public Set<Integer> getBookedSeatIds(int showtimeID) throws SQLException {
+        Set<Integer> seatIds = new HashSet<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKED_SEATS)) {
+            stmt.setInt(1, showtimeID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    seatIds.add(rs.getInt("SeatID"));
+                }
+            }
+        }
+        return seatIds;
+    }
 }
\ No newline at end of file
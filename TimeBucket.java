@@ -0,0 +1,47 @@
+package com.movie.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/** Bucket size of a revenue time series. Weeks start on Monday. */
+public enum TimeBucket {
+    DAY("Ngày"),
+    WEEK("Tuần"),
+    MONTH("Tháng");
+
+    private final String label;
+
+    TimeBucket(String label) {
+        this.label = label;
+    }
+
+    /** First day of the bucket containing the given day. */
+    public LocalDate startOf(LocalDate day) {
+        switch (this) {
+            case WEEK:
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return day.withDayOfMonth(1);
+            default:
+                return day;
+        }
+    }
+
+    /** First day of the bucket after the one starting at bucketStart. */
+    public LocalDate next(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK:
+                return bucketStart.plusWeeks(1);
+            case MONTH:
+                return bucketStart.plusMonths(1);
+            default:
+                return bucketStart.plusDays(1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.movie.util;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU cache with a per-entry time-to-live, used for read-through caching in the BUS layer.
+ * Every cache registers itself by name so its hit/miss counters can be exported (STATS, /api/stats).
+ */
+public class TtlCache<K, V> {
+    private static final List<TtlCache<?, ?>> registry = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Các lần tải đang chạy dở theo khóa; invalidate khóa đó (hoặc invalidateAll) tăng generation để bỏ kết quả của chúng
+    private final Map<K, Loads> inFlight = new HashMap<>();
+
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private static class Loads {
+        int count;
+        long generation;
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public TtlCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        registry.add(this);
+    }
+
+    public static List<TtlCache<?, ?>> getAll() {
+        return registry;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value or loads it; null results are not cached. A load is not cached if
+     * its key was invalidated or updated while it ran; other keys do not affect it.
+     */
+    public V getOrLoad(K key, Loader<K, V> loader) throws SQLException {
+        Loads loads;
+        long loadGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loads = inFlight.computeIfAbsent(key, k -> new Loads());
+            loads.count++;
+            loadGeneration = loads.generation;
+        }
+        V value = null;
+        try {
+            value = loader.load(key);
+            return value;
+        } finally {
+            synchronized (this) {
+                if (value != null && loads.generation == loadGeneration) {
+                    put(key, value);
+                }
+                if (--loads.count == 0) {
+                    inFlight.remove(key);
+                }
+            }
+        }
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Replaces a live entry with update(value), keeping its expiry; a null result removes it.
+     * Missing or expired entries are left alone. Loads already in flight are discarded, so a
+     * result read before this change can never overwrite it.
+     */
+    public synchronized void updateIfPresent(K key, UnaryOperator<V> update) {
+        discardLoads(key);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        V updated = entry.expiresAt > System.currentTimeMillis() ? update.apply(entry.value) : null;
+        if (updated == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new Entry<>(updated, entry.expiresAt));
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        discardLoads(key);
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        for (Loads loads : inFlight.values()) {
+            loads.generation++;
+        }
+        entries.clear();
+    }
+
+    // Gọi khi đang giữ khóa của cache
+    private void discardLoads(K key) {
+        Loads loads = inFlight.get(key);
+        if (loads != null) {
+            loads.generation++;
+        }
+    }
+
+    public synchronized int size() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.movie.ui;
 
 import com.movie.bus.MovieBUS;
-import com.movie.bus.RoomBUS;
+import com.movie.bus.NowShowingBUS;
+import com.movie.bus.OccupancyBUS;
 import com.movie.bus.TicketBUS;
 import com.movie.model.BookingHistory;
 import com.movie.model.Movie;
-import com.movie.model.Room;
+import com.movie.model.Occupancy;
+import com.movie.model.ShowingSlot;
 import com.movie.network.ThreadManager;
 import java.util.stream.Collectors;
 import javax.swing.*;
@@ -14,13 +16,17 @@ import java.awt.event.*;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class UserFrame extends JFrame {
     private final int customerID;
     private final MovieBUS movieBUS;
-    private final RoomBUS roomBUS;
+    private final NowShowingBUS nowShowingBUS;
+    private final OccupancyBUS occupancyBUS;
     private final TicketBUS ticketBUS;
     private JPanel contentPanel;
     private CardLayout cardLayout;
@@ -33,7 +39,8 @@ public class UserFrame extends JFrame {
     public UserFrame(int customerID) {
         this.customerID = customerID;
         this.movieBUS = new MovieBUS();
-        this.roomBUS = new RoomBUS();
+        this.nowShowingBUS = new NowShowingBUS();
+        this.occupancyBUS = new OccupancyBUS();
         this.ticketBUS = new TicketBUS();
 
         SwingUtilities.invokeLater(this::initUI);
@@ -208,9 +215,18 @@ public class UserFrame extends JFrame {
         movieListPanel.repaint();
 
         new SwingWorker<List<Movie>, Void>() {
+            private Map<Integer, List<ShowingSlot>> showings = new HashMap<>();
+            private Map<Integer, Occupancy> occupancy = new HashMap<>();
+
             @Override
             protected List<Movie> doInBackground() throws SQLException {
                 try {
+                    // Lịch chiếu của mọi phim lấy từ chỉ mục trong bộ nhớ, không truy vấn theo từng phim
+                    showings = nowShowingBUS.getShowingsByMovie();
+                    // Ghế trống trừ cả ghế đang được giữ, lấy cho mọi suất trong một lần
+                    List<Integer> showtimeIDs = new ArrayList<>();
+                    showings.values().forEach(slots -> slots.forEach(slot -> showtimeIDs.add(slot.getShowtimeID())));
+                    occupancy = occupancyBUS.getOccupancy(showtimeIDs);
                     return movieBUS.getAllMovies();
                 } catch (SQLException ex) {
                     ex.printStackTrace();
@@ -230,7 +246,8 @@ public class UserFrame extends JFrame {
                         movieListPanel.add(noMoviesLabel);
                     } else {
                         for (Movie movie : movies) {
-                            JPanel moviePanel = createMoviePanel(movie);
+                            JPanel moviePanel = createMoviePanel(movie,
+                                    showings.getOrDefault(movie.getMovieID(), Collections.emptyList()), occupancy);
                             movieListPanel.add(moviePanel);
                             movieListPanel.add(Box.createVerticalStrut(10)); // Add spacing
                         }
@@ -259,7 +276,7 @@ public class UserFrame extends JFrame {
         }.execute();
     }
 
-    private JPanel createMoviePanel(Movie movie) {
+    private JPanel createMoviePanel(Movie movie, List<ShowingSlot> showings, Map<Integer, Occupancy> occupancy) {
         JPanel moviePanel = new JPanel(new BorderLayout());
         moviePanel.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createLineBorder(new Color(200, 200, 200), 1),
@@ -273,20 +290,10 @@ public class UserFrame extends JFrame {
         posterPanel.setPreferredSize(new Dimension(200, 140));
         posterPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
 
-        JLabel posterLabel = new JLabel("Không có ảnh", SwingConstants.CENTER);
+        JLabel posterLabel = new JLabel(PosterService.NO_IMAGE_TEXT, SwingConstants.CENTER);
         posterLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
-
-        if (movie.getPoster() != null && !movie.getPoster().isEmpty()) {
-            try {
-                ImageIcon icon = new ImageIcon(movie.getPoster());
-                if (icon.getIconWidth() > 0) { // Validate image
-                    posterLabel.setText("");
-                    posterLabel.setIcon(new ImageIcon(icon.getImage().getScaledInstance(180, 130, Image.SCALE_SMOOTH)));
-                }
-            } catch (Exception e) {
-                System.err.println("Error loading poster for " + movie.getTitle() + ": " + e.getMessage());
-            }
-        }
+        // Giải mã và thu nhỏ ở luồng nền, panel hiển thị ngay với chữ chờ
+        PosterService.load(movie.getPoster(), PosterService.CATALOG_WIDTH, PosterService.CATALOG_HEIGHT, posterLabel);
 
         posterPanel.add(posterLabel, BorderLayout.CENTER);
         moviePanel.add(posterPanel, BorderLayout.WEST);
@@ -373,8 +380,7 @@ public class UserFrame extends JFrame {
         infoPanel.add(bookButton);
         moviePanel.add(infoPanel, BorderLayout.CENTER);
 
-        // Load room and price info asynchronously
-        loadRoomAndPriceInfo(movie, roomLabel, priceLabel, bookButton);
+        showRoomAndPriceInfo(showings, occupancy, roomLabel, priceLabel, bookButton);
 
         // Set up booking action
         bookButton.addActionListener(e -> openBookingFrame(movie));
@@ -382,76 +388,48 @@ public class UserFrame extends JFrame {
         return moviePanel;
     }
 
-    private void loadRoomAndPriceInfo(Movie movie, JLabel roomLabel, JLabel priceLabel, JButton bookButton) {
-        new SwingWorker<Room, Void>() {
-            @Override
-            protected Room doInBackground() {
-                try {
-                    List<Room> rooms = roomBUS.getAllRooms();
-                    return rooms.stream()
-                            .filter(r -> r.getMovieTitle() != null && r.getMovieTitle().equals(movie.getTitle()))
-                            .findFirst() // Lấy phòng đầu tiên khớp với phim
-                            .orElse(null);
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                    return null;
-                }
-            }
+    private void showRoomAndPriceInfo(List<ShowingSlot> showings, Map<Integer, Occupancy> occupancy,
+                                      JLabel roomLabel, JLabel priceLabel, JButton bookButton) {
+        if (showings.isEmpty()) {
+            roomLabel.setText("Phòng chiếu: Không có");
+            priceLabel.setText("Giá vé: Không có");
+            bookButton.setEnabled(false);
+            bookButton.setToolTipText("Phim chưa được xếp lịch chiếu");
+            return;
+        }
 
-            @Override
-            protected void done() {
-                try {
-                    Room movieRoom = get();
-                    if (movieRoom != null) {
-                        // Lấy tất cả suất chiếu cho phòng này và ghép thành chuỗi
-                        List<Room> allShowtimes = roomBUS.getAllRooms().stream()
-                                .filter(r -> r.getRoomName().equals(movieRoom.getRoomName())
-                                        && r.getMovieTitle() != null
-                                        && r.getMovieTitle().equals(movie.getTitle()))
-                                .collect(Collectors.toList());
-
-                        String showtimes = allShowtimes.stream()
-                                .map(r -> String.format("%s - %s",
-                                        new SimpleDateFormat("HH:mm").format(r.getShowtime()),
-                                        r.getRoomName()))
-                                .collect(Collectors.joining(", "));
-                        roomLabel.setText("Phòng chiếu: " + showtimes);
-
-                        priceLabel.setText("Giá vé: " + String.format("%,.0f VND", movieRoom.getPrice()));
-
-                        boolean canBook = allShowtimes.stream().anyMatch(r ->
-                                "Đang chiếu".equals(r.getStatus()) || "Chuẩn bị chiếu".equals(r.getStatus()));
-                        bookButton.setEnabled(canBook);
-                        bookButton.setToolTipText(canBook ? "Đặt vé xem phim" : "Phim không khả dụng");
-                    } else {
-                        roomLabel.setText("Phòng chiếu: Không có");
-                        priceLabel.setText("Giá vé: Không có");
-                        bookButton.setEnabled(false);
-                        bookButton.setToolTipText("Phim chưa được xếp lịch chiếu");
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    roomLabel.setText("Phòng chiếu: Lỗi tải dữ liệu");
-                    priceLabel.setText("Giá vé: Lỗi tải dữ liệu");
-                    bookButton.setEnabled(false);
-                }
-            }
-        }.execute();
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm dd/MM");
+        String showtimes = showings.stream()
+                .map(slot -> String.format("%s - %s (còn %d ghế)",
+                        timeFormat.format(slot.getShowDate()), slot.getRoomName(), freeSeats(slot, occupancy)))
+                .collect(Collectors.joining(", "));
+        roomLabel.setText("Phòng chiếu: " + showtimes);
+
+        double minPrice = showings.stream().mapToDouble(ShowingSlot::getPrice).min().orElse(0);
+        double maxPrice = showings.stream().mapToDouble(ShowingSlot::getPrice).max().orElse(0);
+        priceLabel.setText(minPrice == maxPrice
+                ? "Giá vé: " + String.format("%,.0f VND", minPrice)
+                : "Giá vé: " + String.format("%,.0f - %,.0f VND", minPrice, maxPrice));
+
+        boolean canBook = showings.stream().anyMatch(slot -> freeSeats(slot, occupancy) > 0);
+        bookButton.setEnabled(canBook);
+        bookButton.setToolTipText(canBook ? "Đặt vé xem phim" : "Đã hết ghế");
+    }
+
+    private static int freeSeats(ShowingSlot slot, Map<Integer, Occupancy> occupancy) {
+        Occupancy seats = occupancy.get(slot.getShowtimeID());
+        return seats != null ? Math.min(seats.getFree(), slot.getRemainingSeats()) : slot.getRemainingSeats();
     }
 
     private void openBookingFrame(Movie movie) {
         try {
-            Room movieRoom = null;
-            List<Room> rooms = roomBUS.getAllRooms();
-            for (Room room : rooms) {
-                if (room.getMovieTitle() != null && room.getMovieTitle().equals(movie.getTitle())) {
-                    movieRoom = room;
-                    break;
-                }
-            }
+            ShowingSlot slot = nowShowingBUS.getShowingsForMovie(movie.getMovieID()).stream()
+                    .filter(s -> s.getRemainingSeats() > 0)
+                    .findFirst()
+                    .orElse(null);
 
-            if (movieRoom != null) {
-                new BookingFrame(customerID, movieRoom.getRoomID(), movie.getMovieID()).setVisible(true);
+            if (slot != null) {
+                new BookingFrame(customerID, slot.getShowtimeID(), slot.getRoomID(), movie.getMovieID()).setVisible(true);
             } else {
                 JOptionPane.showMessageDialog(
                         this,
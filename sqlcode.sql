@@ -224,6 +224,37 @@ CREATE TABLE BookingHistory (
                                 FOREIGN KEY (TicketID) REFERENCES Ticket(TicketID)
 );
 
+-- Chỉ mục cho lịch sử đặt vé theo khách hàng (mới nhất trước)
+CREATE INDEX IX_BookingHistory_Customer ON BookingHistory (CustomerID, BookingDate DESC);
+
+-- Chỉ mục cho kiểm tra trùng lịch chiếu theo khoảng thời gian
+CREATE INDEX IX_Showtime_ShowDate ON Showtime (ShowDate) INCLUDE (RoomID, MovieID);
+
+-- Bảng Revenue dùng làm bảng tổng hợp doanh thu theo (ngày, suất chiếu), cập nhật trong giao dịch đặt vé
+ALTER TABLE Revenue ALTER COLUMN TotalRevenue DECIMAL(14, 2) NOT NULL;
+ALTER TABLE Revenue ADD TicketCount INT NOT NULL DEFAULT 0;
+CREATE UNIQUE INDEX UX_Revenue_Date_Showtime ON Revenue (RevenueDate, ShowtimeID);
+GO
+
+-- Chỉ mục cho truy vấn doanh thu theo khoảng thời gian (BookingDate >= ? AND BookingDate < ?)
+CREATE INDEX IX_BookingHistory_BookingDate ON BookingHistory (BookingDate) INCLUDE (Price, TicketID, MovieTitle, RoomName);
+
+-- Chỉ mục cho số ghế đã bán theo suất chiếu (tỷ lệ lấp đầy)
+CREATE INDEX IX_Revenue_Showtime ON Revenue (ShowtimeID) INCLUDE (TicketCount);
+
+-- Mỗi ghế chỉ bán một lần cho mỗi suất chiếu: chặn đặt trùng khi hai giao dịch cùng đặt một ghế
+CREATE UNIQUE INDEX UX_Ticket_Showtime_Seat ON Ticket (ShowtimeID, SeatID);
+
+-- Các tháng đã chuyển khỏi BookingHistory/Ticket sang tệp lưu trữ (thư mục -Darchive.dir dùng chung).
+-- Ghi trong cùng giao dịch với lệnh xóa, nên mọi tiến trình thấy cùng một ranh giới lưu trữ
+CREATE TABLE ArchiveState (
+    ArchivedMonth DATE PRIMARY KEY, -- ngày đầu tháng
+    FileName NVARCHAR(100) NOT NULL,
+    BookingCount INT NOT NULL,
+    PriceCents BIGINT NOT NULL,
+    ArchivedAt DATETIME NOT NULL DEFAULT GETDATE()
+);
+
 -- Thêm dữ liệu mẫu cho Room (cập nhật Price)
 UPDATE Room
 SET Price = 100000